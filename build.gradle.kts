@@ -9,11 +9,56 @@ repositories {
     mavenCentral()
 }
 
+// Benchmarks of the hot paths, kept apart from the program itself (see src/jmh)
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhImplementation: Configuration by configurations.getting {
+    extendsFrom(configurations.implementation.get())
+}
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.9.1"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Runs every benchmark, writing the results to build/reports/jmh/results.json. Other JMH options
+// can be given with -PjmhArgs, e.g. -PjmhArgs="QuestionListBenchmark -p numQuestions=1000"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks of the load, select, sort, answer and save paths."
+
+    val resultsFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    val jmhArgs = (project.findProperty("jmhArgs") as String?)?.split(" ")?.filter { it.isNotBlank() }
+
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args(listOf("-rf", "json", "-rff", resultsFile.path) + (jmhArgs ?: listOf()))
+
+    doFirst {
+        resultsFile.parentFile.mkdirs()
+    }
+}
+
+// Generates a synthetic question bank, e.g.
+// gradle generateBank -PgeneratorArgs="build/bank.csv --questions=10000000 --seed=2"
+tasks.register<JavaExec>("generateBank") {
+    group = "application"
+    description = "Generates a synthetic question bank (see program.QuestionBankGenerator)."
+
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("program.QuestionBankGenerator")
+    val generatorArgs = (project.findProperty("generatorArgs") as String?)?.split(" ")
+    args(generatorArgs?.filter { it.isNotBlank() } ?: listOf<String>())
+}
@@ -0,0 +1,77 @@
+package program;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The synthetic question banks used by the benchmarks. Each bank is a valid .csv file (see
+ * {@link FileQuestionsInterface#COLUMN_HEADERS}) of a given number of {@link Question}s, generated
+ * from a fixed seed so that every run of the benchmarks reads exactly the same data. A bank is
+ * written to the temporary directory by a {@link QuestionBankGenerator} with its default options
+ * the first time it is needed, and reused by later runs.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+final class BenchmarkBank {
+
+    /**
+     * The seed from which every bank is generated.
+     */
+    private final static long SEED = 1;
+
+    /**
+     * The version of the generated data, which is part of the name of each bank so that banks
+     * generated differently by an earlier version are not reused.
+     */
+    private final static int VERSION = 2;
+
+    private BenchmarkBank() {
+    }
+
+    /**
+     * Returns the location of the bank of the provided number of {@link Question}s, generating it
+     * if it does not exist yet.
+     *
+     * @param numQuestions
+     *         the number of {@code Question}s in the bank.
+     *
+     * @return the location of the bank.
+     *
+     * @throws IOException
+     *         if the bank could not be written.
+     */
+    static String getFile(int numQuestions) throws IOException {
+        Path path = Path.of(System.getProperty("java.io.tmpdir"),
+                "revision_program-benchmark-v" + VERSION + "-" + numQuestions + ".csv");
+
+        if (!Files.isRegularFile(path)) {
+            new QuestionBankGenerator(numQuestions, SEED).write(path.toString());
+        }
+
+        return path.toString();
+    }
+
+    /**
+     * Returns a new {@link QuestionList} of the {@link Question}s in the bank of the provided
+     * number of {@code Question}s, indexed as by
+     * {@link FileQuestionsInterface#createQuestionList(String)}, but without a snapshot,
+     * {@link ProgressJournal} or {@link Autosave}, so that only the work of the
+     * {@code QuestionList} itself is measured.
+     *
+     * @param numQuestions
+     *         the number of {@code Question}s in the bank.
+     *
+     * @return a new {@code QuestionList} of the {@code Question}s in the bank.
+     *
+     * @throws IOException
+     *         if the bank could not be written.
+     */
+    static QuestionList load(int numQuestions) throws IOException {
+        String fileLocation = getFile(numQuestions);
+        QuestionList questions = new QuestionList(FileQuestionsInterface.getQuestionsFromFile(
+                fileLocation, LoadMode.STANDARD), fileLocation);
+        questions.createIndex();
+        return questions;
+    }
+}
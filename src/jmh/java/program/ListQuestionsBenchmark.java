@@ -0,0 +1,56 @@
+package program;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import program.attributes.fields.QuestionNumericalAttribute;
+import program.helpers.SortingKey;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures listing the {@link Question}s of a {@link QuestionList} (see
+ * {@link QuestionList#listQuestions(SortingKey)}), both in their current order and sorted by their
+ * likelihood. The time taken grows with the square of the number of {@code Question}s listed, so
+ * only the smaller banks are listed.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListQuestionsBenchmark {
+
+    @Param({"1000", "10000"})
+    private int numQuestions;
+
+    private QuestionList questions;
+
+    @Setup
+    public void setUp() throws IOException {
+        questions = BenchmarkBank.load(numQuestions);
+    }
+
+    @Benchmark
+    public String listQuestions() {
+        return questions.listQuestions(null);
+    }
+
+    @Benchmark
+    public String listQuestionsSorted() {
+        return questions.listQuestions(new SortingKey(QuestionNumericalAttribute.LIKELIHOOD,
+                true));
+    }
+}
@@ -0,0 +1,51 @@
+package program;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a .csv file of {@link Question}s with each {@link LoadMode} (see
+ * {@link FileQuestionsInterface#getQuestionsFromFile(String, LoadMode)}).
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int numQuestions;
+
+    @Param({"STANDARD", "MEMORY_MAPPED", "PARALLEL"})
+    private LoadMode loadMode;
+
+    private String fileLocation;
+
+    @Setup
+    public void setUp() throws IOException {
+        fileLocation = BenchmarkBank.getFile(numQuestions);
+    }
+
+    @Benchmark
+    public ArrayList<Question> getQuestionsFromFile() throws FileNotFoundException {
+        return FileQuestionsInterface.getQuestionsFromFile(fileLocation, loadMode);
+    }
+}
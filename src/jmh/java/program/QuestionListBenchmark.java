@@ -0,0 +1,120 @@
+package program;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import program.attributes.fields.QuestionAttribute;
+import program.attributes.fields.QuestionNumericalAttribute;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations made on a {@link QuestionList} loaded from a file while revising:
+ * selecting {@link Question}s by their attributes, sorting them, and answering them.
+ *
+ * <p>Selections are measured both on the loaded list, which uses its {@link AttributeIndex}, and
+ * on a copy of it with no index, which compares every {@code Question}. The Questions of each
+ * selection are created, as they are when a selection is displayed.
+ *
+ * <p>Each operation is also measured on a {@link ColumnarQuestionList} of the same
+ * {@code Question}s, which gives the same results from columns of values rather than
+ * {@code Question} objects, so that the two layouts can be compared.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionListBenchmark {
+
+    /**
+     * The values selected, two of the six subjects in each bank (see {@link BenchmarkBank}).
+     */
+    private final static String[] SELECTED_SUBJECTS = {"Physics", "Chemistry"};
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int numQuestions;
+
+    private QuestionList questions;
+
+    private QuestionList unindexedQuestions;
+
+    private ColumnarQuestionList columnarQuestions;
+
+    private Random random;
+
+    @Setup
+    public void setUp() throws IOException {
+        questions = BenchmarkBank.load(numQuestions);
+        unindexedQuestions = new QuestionList(new ArrayList<>(questions.getQuestions()),
+                questions.getFileLocation());
+        columnarQuestions = new ColumnarQuestionList(questions);
+        random = new Random(1);
+
+        // The positions of each subject are found by the first selection by subject
+        questions.selectByAttributeArray(SELECTED_SUBJECTS, QuestionAttribute.SUBJECT);
+    }
+
+    @Benchmark
+    public ArrayList<Question> selectByAttributeArray() {
+        return questions.selectByAttributeArray(SELECTED_SUBJECTS, QuestionAttribute.SUBJECT)
+                .getQuestions();
+    }
+
+    @Benchmark
+    public ArrayList<Question> selectByAttributeArrayWithoutIndex() {
+        return unindexedQuestions.selectByAttributeArray(SELECTED_SUBJECTS,
+                QuestionAttribute.SUBJECT).getQuestions();
+    }
+
+    @Benchmark
+    public ColumnarQuestionList selectByAttributeArrayColumnar() {
+        return columnarQuestions.selectByAttributeArray(SELECTED_SUBJECTS,
+                QuestionAttribute.SUBJECT);
+    }
+
+    /**
+     * Sorts a copy of the list, so that every sort starts from the order in which the
+     * {@link Question}s were loaded, rather than from the order left by the previous sort.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public QuestionList sortByNumericalAttribute() {
+        QuestionList copy = new QuestionList(new ArrayList<>(questions.getQuestions()),
+                questions.getFileLocation());
+        return copy.sortByNumericalAttribute(QuestionNumericalAttribute.LIKELIHOOD, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ColumnarQuestionList sortByNumericalAttributeColumnar() {
+        return columnarQuestions.copy().sortByNumericalAttribute(
+                QuestionNumericalAttribute.LIKELIHOOD, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void answeredQuestion() {
+        questions.answeredQuestion(random.nextInt(numQuestions), random.nextBoolean());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void answeredQuestionColumnar() {
+        columnarQuestions.answeredQuestion(random.nextInt(numQuestions), random.nextBoolean());
+    }
+}
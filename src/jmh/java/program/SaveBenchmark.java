@@ -0,0 +1,59 @@
+package program;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving a {@link QuestionList} to its file (see
+ * {@link FileQuestionsInterface#saveToFile(QuestionList)}), including its snapshot if snapshots
+ * are enabled. The file is written to a copy of the bank, so the bank itself is never changed.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int numQuestions;
+
+    private QuestionList questions;
+
+    @Setup
+    public void setUp() throws IOException {
+        String fileLocation = Files.createTempFile("revision_program-save", ".csv").toString();
+        questions = new QuestionList(BenchmarkBank.load(numQuestions).getQuestions(),
+                fileLocation);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(questions.getFileLocation()));
+        Files.deleteIfExists(Path.of(QuestionSnapshot.getSnapshotLocation(
+                questions.getFileLocation())));
+    }
+
+    @Benchmark
+    public void saveToFile() throws IOException {
+        FileQuestionsInterface.saveToFile(questions);
+    }
+}
@@ -0,0 +1,65 @@
+package program;
+
+import program.attributes.fields.QuestionAttribute;
+
+import java.util.EnumMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dictionary of the values of each {@link QuestionAttribute} read while loading a file, used so
+ * that every {@link Question} loaded with the same value for an attribute holds the same
+ * {@code String} object, rather than its own copy read from its own line.
+ *
+ * <p>Most attributes have only a handful of distinct values across a whole file, so this stores
+ * each of them once. The {@code TITLE} attribute is not included, as almost every
+ * {@code Question} has a different title. Sharing values also lets comparisons between two
+ * {@code Question}s with the same value finish as soon as the references are found to be equal
+ * (see {@link program.comparators.QuestionAttributeComparator QuestionAttributeComparator}).
+ *
+ * <p>A single dictionary is used for a whole file, and may be used by several threads at once
+ * when the file is loaded in parallel (see {@link LoadMode#PARALLEL}).
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class AttributeDictionary {
+
+    /**
+     * For each {@link QuestionAttribute} but the {@code TITLE}, the first {@code String} read for
+     * each of its values. The attributes present never change once the dictionary is created, so
+     * only the values of each attribute need to be safe to use from several threads.
+     */
+    private final EnumMap<QuestionAttribute, ConcurrentHashMap<String, String>> VALUES;
+
+    AttributeDictionary() {
+        this.VALUES = new EnumMap<>(QuestionAttribute.class);
+
+        for (QuestionAttribute attribute : QuestionAttribute.values()) {
+            if (attribute != QuestionAttribute.TITLE) {
+                VALUES.put(attribute, new ConcurrentHashMap<>());
+            }
+        }
+    }
+
+    /**
+     * Returns the {@code String} held in this dictionary which is equal to the provided
+     * {@code value} of the provided {@code attribute}, adding the {@code value} to the dictionary
+     * if there is none. {@code TITLE} values are returned unchanged.
+     *
+     * @param attribute
+     *         the {@link QuestionAttribute} of which {@code value} is a value.
+     * @param value
+     *         the value to look up.
+     *
+     * @return the {@code String} equal to {@code value} which every {@link Question} loaded with
+     *         this dictionary holds.
+     */
+    String intern(QuestionAttribute attribute, String value) {
+        ConcurrentHashMap<String, String> values = VALUES.get(attribute);
+        if (values == null) {
+            return value;
+        }
+
+        String existingValue = values.putIfAbsent(value, value);
+        return existingValue == null ? value : existingValue;
+    }
+}
@@ -0,0 +1,186 @@
+package program;
+
+import program.attributes.fields.QuestionAttribute;
+import program.helpers.ReformatString;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+
+/**
+ * An inverted index of the {@link Question}s loaded from a file, giving for each
+ * {@link QuestionAttribute} and each of its values the positions of the {@code Question}s with
+ * that value, so that selecting {@code Question}s by their values (see
+ * {@link QuestionList#selectByAttributeArray(String[], QuestionAttribute)}) takes time
+ * proportional to the number of matching {@code Question}s, rather than the number of
+ * {@code Question}s loaded.
+ *
+ * <p>The positions of each {@code QuestionAttribute}'s values are found the first time a selection
+ * is made by it, and kept for every later selection, so loading a file is not slowed by indexing
+ * attributes (such as the {@code TITLE}) which are rarely selected by.
+ *
+ * <p>Positions refer to the order in which the {@code Question}s were loaded, and the positions of
+ * each value are held as a {@link PositionBitmap}. A {@link QuestionList} whose {@code Question}s
+ * are still in this order can be described by their positions alone, so a selection from it is
+ * the union of the positions of each value selected, intersected with the positions of the list.
+ *
+ * <p>Values are matched in the same way as by {@code selectByAttributeArray}: ignoring case for
+ * the {@code TITLE} and {@code TOPIC} attributes, and exactly for every other attribute.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class AttributeIndex {
+
+    /**
+     * The indexed {@link Question}s, in the order in which they were loaded.
+     */
+    private final Question[] QUESTIONS;
+
+    /**
+     * For each {@link QuestionAttribute}, the positions of the {@link Question}s with
+     * each value (see {@link #getKey(QuestionAttribute, String)}). An attribute is only present
+     * once its positions have been needed.
+     */
+    private final EnumMap<QuestionAttribute, HashMap<String, PositionBitmap>> POSTINGS;
+
+    /**
+     * The position of every indexed {@link Question}.
+     */
+    private final PositionBitmap ALL_POSITIONS;
+
+    /**
+     * Creates a new {@code AttributeIndex} of the provided {@code questions}, in the order
+     * provided.
+     *
+     * @param questions
+     *         the {@link Question}s to index.
+     */
+    AttributeIndex(ArrayList<Question> questions) {
+        int numQuestions = questions.size();
+
+        this.QUESTIONS = questions.toArray(new Question[0]);
+        this.POSTINGS = new EnumMap<>(QuestionAttribute.class);
+        this.ALL_POSITIONS = PositionBitmap.range(numQuestions);
+    }
+
+    /**
+     * Returns the number of indexed {@link Question}s.
+     */
+    int getNumQuestions() {
+        return QUESTIONS.length;
+    }
+
+    /**
+     * Returns the position of every indexed {@link Question}.
+     */
+    PositionBitmap getAllPositions() {
+        return ALL_POSITIONS;
+    }
+
+    /**
+     * Returns the {@link Question} at the provided {@code position}.
+     */
+    Question getQuestion(int position) {
+        return QUESTIONS[position];
+    }
+
+    /**
+     * Returns the {@link Question}s at the provided {@code positions}, in the order in which they
+     * were loaded.
+     */
+    ArrayList<Question> getQuestions(PositionBitmap positions) {
+        ArrayList<Question> questions = new ArrayList<>(positions.getCardinality());
+        for (int position : positions.toArray()) {
+            questions.add(QUESTIONS[position]);
+        }
+        return questions;
+    }
+
+    /**
+     * Returns the positions of the {@link Question}s with each value of the provided
+     * {@code attribute}, by key (see {@link #getKey(QuestionAttribute, String)}). These are found
+     * the first time they are needed, in O(n) time, and kept for every later selection.
+     */
+    private HashMap<String, PositionBitmap> getPostings(QuestionAttribute attribute) {
+        HashMap<String, PositionBitmap> existingPostings = POSTINGS.get(attribute);
+        if (existingPostings != null) {
+            return existingPostings;
+        }
+
+        int numQuestions = QUESTIONS.length;
+
+        // Number each distinct key, and count the positions with each number, so that each
+        // array of positions can be allocated at its final size
+        HashMap<String, Integer> keyNumbers = new HashMap<>();
+        int[] numbers = new int[numQuestions];
+        int[] counts = new int[numQuestions];
+        String previousValue = null;
+        for (int position = 0; position < numQuestions; position++) {
+            String value = QUESTIONS[position].getQuestionAttribute(attribute);
+            if (position > 0 && value.equals(previousValue)) {
+                numbers[position] = numbers[position - 1];
+            } else {
+                numbers[position] = keyNumbers.computeIfAbsent(getKey(attribute, value),
+                        key -> keyNumbers.size());
+            }
+            counts[numbers[position]]++;
+            previousValue = value;
+        }
+
+        int[][] positionsByNumber = new int[keyNumbers.size()][];
+        for (int number = 0; number < positionsByNumber.length; number++) {
+            positionsByNumber[number] = new int[counts[number]];
+            counts[number] = 0;
+        }
+        for (int position = 0; position < numQuestions; position++) {
+            positionsByNumber[numbers[position]][counts[numbers[position]]++] = position;
+        }
+
+        HashMap<String, PositionBitmap> postings = new HashMap<>(keyNumbers.size() * 2);
+        for (String key : keyNumbers.keySet()) {
+            postings.put(key, PositionBitmap.of(positionsByNumber[keyNumbers.get(key)]));
+        }
+        POSTINGS.put(attribute, postings);
+        return postings;
+    }
+
+    /**
+     * Returns the key under which the positions of the provided {@code value} of the provided
+     * {@code attribute} are held. Two values have the same key exactly when
+     * {@link program.comparators.StringComparator StringComparator} (ignoring case for the
+     * {@code TITLE} and {@code TOPIC} attributes) finds them equal.
+     */
+    private static String getKey(QuestionAttribute attribute, String value) {
+        if (!attribute.equals(QuestionAttribute.TITLE) &&
+                !attribute.equals(QuestionAttribute.TOPIC)) {
+            return value;
+        }
+
+        return ReformatString.foldCase(value);
+    }
+
+    /**
+     * Returns the positions of the {@link Question}s whose value for the provided
+     * {@code attribute} matches any of the provided {@code values}.
+     *
+     * @param values
+     *         the values to select.
+     * @param attribute
+     *         the {@code QuestionAttribute} whose values should be matched.
+     *
+     * @return the positions of the matching {@code Question}s.
+     */
+    PositionBitmap select(String[] values, QuestionAttribute attribute) {
+        HashMap<String, PositionBitmap> postings = getPostings(attribute);
+        PositionBitmap matching = PositionBitmap.EMPTY;
+
+        for (String value : values) {
+            PositionBitmap positions = postings.get(getKey(attribute, value));
+            if (positions != null) {
+                matching = matching.or(positions);
+            }
+        }
+
+        return matching;
+    }
+}
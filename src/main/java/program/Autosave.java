@@ -0,0 +1,294 @@
+package program;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the progress made on the {@link Question}s loaded from a file in the background while
+ * they are being answered, so that the file is kept close to up to date without the user waiting
+ * for it to be written, and so that only the answers given since the last save need to be written
+ * when the program exits (see {@link #saveNow()}).
+ *
+ * <p>Each answer changes the expected times asked of every {@code Question} in the
+ * {@link QuestionList} in which it was given, so the list is recorded as dirty (see
+ * {@link QuestionList#answeredQuestion(int, boolean)}). Once {@link Settings#getAutosaveAnswers()}
+ * answers have been given since progress was last saved, or
+ * {@link Settings#getAutosaveIntervalSeconds()} seconds have passed, the progress of the
+ * {@code Question}s in the dirty lists is copied into a {@link QuestionProgress} on the thread
+ * answering them. The progress of every other {@code Question} is taken from the previous copy, so
+ * only the dirty {@code Question}s are read (when the dirty lists are still described by their
+ * positions in the {@link AttributeIndex}; otherwise every {@code Question} is read). The file, and
+ * its snapshot (see {@link QuestionSnapshot}), are then written from the copy on a single
+ * background thread.
+ *
+ * <p>The interval is only checked when a {@code Question} is answered, rather than on a timer, as
+ * reading a {@code Question}'s progress brings its expected times asked up to date (see
+ * {@link QuestionPool}), so it can only be read on the thread answering it. Instead, answers
+ * which have not yet been saved are saved whenever the home page is shown (see
+ * {@link #saveAnswered()}), so that a session left idle there has every answer saved. Answers
+ * given since the last save are only left unsaved while a question is waiting to be answered.
+ *
+ * <p>Only one save is written at a time. If a save is due while the previous one is still being
+ * written, it is made after a later answer instead. Once a save has been written, the records in
+ * the {@link ProgressJournal} up to when the progress was copied are removed, keeping those of any
+ * answers given since.
+ *
+ * <p>If the file is being watched (see {@link QuestionFileWatcher}), a save is not written while
+ * the file holds changes made by another program which have not yet been applied, so that they are
+ * not overwritten. The progress is still in the journal, and is saved once the changes have been
+ * applied (see {@link #questionsReplaced()}).
+ *
+ * <p>Saved progress cannot be discarded, so while progress is saved automatically, the user is not
+ * asked whether to save their changes when the program exits; the answers given since the last
+ * save are always saved (see {@link Main#exitProgram(QuestionList, boolean)}).
+ *
+ * <p>Every method must be called on the thread answering the {@code Question}s.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class Autosave {
+
+    /**
+     * The {@link QuestionList} containing every {@link Question} loaded from the file.
+     */
+    private final QuestionList QUESTIONS;
+
+    /**
+     * The {@link AttributeIndex} of the {@link Question}s loaded from the file, giving the order in
+     * which they are saved.
+     */
+    private AttributeIndex index;
+
+    /**
+     * The single thread on which files are written.
+     */
+    private final ExecutorService EXECUTOR;
+
+    /**
+     * The number of answers after which progress is saved, or 0 if progress is not saved after a
+     * number of answers.
+     */
+    private final int SAVE_ANSWERS;
+
+    /**
+     * The time, in nanoseconds, after which progress is saved, or 0 if progress is not saved after
+     * a time.
+     */
+    private final long SAVE_INTERVAL;
+
+    /**
+     * The lists in which {@link Question}s have been answered since progress was last copied.
+     */
+    private final Set<QuestionList> dirtyLists;
+
+    /**
+     * The number of answers given since progress was last copied.
+     */
+    private int dirtyAnswers;
+
+    /**
+     * The value of {@link System#nanoTime()} when progress was last copied.
+     */
+    private long lastCopyTime;
+
+    /**
+     * The most recent copy of the progress of every {@link Question}.
+     */
+    private QuestionProgress progress;
+
+    /**
+     * The save being written in the background, or {@code null} if its result has been checked.
+     */
+    private Future<Boolean> pendingSave;
+
+    /**
+     * Whether the most recent copy of the progress has been written to the file.
+     */
+    private boolean isSaved;
+
+    /**
+     * Creates a new {@code Autosave} for the {@link Question}s in the provided {@code questions},
+     * copying their current progress.
+     *
+     * @param questions
+     *         the {@link QuestionList} containing every {@code Question} loaded from its file, in
+     *         the order in which they were loaded.
+     */
+    Autosave(QuestionList questions) {
+        this.QUESTIONS = questions;
+        this.index = questions.getAttributeIndex();
+        this.EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.SAVE_ANSWERS = Math.max(Settings.getAutosaveAnswers(), 0);
+        this.SAVE_INTERVAL = TimeUnit.SECONDS.toNanos(
+                Math.max(Settings.getAutosaveIntervalSeconds(), 0));
+        this.dirtyLists = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.lastCopyTime = System.nanoTime();
+        this.progress = QuestionProgress.of(index.getQuestions(index.getAllPositions()));
+    }
+
+    /**
+     * Records that a {@link Question} in the provided {@code list} has been answered, and starts
+     * saving progress in the background if a save is due and no other save is being written.
+     *
+     * @param list
+     *         the {@link QuestionList} in which the {@code Question} was answered.
+     */
+    void answered(QuestionList list) {
+        dirtyLists.add(list);
+        dirtyAnswers++;
+
+        boolean isDue = (SAVE_ANSWERS > 0 && dirtyAnswers >= SAVE_ANSWERS) ||
+                (SAVE_INTERVAL > 0 && System.nanoTime() - lastCopyTime >= SAVE_INTERVAL);
+        if (isDue && (pendingSave == null || pendingSave.isDone())) {
+            startSave();
+        }
+    }
+
+    /**
+     * Starts saving in the background every answer which has not yet been saved, however few
+     * there are, unless another save is still being written (in which case they are saved after
+     * a later answer, or the next time this is called). To be called when no {@link Question} is
+     * waiting to be answered, such as when the home page is shown.
+     */
+    void saveAnswered() {
+        if (dirtyAnswers > 0 && (pendingSave == null || pendingSave.isDone())) {
+            startSave();
+        }
+    }
+
+    /**
+     * Writes any progress which has not yet been saved to the file on the calling thread, first
+     * waiting for any save being written in the background. If every answer has already been
+     * saved in the background, nothing is written.
+     *
+     * @throws IOException
+     *         if the file could not be written for any reason.
+     */
+    void saveNow() throws IOException {
+        finishPendingSave();
+
+        if (isSaved && dirtyAnswers == 0) {
+            return;
+        }
+
+        QuestionProgress copy = copyProgress();
+        FileQuestionsInterface.writeProgress(QUESTIONS, copy, true);
+        isSaved = true;
+    }
+
+    /**
+     * Records that the {@link Question}s of the {@link QuestionList} have been replaced, as when
+     * changes made to the file by another program are applied (see
+     * {@link QuestionList#replaceQuestions}), first waiting for any save being written in the
+     * background. The progress of every {@code Question} is copied again, and is saved with the
+     * next save, even if no answer is given before it.
+     */
+    void questionsReplaced() {
+        finishPendingSave();
+
+        index = QUESTIONS.getAttributeIndex();
+        progress = QuestionProgress.of(index.getQuestions(index.getAllPositions()));
+        dirtyLists.clear();
+        isSaved = false;
+    }
+
+    /**
+     * Stops saving progress in the background, waiting for any save being written to finish.
+     * Progress which has not been saved is not written (see {@link #saveNow()}).
+     */
+    void close() {
+        finishPendingSave();
+        EXECUTOR.shutdown();
+    }
+
+    /**
+     * Copies the progress of every {@link Question} answered since progress was last copied, and
+     * starts writing the copy on the background thread. No other save may be being written.
+     */
+    private void startSave() {
+        finishPendingSave();
+
+        QuestionProgress copy = copyProgress();
+        ProgressJournal journal = QUESTIONS.getJournal();
+        long journalLength = journal == null ? -1 : journal.mark();
+        pendingSave = EXECUTOR.submit(() -> write(copy, journal, journalLength));
+    }
+
+    /**
+     * Copies the progress of every {@link Question} in the lists answered since progress was last
+     * copied, and marks every list as clean.
+     */
+    private QuestionProgress copyProgress() {
+        PositionBitmap dirtyPositions = PositionBitmap.EMPTY;
+        for (QuestionList list : dirtyLists) {
+            PositionBitmap positions = list.getPositions(index);
+            if (positions == null) {
+                // The list has been reordered, so its positions are not known
+                dirtyPositions = index.getAllPositions();
+                break;
+            }
+            dirtyPositions = dirtyPositions.or(positions);
+        }
+
+        progress = progress.update(dirtyPositions.toArray());
+        dirtyLists.clear();
+        dirtyAnswers = 0;
+        lastCopyTime = System.nanoTime();
+        isSaved = false;
+        return progress;
+    }
+
+    /**
+     * Writes the provided copy of the progress to the file, then removes the records before the
+     * provided {@code journalLength} from the provided {@code journal} (if any). Called on the
+     * background thread.
+     *
+     * @return {@code true} if the progress was written, or {@code false} if it was not, as the
+     *         file holds changes which have not yet been applied.
+     */
+    private boolean write(QuestionProgress copy, ProgressJournal journal, long journalLength)
+            throws IOException {
+        if (!FileQuestionsInterface.writeProgress(QUESTIONS, copy, false)) {
+            return false;
+        }
+
+        if (journal != null) {
+            journal.removeSavedRecords(journalLength);
+        }
+        return true;
+    }
+
+    /**
+     * Waits for the save being written in the background (if any) to finish, and adds a message
+     * to the {@link QuestionList} if it failed (see {@link QuestionList#addMessage(String)}). The
+     * progress it was writing is still in the journal, and will be written by the next save.
+     */
+    private void finishPendingSave() {
+        if (pendingSave == null) {
+            return;
+        }
+
+        try {
+            isSaved = pendingSave.get();
+        } catch (ExecutionException e) {
+            QUESTIONS.addMessage("Progress could not be saved to \"" + QUESTIONS.getFileLocation() +
+                    "\" in the background, so will be saved again later. Details:\n" +
+                    e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        pendingSave = null;
+    }
+}
@@ -35,9 +35,9 @@ public class CLI {
         QuestionList questions = null;
 
         do {
-            System.out.println("Please specify the exact location of the CSV file you'd like to " +
-                    "load from, or type \"" + Settings.getExitCommand() +
-                    "\" to exit the program:");
+            System.out.println("Please specify the exact location of the CSV file (or " +
+                    "directory of CSV files) you'd like to load from, or type \"" +
+                    Settings.getExitCommand() + "\" to exit the program:");
             Scanner keyboard = new Scanner(System.in);
             String fileLocation = keyboard.nextLine();
 
@@ -183,17 +183,17 @@ public class CLI {
     /**
      * Asks the user via the CLI which {@link RunType} they would like to perform. Returns
      * {@link RunType#REVISE} if their response is "R", {@link RunType#TEST} if their response is
-     * "T", or {@link RunType#CUSTOM} if their response is "C" (non-case-sensitive, responses have
-     * excess whitespace removed - see
+     * "T", {@link RunType#CUSTOM} if their response is "C", or {@link RunType#WEIGHTED_REVISE} if
+     * their response is "W" (non-case-sensitive, responses have excess whitespace removed - see
      * {@link #getResponse(String, String[], boolean, boolean, boolean)}).
      *
-     * <p>If the user does not respond with either "R", "T" or "C", they will be repeatedly asked
-     * to enter a valid response until they do so, or exit the program.
+     * <p>If the user does not respond with either "R", "T", "C" or "W", they will be repeatedly
+     * asked to enter a valid response until they do so, or exit the program.
      *
      * @return the desired {@code RunType} specified by the user
      */
     public static RunType determineRunType() {
-        String[] validResponses = {"R", "T", "C"};
+        String[] validResponses = {"R", "T", "C", "W"};
 
         String response = getResponse(Settings.getUponSelectRunType(), validResponses, true,
                 false, true);
@@ -202,6 +202,8 @@ public class CLI {
             return RunType.REVISE;
         } else if (response.equals("T")) {
             return RunType.TEST;
+        } else if (response.equals("W")) {
+            return RunType.WEIGHTED_REVISE;
         } else {
             return RunType.CUSTOM;
         }
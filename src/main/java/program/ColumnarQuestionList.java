@@ -0,0 +1,493 @@
+package program;
+
+import program.attributes.fields.QuestionAttribute;
+import program.attributes.fields.QuestionNumericalAttribute;
+import program.comparators.StringComparator;
+import program.helpers.ReformatString;
+import program.helpers.SortingKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A variant of {@link QuestionList} which stores its {@link Question}s column by column instead of
+ * as a list of objects: each {@link QuestionNumericalAttribute} is held in its own {@code int[]}
+ * or {@code double[]}, and each {@link QuestionAttribute} is held as an {@code int[]} of codes
+ * into a dictionary of its distinct values (see {@link DictionaryColumn}). A pass over every
+ * {@code Question} (such as sorting by a value) is therefore a loop over contiguous arrays,
+ * rather than a walk over objects scattered around the heap.
+ *
+ * <p>The columns are shared between a {@code ColumnarQuestionList} and every selection made from
+ * it, in the same way that {@code Question} objects are shared between a {@code QuestionList} and
+ * its selections. Each list holds the rows of the columns it contains, in its own order, so
+ * sorting a list only reorders its rows, and answering a question in a selection updates the same
+ * row of the list it was selected from.
+ *
+ * <p>Every operation gives exactly the same result as the same operation on a
+ * {@code QuestionList}: selections contain each row at most once for each time it is in the list
+ * selected from, in the same order; sorts are stable; and answers update the expected times asked
+ * of every row lazily, through a {@link QuestionPool} for each list answered in, giving the same
+ * values to the last bit (see {@link QuestionList#answeredQuestion(int, boolean)}).
+ *
+ * <p>Answers given to a {@code ColumnarQuestionList} are not recorded in a
+ * {@link ProgressJournal}; use {@link #toQuestionList()} to save them.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+public class ColumnarQuestionList {
+
+    /**
+     * The columns holding the values of every {@link Question} in the original list, shared with
+     * every selection made from it. Each row's expected times asked and likelihood are brought up
+     * to date with its {@link QuestionPool} before they are read, as a {@code Question}'s are.
+     */
+    private static class Columns {
+
+        private final DictionaryColumn[] ATTRIBUTES;
+
+        private final int[] INDEX;
+        private final int[] ATTEMPTED;
+        private final int[] CORRECT;
+        private final double[] PERCENTAGE;
+        private final double[] EXPECTED_TIMES_ASKED;
+        private final double[] LIKELIHOOD;
+
+        /**
+         * The {@link QuestionPool} each row was last answered in (or {@code null}), the number of
+         * answers given to it when the row's expected times asked was last brought up to date,
+         * and the number of times the row appears in it.
+         */
+        private final QuestionPool[] POOLS;
+        private final long[] POOL_ANSWERS;
+        private final int[] POOL_OCCURRENCES;
+
+        private Columns(ArrayList<Question> questions) {
+            int numQuestions = questions.size();
+
+            ATTRIBUTES = new DictionaryColumn[QuestionAttribute.values().length];
+            for (QuestionAttribute attribute : QuestionAttribute.values()) {
+                ATTRIBUTES[attribute.ordinal()] = DictionaryColumn.encode(attribute,
+                        numQuestions, questions::get);
+            }
+
+            INDEX = new int[numQuestions];
+            ATTEMPTED = new int[numQuestions];
+            CORRECT = new int[numQuestions];
+            PERCENTAGE = new double[numQuestions];
+            EXPECTED_TIMES_ASKED = new double[numQuestions];
+            LIKELIHOOD = new double[numQuestions];
+            POOLS = new QuestionPool[numQuestions];
+            POOL_ANSWERS = new long[numQuestions];
+            POOL_OCCURRENCES = new int[numQuestions];
+
+            for (int row = 0; row < numQuestions; row++) {
+                Question question = questions.get(row);
+
+                INDEX[row] = question.getIndex();
+                ATTEMPTED[row] = question.getAttempted();
+                CORRECT[row] = question.getCorrect();
+                PERCENTAGE[row] = question.getPercentage();
+                EXPECTED_TIMES_ASKED[row] = question.getExpectedTimesAsked();
+                LIKELIHOOD[row] = question.getLikelihood();
+            }
+        }
+
+        private int getNumRows() {
+            return INDEX.length;
+        }
+
+        private String getAttributeValue(QuestionAttribute attribute, int row) {
+            return ATTRIBUTES[attribute.ordinal()].getValue(row);
+        }
+
+        private double getValue(QuestionNumericalAttribute attribute, int row) {
+            switch (attribute) {
+                case INDEX:
+                    return INDEX[row];
+                case ATTEMPTED:
+                    return ATTEMPTED[row];
+                case CORRECT:
+                    return CORRECT[row];
+                case PERCENTAGE:
+                    return PERCENTAGE[row];
+                case EXPECTED_TIMES_ASKED:
+                    addPoolAnswers(row);
+                    return EXPECTED_TIMES_ASKED[row];
+                case LIKELIHOOD:
+                    addPoolAnswers(row);
+                    return LIKELIHOOD[row];
+                default:
+                    return 0;
+            }
+        }
+
+        /**
+         * Adds the provided {@code row} to the provided {@code pool}, as
+         * {@link Question#joinPool(QuestionPool)} does.
+         */
+        private void joinPool(int row, QuestionPool pool) {
+            addPoolAnswers(row);
+
+            if (POOLS[row] == pool) {
+                POOL_OCCURRENCES[row]++;
+            } else {
+                if (POOLS[row] != null) {
+                    POOLS[row].detach();
+                }
+                POOLS[row] = pool;
+                POOL_ANSWERS[row] = pool.getAnswers();
+                POOL_OCCURRENCES[row] = 1;
+            }
+        }
+
+        /**
+         * Records an answer to the provided {@code row}, which has already been counted by its
+         * pool, as {@link Question#answeredInPool(boolean)} does.
+         */
+        private void answeredInPool(int row, boolean isCorrect) {
+            addPoolAnswers(row);
+
+            if (isCorrect) {
+                CORRECT[row]++;
+            }
+            ATTEMPTED[row]++;
+            PERCENTAGE[row] = 100 * ((double) CORRECT[row] / ATTEMPTED[row]);
+            LIKELIHOOD[row] = Question.calculateLikelihood(ATTEMPTED[row], PERCENTAGE[row],
+                    EXPECTED_TIMES_ASKED[row]);
+        }
+
+        /**
+         * Brings the expected times asked and likelihood of the provided {@code row} up to date
+         * with its pool, as {@link Question} does.
+         */
+        private void addPoolAnswers(int row) {
+            QuestionPool pool = POOLS[row];
+            if (pool == null || POOL_ANSWERS[row] == pool.getAnswers()) {
+                return;
+            }
+
+            long additions = (pool.getAnswers() - POOL_ANSWERS[row]) * POOL_OCCURRENCES[row];
+            EXPECTED_TIMES_ASKED[row] = Question.addRepeatedly(EXPECTED_TIMES_ASKED[row],
+                    (double) 1 / pool.getSize(), additions);
+
+            POOL_ANSWERS[row] = pool.getAnswers();
+            LIKELIHOOD[row] = Question.calculateLikelihood(ATTEMPTED[row], PERCENTAGE[row],
+                    EXPECTED_TIMES_ASKED[row]);
+        }
+    }
+
+    private final Columns COLUMNS;
+
+    /**
+     * The rows of the {@code COLUMNS} in this list, in order.
+     */
+    private final int[] ROWS;
+
+    private final String FILE_LOCATION;
+
+    /**
+     * The pool in which the rows of this list were last answered, or {@code null} if no question
+     * has been answered in this list (see {@link QuestionList#answeredQuestion(int, boolean)}).
+     */
+    private QuestionPool pool;
+
+    /**
+     * Creates a new {@code ColumnarQuestionList} holding the values of every {@link Question} in
+     * the provided {@code questions}, in the same order. The values are copied, so later changes
+     * to either list are not seen by the other.
+     *
+     * @param questions
+     *         the {@link QuestionList} whose {@code Question}s are to be stored.
+     */
+    public ColumnarQuestionList(QuestionList questions) {
+        ArrayList<Question> questionsList = questions.getQuestions();
+        int[] rows = new int[questionsList.size()];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = row;
+        }
+
+        this.COLUMNS = new Columns(questionsList);
+        this.ROWS = rows;
+        this.FILE_LOCATION = questions.getFileLocation();
+    }
+
+    private ColumnarQuestionList(Columns columns, int[] rows, String fileLocation) {
+        this.COLUMNS = columns;
+        this.ROWS = rows;
+        this.FILE_LOCATION = fileLocation;
+    }
+
+    /**
+     * Returns a new {@code ColumnarQuestionList} containing the rows of this list in the same
+     * order, sharing its columns (as a new {@link QuestionList} of the same {@link Question}s
+     * would), so that it can be sorted without reordering this list.
+     */
+    public ColumnarQuestionList copy() {
+        return new ColumnarQuestionList(COLUMNS, ROWS.clone(), FILE_LOCATION);
+    }
+
+    /**
+     * Returns a new {@link QuestionList} containing a new {@link Question} for each row of this
+     * list, in the same order, with its current values.
+     */
+    public QuestionList toQuestionList() {
+        QuestionAttribute[] attributes = QuestionAttribute.values();
+        ArrayList<Question> questions = new ArrayList<>(ROWS.length);
+
+        for (int row : ROWS) {
+            String[] attributeValues = new String[attributes.length];
+            for (QuestionAttribute attribute : attributes) {
+                attributeValues[attribute.ordinal()] = COLUMNS.getAttributeValue(attribute, row);
+            }
+
+            COLUMNS.addPoolAnswers(row);
+            questions.add(new Question(COLUMNS.INDEX[row], attributeValues,
+                    COLUMNS.ATTEMPTED[row], COLUMNS.CORRECT[row],
+                    COLUMNS.EXPECTED_TIMES_ASKED[row]));
+        }
+
+        return new QuestionList(questions, FILE_LOCATION);
+    }
+
+    public int getNumQuestions() {
+        return ROWS.length;
+    }
+
+    public String getFileLocation() {
+        return FILE_LOCATION;
+    }
+
+    public String getQuestionAttribute(int position, QuestionAttribute attribute) {
+        return COLUMNS.getAttributeValue(attribute, ROWS[position]);
+    }
+
+    public double getNumericalAttributeValue(int position, QuestionNumericalAttribute attribute) {
+        return COLUMNS.getValue(attribute, ROWS[position]);
+    }
+
+    /**
+     * Returns a new {@code ColumnarQuestionList} containing each row of this list whose value for
+     * the provided {@code attribute} matches any of the provided {@code values}, compared in the
+     * same way as by {@link QuestionList#selectByAttributeArray(String[], QuestionAttribute)}.
+     * Each value is compared once with each dictionary entry, rather than once with each row, and
+     * each row is then kept or not by looking up its code.
+     */
+    public ColumnarQuestionList selectByAttributeArray(String[] values,
+            QuestionAttribute attribute) {
+        StringComparator comparator;
+
+        if (attribute.equals(QuestionAttribute.TITLE) ||
+                attribute.equals(QuestionAttribute.TOPIC)) {
+            comparator = new StringComparator(true);
+        } else {
+            comparator = new StringComparator(false);
+        }
+
+        DictionaryColumn column = COLUMNS.ATTRIBUTES[attribute.ordinal()];
+        String[] dictionary = column.getValues();
+        boolean[] isMatching = new boolean[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            for (String value : values) {
+                if (comparator.compare(dictionary[code], value) == 0) {
+                    isMatching[code] = true;
+                    break;
+                }
+            }
+        }
+
+        int[] codes = column.getCodes();
+        int[] matchingRows = new int[ROWS.length];
+        int numMatching = 0;
+        for (int row : ROWS) {
+            if (isMatching[codes[row]]) {
+                matchingRows[numMatching++] = row;
+            }
+        }
+
+        return new ColumnarQuestionList(COLUMNS, Arrays.copyOf(matchingRows, numMatching),
+                FILE_LOCATION);
+    }
+
+    /**
+     * Returns a new {@code ColumnarQuestionList} containing the rows of this list which are not
+     * in the provided {@code selectedList} (such as a selection made from this list), in the same
+     * order. This list is not changed.
+     *
+     * @throws IllegalArgumentException
+     *         if the {@code selectedList} does not share the columns of this list.
+     */
+    public ColumnarQuestionList removeSelection(ColumnarQuestionList selectedList)
+            throws IllegalArgumentException {
+        if (selectedList.COLUMNS != COLUMNS) {
+            throw new IllegalArgumentException("Provided list was not made from the same " +
+                    "questions as this list!");
+        }
+
+        boolean[] isRemoved = new boolean[COLUMNS.getNumRows()];
+        for (int row : selectedList.ROWS) {
+            isRemoved[row] = true;
+        }
+
+        int[] remainingRows = new int[ROWS.length];
+        int numRemaining = 0;
+        for (int row : ROWS) {
+            if (!isRemoved[row]) {
+                remainingRows[numRemaining++] = row;
+            }
+        }
+
+        return new ColumnarQuestionList(COLUMNS, Arrays.copyOf(remainingRows, numRemaining),
+                FILE_LOCATION);
+    }
+
+    public ColumnarQuestionList sortByAttribute(QuestionAttribute attribute, boolean reverse) {
+        DictionaryColumn column = COLUMNS.ATTRIBUTES[attribute.ordinal()];
+        String[] dictionary = column.getValues();
+        int[] codes = column.getCodes();
+
+        // Rank each dictionary entry once, so that rows are sorted by comparing ints
+        Integer[] sortedCodes = new Integer[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            sortedCodes[code] = code;
+        }
+        Arrays.sort(sortedCodes, (codeOne, codeTwo) ->
+                dictionary[codeOne].compareTo(dictionary[codeTwo]));
+
+        int[] ranks = new int[dictionary.length];
+        for (int rank = 0; rank < sortedCodes.length; rank++) {
+            ranks[sortedCodes[rank]] = rank;
+        }
+
+        if (reverse) {
+            sortRows((rowOne, rowTwo) -> Integer.compare(ranks[codes[rowTwo]],
+                    ranks[codes[rowOne]]));
+        } else {
+            sortRows((rowOne, rowTwo) -> Integer.compare(ranks[codes[rowOne]],
+                    ranks[codes[rowTwo]]));
+        }
+
+        return this;
+    }
+
+    public ColumnarQuestionList sortByNumericalAttribute(QuestionNumericalAttribute attribute,
+            boolean reverse) {
+        double[] values = new double[COLUMNS.getNumRows()];
+        for (int row : ROWS) {
+            values[row] = COLUMNS.getValue(attribute, row);
+        }
+
+        if (reverse) {
+            sortRows((rowOne, rowTwo) -> Double.compare(values[rowTwo], values[rowOne]));
+        } else {
+            sortRows((rowOne, rowTwo) -> Double.compare(values[rowOne], values[rowTwo]));
+        }
+
+        return this;
+    }
+
+    public ColumnarQuestionList sort(SortingKey key) {
+        if (key.hasQuestionAttributeKey()) {
+            return sortByAttribute(key.getQuestionAttributeKey(), key.isReverse());
+        } else if (key.hasQuestionNumericalAttributeKey()) {
+            return sortByNumericalAttribute(key.getQuestionNumericalAttributeKey(),
+                    key.isReverse());
+        } else {
+            throw new RuntimeException("Provided SortingKey \"" + key + "\" has neither a " +
+                    "QuestionAttributeKey nor a " +
+                    "QuestionNumericalAttributeKey!");
+        }
+    }
+
+    /**
+     * Sorts the rows of this list with a stable merge sort (as {@link java.util.Collections#sort}
+     * is stable), using the provided {@code comparator} to compare two rows.
+     */
+    private void sortRows(IntBinaryOperator comparator) {
+        int[] temp = new int[ROWS.length];
+        mergeSort(ROWS, temp, 0, ROWS.length, comparator);
+    }
+
+    private static void mergeSort(int[] rows, int[] temp, int from, int to,
+            IntBinaryOperator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        mergeSort(rows, temp, from, middle, comparator);
+        mergeSort(rows, temp, middle, to, comparator);
+
+        if (comparator.applyAsInt(rows[middle - 1], rows[middle]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(rows, from, temp, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle &&
+                    comparator.applyAsInt(temp[left], temp[right]) <= 0)) {
+                rows[i] = temp[left++];
+            } else {
+                rows[i] = temp[right++];
+            }
+        }
+    }
+
+    public void answeredFirstQuestion(boolean isCorrect) {
+        answeredQuestion(0, isCorrect);
+    }
+
+    /**
+     * Records an answer to the question at the provided {@code position} in this list, adding
+     * {@code 1 / (number of questions)} to the expected times asked of every row in this list
+     * lazily, in the same way as {@link QuestionList#answeredQuestion(int, boolean)}, so an answer
+     * takes constant time unless another list has answered rows in this list since this list last
+     * did.
+     */
+    public void answeredQuestion(int position, boolean isCorrect) {
+        if (pool == null || pool.isDetached() || pool.getSize() != ROWS.length) {
+            pool = new QuestionPool(ROWS.length);
+            for (int row : ROWS) {
+                COLUMNS.joinPool(row, pool);
+            }
+        }
+
+        pool.answered();
+        COLUMNS.answeredInPool(ROWS[position], isCorrect);
+    }
+
+    public String listQuestions(SortingKey sortingKey) {
+        if (sortingKey != null) {
+            this.sort(sortingKey);
+        }
+
+        StringBuilder returnString = new StringBuilder();
+
+        for (int position = 0; position < ROWS.length; position++) {
+            int row = ROWS[position];
+            returnString.append("#").append(position + 1);
+
+            if (sortingKey != null && sortingKey.hasQuestionNumericalAttributeKey()) {
+                QuestionNumericalAttribute att = sortingKey.getQuestionNumericalAttributeKey();
+                String value = String.format("%.2f", COLUMNS.getValue(att, row));
+
+                returnString.append(" (").append(ReformatString.toPlainText(att.toString(), false))
+                        .append(" = ").append(value).append(")");
+            }
+
+            // The same text as Question.toString()
+            returnString.append("   -   ")
+                    .append(COLUMNS.getAttributeValue(QuestionAttribute.EXAM_BOARD, row))
+                    .append(" ")
+                    .append(COLUMNS.getAttributeValue(QuestionAttribute.QUALIFICATION_LEVEL, row))
+                    .append(" ").append(COLUMNS.getAttributeValue(QuestionAttribute.SUBJECT, row))
+                    .append(" (").append(COLUMNS.getAttributeValue(QuestionAttribute.TOPIC, row))
+                    .append(") question: ")
+                    .append(COLUMNS.getAttributeValue(QuestionAttribute.TITLE, row)).append("\n");
+        }
+
+        return returnString.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package program;
+
+import program.attributes.fields.QuestionAttribute;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.IntFunction;
+
+/**
+ * The values of one {@link QuestionAttribute} for a sequence of {@link Question}s, stored
+ * dictionary-encoded: each distinct value is held once in a dictionary, in the order in which it
+ * first appears, and the value of each {@code Question} is held as its position (its code) in the
+ * dictionary. Attributes such as the subject have only a few distinct values among many
+ * {@code Question}s, so they are held as an {@code int[]} of codes and a short dictionary.
+ *
+ * <p>Used to write the attribute columns of a snapshot (see {@link QuestionSnapshot}), and to hold
+ * the attribute columns of a {@link ColumnarQuestionList}.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+final class DictionaryColumn {
+
+    /**
+     * Each distinct value, in the order in which it first appears.
+     */
+    private final String[] VALUES;
+
+    /**
+     * The position in {@code VALUES} of the value of each {@link Question}.
+     */
+    private final int[] CODES;
+
+    private DictionaryColumn(String[] values, int[] codes) {
+        this.VALUES = values;
+        this.CODES = codes;
+    }
+
+    /**
+     * Returns a new {@code DictionaryColumn} holding the value of the provided {@code attribute}
+     * for each of the provided number of {@link Question}s.
+     *
+     * @param attribute
+     *         the {@link QuestionAttribute} whose values are to be encoded.
+     * @param numQuestions
+     *         the number of {@code Question}s.
+     * @param questions
+     *         returns the {@code Question} at each position, from 0 to {@code numQuestions - 1}.
+     *
+     * @return the encoded column.
+     */
+    static DictionaryColumn encode(QuestionAttribute attribute, int numQuestions,
+            IntFunction<Question> questions) {
+        HashMap<String, Integer> dictionary = new HashMap<>();
+        ArrayList<String> values = new ArrayList<>();
+        int[] codes = new int[numQuestions];
+
+        for (int i = 0; i < numQuestions; i++) {
+            String value = questions.apply(i).getQuestionAttribute(attribute);
+            Integer code = dictionary.get(value);
+
+            if (code == null) {
+                code = values.size();
+                dictionary.put(value, code);
+                values.add(value);
+            }
+            codes[i] = code;
+        }
+
+        return new DictionaryColumn(values.toArray(new String[0]), codes);
+    }
+
+    /**
+     * Returns each distinct value, in the order in which it first appears, so that the value with
+     * code {@code c} is at position {@code c}.
+     */
+    String[] getValues() {
+        return VALUES;
+    }
+
+    /**
+     * Returns the code of the value of each {@link Question}, in order.
+     */
+    int[] getCodes() {
+        return CODES;
+    }
+
+    /**
+     * Returns the value of the {@link Question} at the provided {@code position}.
+     */
+    String getValue(int position) {
+        return VALUES[CODES[position]];
+    }
+}
@@ -1,13 +1,25 @@
 package program;
 
 import program.attributes.fields.QuestionAttribute;
+import program.attributes.fields.QuestionNumericalAttribute;
+import program.helpers.CSVLineTokenizer;
+import program.helpers.ReformatString;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Class containing all of the methods used to interface between the program and the file containing
@@ -25,9 +37,29 @@ public class FileQuestionsInterface {
                     "Exam board,Attempted,Correct,Percentage,Expected times asked," +
                     "Likelihood";
 
+    /**
+     * The number of columns (fields) in each line of the file containing {@link Question} data.
+     */
+    final static int COLUMN_COUNT = 12;
+
+    /**
+     * The maximum number of bytes of the file containing {@link Question} data to memory-map at
+     * once when using {@link LoadMode#MEMORY_MAPPED}. Larger files are mapped in several windows,
+     * each starting at the beginning of a line. Only made smaller by tests, so that a small file
+     * is read in many windows (see {@link #setMappedWindowSize(int)}).
+     */
+    private static int mappedWindowSize = 1 << 30;
+
+    /**
+     * The field of each line holding the value of each {@link QuestionNumericalAttribute}, by
+     * ordinal.
+     */
+    private final static int[] NUMERICAL_FIELDS = {0, 7, 8, 9, 10, 11};
+
     /**
      * Returns a new {@link QuestionList} containing all of the {@link Question}s specified in the
-     * .csv file at the provided {@code fileLocation}.
+     * .csv file at the provided {@code fileLocation}, read using the {@link LoadMode} specified in
+     * {@link Settings#getLoadMode()}.
      *
      * @param fileLocation
      *         the location of the .csv file containing the {@code Question} data.
@@ -43,14 +75,91 @@ public class FileQuestionsInterface {
      */
     public static QuestionList createQuestionList(String fileLocation) throws FileNotFoundException,
             IllegalArgumentException {
+        return createQuestionList(fileLocation, Settings.getLoadMode());
+    }
+
+    /**
+     * Returns a new {@link QuestionList} containing all of the {@link Question}s specified in the
+     * .csv file at the provided {@code fileLocation}, read using the provided {@link LoadMode}.
+     *
+     * <p>If snapshots are enabled (see {@link Settings#isUseSnapshots()}), and a snapshot of the
+     * file exists which was written from exactly the current version of the file (see
+     * {@link QuestionSnapshot#isUpToDate(String)}), the {@code Question}s are read from the
+     * snapshot instead (see {@link QuestionSnapshot}). If the snapshot cannot be read, the file
+     * is read as normal.
+     *
+     * <p>If lenient loading is enabled (see {@link Settings#isLenientLoad()}), invalid lines are
+     * skipped rather than stopping the load, and a summary of the problems found is added to the
+     * {@code QuestionList} once the file has been read (see {@link LoadReport} and
+     * {@link QuestionList#addMessage(String)}), to be displayed along with the number of
+     * {@code Question}s loaded.
+     *
+     * <p>An {@link AttributeIndex} of the {@code Question}s is then built, so that selections made
+     * from the {@code QuestionList} take time proportional to the number of matching
+     * {@code Question}s.
+     *
+     * <p>If journalling is enabled (see {@link Settings#isUseJournal()}), any progress recorded in
+     * the file's {@link ProgressJournal} is then restored, and further progress is recorded in it.
+     * If autosaving is enabled (see {@link Settings#isUseAutosave()}), progress is also saved to
+     * the file in the background as questions are answered (see {@link Autosave}). If watching is
+     * enabled (see {@link Settings#isWatchFile()}), changes made to the file by another program
+     * are loaded in the background, and applied without losing any progress (see
+     * {@link QuestionFileWatcher} and {@link #applyFileChanges(QuestionList)}).
+     *
+     * <p>If the {@code fileLocation} is a directory, every .csv file in it is loaded concurrently,
+     * and their {@code Question}s are merged into one {@code QuestionList} (see
+     * {@link #createDirectoryQuestionList(String, LoadMode)}). Its journal is stored alongside
+     * the directory, and the directory is not watched.
+     *
+     * @param fileLocation
+     *         the location of the .csv file, or of a directory of .csv files, containing the
+     *         {@code Question} data.
+     * @param loadMode
+     *         the way in which the file should be read.
+     *
+     * @return a new {@code QuestionList} containing all of the {@code Question}s specified in the
+     *         .csv file at the provided {@code fileLocation}.
+     *
+     * @throws FileNotFoundException
+     *         if no file could be found at the provided {@code fileLocation}.
+     * @throws IllegalArgumentException
+     *         if the file at the provided {@code fileLocation} could not be entirely parsed for any
+     *         reason.
+     */
+    public static QuestionList createQuestionList(String fileLocation, LoadMode loadMode)
+            throws FileNotFoundException, IllegalArgumentException {
         QuestionList questions;
 
         try {
-            ArrayList<Question> questionsArrayList = getQuestionsFromFile(fileLocation);
-            questions = new QuestionList(questionsArrayList, fileLocation);
+            LoadReport report = null;
+
+            if (new File(fileLocation).isDirectory()) {
+                // The directory's name gives the location of its journal, alongside the directory
+                fileLocation = Path.of(fileLocation).toString();
+                questions = createDirectoryQuestionList(fileLocation, loadMode);
+            } else {
+                report = Settings.isLenientLoad() ? new LoadReport() : null;
+                ArrayList<String> messages = new ArrayList<>();
+                questions = new QuestionList(loadQuestions(fileLocation, loadMode, report,
+                        messages), fileLocation);
+                messages.forEach(questions::addMessage);
+            }
+            questions.createIndex();
 
-            //TODO console output should be moved to CLI.java?
-            System.out.println(questions.getNumQuestions() + " questions successfully loaded.");
+            if (report != null && report.hasProblems()) {
+                questions.addMessage("Problems were found in \"" + fileLocation + "\": " + report);
+            }
+            questions.addMessage(questions.getNumQuestions() + " questions successfully loaded.");
+
+            if (Settings.isUseJournal()) {
+                openJournal(questions);
+            }
+            if (Settings.isUseAutosave()) {
+                questions.setAutosave(new Autosave(questions));
+            }
+            if (Settings.isWatchFile() && questions.getBankFiles() == null) {
+                openWatcher(questions);
+            }
         } catch (FileNotFoundException e) {
             throw new FileNotFoundException("File at location \"" + fileLocation +
                     "\" not found! Details:\n" + e.getMessage());
@@ -63,6 +172,234 @@ public class FileQuestionsInterface {
         return questions;
     }
 
+    /**
+     * Returns a new ArrayList of the {@link Question}s in the .csv file at the provided
+     * {@code fileLocation}, read from its snapshot if snapshots are enabled and the snapshot is
+     * up to date (see {@link QuestionSnapshot}), or otherwise from the file itself using the
+     * provided {@link LoadMode} (see {@link #getQuestionsFromFile(String, LoadMode, LoadReport)}).
+     * If the snapshot cannot be read, the file is read instead, and a message explaining why is
+     * added to the provided {@code messages}, to be added to the {@link QuestionList} once it has
+     * been created (see {@link QuestionList#addMessage(String)}).
+     *
+     * @throws FileNotFoundException
+     *         if no file could be found at the provided {@code fileLocation}.
+     * @throws IllegalArgumentException
+     *         if the headers of the file are invalid, or (if no {@code report} is provided) any of
+     *         the lines in the file are invalid.
+     */
+    private static ArrayList<Question> loadQuestions(String fileLocation, LoadMode loadMode,
+            LoadReport report, ArrayList<String> messages) throws FileNotFoundException,
+            IllegalArgumentException {
+        if (Settings.isUseSnapshots() && QuestionSnapshot.isUpToDate(fileLocation)) {
+            try {
+                return QuestionSnapshot.load(fileLocation);
+            } catch (IOException e) {
+                messages.add("Snapshot of \"" + fileLocation + "\" could not be loaded, " +
+                        "loading from the file instead. Details:\n" + e.getMessage());
+            }
+        }
+
+        return getQuestionsFromFile(fileLocation, loadMode, report);
+    }
+
+    /**
+     * Returns a new {@link QuestionList} containing all of the {@link Question}s specified in the
+     * .csv files in the directory at the provided {@code directoryLocation} whose names match
+     * {@link Settings#getBankFilePattern()} (see {@link QuestionBankFiles#findFiles(String)}),
+     * in the order of the files' names.
+     *
+     * <p>Each file is loaded as by {@link #loadQuestions(String, LoadMode, LoadReport,
+     * ArrayList)}, as a separate task on a {@link ForkJoinPool} with
+     * {@link Settings#getLoadThreads()} threads, so that the files are loaded concurrently. As the
+     * files themselves are then loaded in parallel, a {@link LoadMode#PARALLEL} load of more than
+     * one file parses each file on a single thread (as by {@link LoadMode#MEMORY_MAPPED}). If
+     * lenient loading is enabled, each file has its own {@link LoadReport}, added to the
+     * {@code QuestionList} once every file has been loaded (see
+     * {@link QuestionList#addMessage(String)}).
+     *
+     * <p>The {@code QuestionList} remembers the file from which each {@code Question} was loaded
+     * (see {@link QuestionBankFiles}), so that only the files whose {@code Question}s have changed
+     * are written when it is saved.
+     *
+     * @throws FileNotFoundException
+     *         if the directory could not be read, contains no matching files, or any of them could
+     *         not be found.
+     * @throws IllegalArgumentException
+     *         if any of the files could not be entirely parsed for any reason.
+     */
+    private static QuestionList createDirectoryQuestionList(String directoryLocation,
+            LoadMode loadMode) throws FileNotFoundException, IllegalArgumentException {
+        ArrayList<String> fileLocations = QuestionBankFiles.findFiles(directoryLocation);
+        LoadMode fileLoadMode = loadMode == LoadMode.PARALLEL && fileLocations.size() > 1 ?
+                LoadMode.MEMORY_MAPPED : loadMode;
+
+        ArrayList<LoadReport> reports = new ArrayList<>();
+        ArrayList<ArrayList<String>> fileMessages = new ArrayList<>();
+        ArrayList<Callable<ArrayList<Question>>> tasks = new ArrayList<>();
+        for (String fileLocation : fileLocations) {
+            LoadReport report = Settings.isLenientLoad() ? new LoadReport() : null;
+            ArrayList<String> messages = new ArrayList<>();
+            reports.add(report);
+            fileMessages.add(messages);
+            tasks.add(() -> {
+                try {
+                    return loadQuestions(fileLocation, fileLoadMode, report, messages);
+                } catch (FileNotFoundException e) {
+                    throw new FileNotFoundException("File \"" + fileLocation + "\" not found! " +
+                            "Details:\n" + e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("File \"" + fileLocation + "\" could " +
+                            "not be parsed! Details:\n" + e.getMessage());
+                }
+            });
+        }
+
+        ArrayList<ArrayList<Question>> fileQuestions = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(
+                Math.min(Settings.getLoadThreads(), fileLocations.size()), 1));
+        try {
+            for (Future<ArrayList<Question>> result : pool.invokeAll(tasks)) {
+                fileQuestions.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("Loading was interrupted!");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FileNotFoundException) {
+                throw (FileNotFoundException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalArgumentException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        int numQuestions = 0;
+        for (ArrayList<Question> questions : fileQuestions) {
+            numQuestions += questions.size();
+        }
+        ArrayList<Question> allQuestions = new ArrayList<>(numQuestions);
+        for (ArrayList<Question> questions : fileQuestions) {
+            allQuestions.addAll(questions);
+        }
+
+        QuestionList questions = new QuestionList(allQuestions, directoryLocation);
+        questions.setBankFiles(new QuestionBankFiles(fileLocations, fileQuestions));
+
+        for (int i = 0; i < fileLocations.size(); i++) {
+            fileMessages.get(i).forEach(questions::addMessage);
+            if (reports.get(i) != null && reports.get(i).hasProblems()) {
+                questions.addMessage("Problems were found in \"" + fileLocations.get(i) + "\": " +
+                        reports.get(i));
+            }
+        }
+        questions.addMessage(fileLocations.size() + " files loaded from \"" + directoryLocation +
+                "\".");
+
+        return questions;
+    }
+
+    /**
+     * Returns a new ArrayList of {@link Question}s from the .csv file at the provided
+     * {@code fileLocation} (one {@code Question} per line), read using the provided
+     * {@link LoadMode}.
+     *
+     * @param fileLocation
+     *         the location of the .csv file containing the {@code Question} data.
+     * @param loadMode
+     *         the way in which the file should be read.
+     *
+     * @return a new ArrayList of {@code Question}s from the .csv file at the provided
+     *         {@code fileLocation}.
+     *
+     * @throws FileNotFoundException
+     *         if no file could be found at the provided {@code fileLocation}.
+     * @throws IllegalArgumentException
+     *         if any of the lines in the file at the provided {@code fileLocation} are invalid.
+     */
+    public static ArrayList<Question> getQuestionsFromFile(String fileLocation, LoadMode loadMode)
+            throws FileNotFoundException, IllegalArgumentException {
+        return getQuestionsFromFile(fileLocation, loadMode, null);
+    }
+
+    /**
+     * Returns a new ArrayList of {@link Question}s from the .csv file at the provided
+     * {@code fileLocation} (one {@code Question} per line), read using the provided
+     * {@link LoadMode}.
+     *
+     * <p>If a {@link LoadReport} is provided, the file is loaded leniently: each invalid line is
+     * skipped, and each incorrect percentage or likelihood is recalculated, with the problem
+     * recorded in the {@code report} instead of an exception being thrown or a message being
+     * displayed. Otherwise, the first invalid line stops the load, as by
+     * {@link #getQuestionsFromFile(String, LoadMode)}.
+     *
+     * <p>If the file is gzip-compressed (a .csv.gz file), it is decompressed on a background
+     * thread while its lines are parsed, whichever {@code loadMode} is used (see
+     * {@link #getQuestionsFromCompressedFile(String, boolean, LoadReport)}).
+     *
+     * @param fileLocation
+     *         the location of the .csv file containing the {@code Question} data.
+     * @param loadMode
+     *         the way in which the file should be read.
+     * @param report
+     *         the {@code LoadReport} in which to record invalid lines, or {@code null} if the
+     *         first invalid line should stop the load.
+     *
+     * @return a new ArrayList of {@code Question}s from the .csv file at the provided
+     *         {@code fileLocation}.
+     *
+     * @throws FileNotFoundException
+     *         if no file could be found at the provided {@code fileLocation}.
+     * @throws IllegalArgumentException
+     *         if the headers of the file are invalid, or (if no {@code report} is provided) any of
+     *         the lines in the file at the provided {@code fileLocation} are invalid.
+     */
+    public static ArrayList<Question> getQuestionsFromFile(String fileLocation, LoadMode loadMode,
+            LoadReport report) throws FileNotFoundException, IllegalArgumentException {
+        if (QuestionFileInflater.isCompressed(fileLocation)) {
+            return getQuestionsFromCompressedFile(fileLocation, loadMode == LoadMode.PARALLEL,
+                    report);
+        } else if (loadMode == LoadMode.MEMORY_MAPPED) {
+            return getQuestionsFromMappedFile(fileLocation, false, true, report);
+        } else if (loadMode == LoadMode.PARALLEL) {
+            return getQuestionsFromMappedFile(fileLocation, true, true, report);
+        } else {
+            return getQuestionsFromScannedFile(fileLocation, report);
+        }
+    }
+
+    /**
+     * Returns a new ArrayList of {@link Question}s from the .csv file at the provided
+     * {@code fileLocation}, read using the provided {@link LoadMode} as by
+     * {@link #getQuestionsFromFile(String, LoadMode, LoadReport)}, except that the file is never
+     * memory-mapped. A file which is changed by another program while it is mapped (for instance,
+     * by being truncated and rewritten) can stop the thread reading it, so this is used to read a
+     * file which may still be changing (see {@link QuestionFileWatcher}). Each window of the file
+     * is instead read into memory, and parsed in exactly the same way as a mapped window. A
+     * gzip-compressed file is never mapped, so is read as normal.
+     *
+     * @throws FileNotFoundException
+     *         if no file could be found at the provided {@code fileLocation}.
+     * @throws IllegalArgumentException
+     *         if the headers of the file are invalid, if the file changed size while it was being
+     *         read, or (if no {@code report} is provided) any of the lines in the file are invalid.
+     */
+    static ArrayList<Question> getQuestionsFromChangingFile(String fileLocation,
+            LoadMode loadMode, LoadReport report) throws FileNotFoundException,
+            IllegalArgumentException {
+        if (QuestionFileInflater.isCompressed(fileLocation)) {
+            return getQuestionsFromCompressedFile(fileLocation, loadMode == LoadMode.PARALLEL,
+                    report);
+        } else if (loadMode == LoadMode.MEMORY_MAPPED) {
+            return getQuestionsFromMappedFile(fileLocation, false, false, report);
+        } else if (loadMode == LoadMode.PARALLEL) {
+            return getQuestionsFromMappedFile(fileLocation, true, false, report);
+        } else {
+            return getQuestionsFromScannedFile(fileLocation, report);
+        }
+    }
+
     /**
      * Returns a new ArrayList of {@link Question}s from the .csv file at the provided
      * {@code fileLocation} (one {@code Question} per line).
@@ -81,8 +418,22 @@ public class FileQuestionsInterface {
     public static ArrayList<Question> getQuestionsFromFile(String fileLocation) throws
             FileNotFoundException,
             IllegalArgumentException {
+        if (QuestionFileInflater.isCompressed(fileLocation)) {
+            return getQuestionsFromCompressedFile(fileLocation, false, null);
+        }
+        return getQuestionsFromScannedFile(fileLocation, null);
+    }
+
+    /**
+     * Returns a new ArrayList of {@link Question}s from the .csv file at the provided
+     * {@code fileLocation} (one {@code Question} per line), read line by line using a
+     * {@link Scanner}, and recording invalid lines in the provided {@code report} if there is one
+     * (see {@link #getQuestionsFromFile(String, LoadMode, LoadReport)}).
+     */
+    private static ArrayList<Question> getQuestionsFromScannedFile(String fileLocation,
+            LoadReport report) throws FileNotFoundException, IllegalArgumentException {
         File file = new File(fileLocation);
-        Scanner fileScanner = new Scanner(file);
+        Scanner fileScanner = new Scanner(file, StandardCharsets.UTF_8.name());
         ArrayList<Question> questions = new ArrayList<>();
 
         String firstLine = fileScanner.nextLine();
@@ -93,6 +444,8 @@ public class FileQuestionsInterface {
         }
 
         int lineCount = 1;
+        CSVLineTokenizer tokenizer = new CSVLineTokenizer(COLUMN_COUNT);
+        AttributeDictionary dictionary = new AttributeDictionary();
 
         while (fileScanner.hasNext()) {
             lineCount++;
@@ -100,8 +453,17 @@ public class FileQuestionsInterface {
             String line = fileScanner.nextLine();
             Question question = null;
 
+            if (report != null) {
+                tokenizer.tokenize(line);
+                question = parseTokenizedLine(tokenizer, dictionary, report, lineCount);
+                if (question != null) {
+                    questions.add(question);
+                }
+                continue;
+            }
+
             try {
-                question = parseFileLine(line);
+                question = parseFileLine(line, tokenizer, dictionary);
             } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Line #" + lineCount + " - \"" + line +
                         "\" - is invalid! Details:\n" +
@@ -114,15 +476,398 @@ public class FileQuestionsInterface {
         return questions;
     }
 
+    /**
+     * Returns a new ArrayList of {@link Question}s from the .csv file at the provided
+     * {@code fileLocation} (one {@code Question} per line), by memory-mapping the file and
+     * splitting it into lines directly on the mapped bytes.
+     *
+     * <p>Each line is passed to a {@link CSVLineTokenizer} as a range of bytes, so only the text
+     * fields are decoded from UTF-8. Lines end at a newline character ("\n"), with any preceding
+     * carriage return ("\r") removed, and any whitespace at the end of the file is ignored, giving
+     * exactly the same lines as {@link #getQuestionsFromFile(String)}.
+     *
+     * <p>If {@code parallel} is {@code true}, the lines are split into newline-aligned chunks which
+     * are parsed concurrently (see {@link #parseMappedLines(ByteBuffer, int, int, int, boolean,
+     * AttributeDictionary, LoadReport, ArrayList)}). Invalid lines are recorded in the provided
+     * {@code report} if there is one (see
+     * {@link #getQuestionsFromFile(String, LoadMode, LoadReport)}).
+     *
+     * @param fileLocation
+     *         the location of the .csv file containing the {@code Question} data.
+     * @param parallel
+     *         whether the lines may be parsed on multiple threads.
+     * @param isMapped
+     *         whether each window of the file is memory-mapped, rather than read into memory (see
+     *         {@link #getQuestionsFromChangingFile(String, LoadMode, LoadReport)}).
+     * @param report
+     *         the {@link LoadReport} in which to record invalid lines, or {@code null} if the
+     *         first invalid line should stop the load.
+     *
+     * @return a new ArrayList of {@code Question}s from the .csv file at the provided
+     *         {@code fileLocation}.
+     *
+     * @throws FileNotFoundException
+     *         if no file could be found at the provided {@code fileLocation}.
+     * @throws IllegalArgumentException
+     *         if any of the lines in the file at the provided {@code fileLocation} are invalid
+     *         (and there is no {@code report}), or if the file could not be read.
+     */
+    private static ArrayList<Question> getQuestionsFromMappedFile(String fileLocation,
+            boolean parallel, boolean isMapped, LoadReport report) throws FileNotFoundException,
+            IllegalArgumentException {
+        File file = new File(fileLocation);
+        if (!file.isFile()) {
+            throw new FileNotFoundException(fileLocation + " (No such file or directory)");
+        }
+
+        ArrayList<Question> questions = new ArrayList<>();
+        AttributeDictionary dictionary = new AttributeDictionary();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long windowStart = 0;
+            int lineCount = 0;
+
+            while (windowStart < fileSize) {
+                int windowSize = (int) Math.min(mappedWindowSize, fileSize - windowStart);
+                boolean isLastWindow = windowStart + windowSize == fileSize;
+                ByteBuffer buffer = isMapped ?
+                        channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize) :
+                        readWindow(channel, windowStart, windowSize);
+
+                // Whitespace at the very end of the file is not treated as (blank) lines
+                int contentEnd = windowSize;
+                if (isLastWindow) {
+                    while (contentEnd > 0 && isTrailingWhitespace(buffer.get(contentEnd - 1))) {
+                        contentEnd--;
+                    }
+                }
+
+                int regionStart = 0;
+                if (lineCount == 0 && contentEnd > 0) {
+                    regionStart = checkMappedHeaders(buffer, contentEnd, isLastWindow);
+                    lineCount = 1;
+                }
+
+                // Only complete lines are parsed; a line continuing past this window is parsed
+                // from the start of the next window
+                int regionEnd = contentEnd;
+                if (!isLastWindow) {
+                    while (regionEnd > regionStart && buffer.get(regionEnd - 1) != '\n') {
+                        regionEnd--;
+                    }
+                    if (regionEnd == regionStart) {
+                        throw new IllegalArgumentException("Line #" + (lineCount + 1) +
+                                " is longer than " + mappedWindowSize + " bytes!");
+                    }
+                }
+
+                lineCount = parseMappedLines(buffer, regionStart, regionEnd, lineCount, parallel,
+                        dictionary, report, questions);
+
+                if (isLastWindow) {
+                    break;
+                }
+                windowStart += regionEnd;
+            }
+
+            if (lineCount == 0) {
+                throw new IllegalArgumentException("File is empty - expected headers \"" +
+                        COLUMN_HEADERS + "\" !");
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("File could not be read! Details:\n" +
+                    e.getMessage());
+        }
+
+        return questions;
+    }
+
+    /**
+     * Sets the maximum number of bytes of a file to memory-map (or read into memory) at once (see
+     * {@link #getQuestionsFromMappedFile(String, boolean, boolean, LoadReport)}), so that tests can
+     * check that lines crossing the end of a window are read correctly without a file of over a
+     * gigabyte.
+     *
+     * @param size
+     *         the maximum number of bytes in each window, which must be greater than the length of
+     *         the longest line in any file read.
+     */
+    static void setMappedWindowSize(int size) {
+        mappedWindowSize = size;
+    }
+
+    /**
+     * Returns a new ArrayList of {@link Question}s from the gzip-compressed .csv file at the
+     * provided {@code fileLocation} (one {@code Question} per line).
+     *
+     * <p>The file is decompressed on a background thread in blocks of complete lines (see
+     * {@link QuestionFileInflater}), and each block is parsed as soon as it has been decompressed,
+     * in exactly the same way as a window of a memory-mapped file (see
+     * {@link #getQuestionsFromMappedFile(String, boolean, boolean, LoadReport)}), while the next
+     * block is decompressed. Loading a compressed file therefore takes little longer than the
+     * greater of decompressing it and parsing it, rather than the two together.
+     *
+     * @param fileLocation
+     *         the location of the .csv.gz file containing the {@code Question} data.
+     * @param parallel
+     *         whether the lines of each block may be parsed on multiple threads.
+     * @param report
+     *         the {@link LoadReport} in which to record invalid lines, or {@code null} if the
+     *         first invalid line should stop the load.
+     *
+     * @return a new ArrayList of {@code Question}s from the file at the provided
+     *         {@code fileLocation}.
+     *
+     * @throws FileNotFoundException
+     *         if no file could be found at the provided {@code fileLocation}.
+     * @throws IllegalArgumentException
+     *         if any of the lines in the file at the provided {@code fileLocation} are invalid
+     *         (and there is no {@code report}), or if the file could not be read or decompressed.
+     */
+    private static ArrayList<Question> getQuestionsFromCompressedFile(String fileLocation,
+            boolean parallel, LoadReport report) throws FileNotFoundException,
+            IllegalArgumentException {
+        File file = new File(fileLocation);
+        if (!file.isFile()) {
+            throw new FileNotFoundException(fileLocation + " (No such file or directory)");
+        }
+
+        ArrayList<Question> questions = new ArrayList<>();
+        AttributeDictionary dictionary = new AttributeDictionary();
+
+        try (QuestionFileInflater inflater = new QuestionFileInflater(file.toPath())) {
+            int lineCount = 0;
+
+            while (!inflater.isFinished()) {
+                ByteBuffer buffer = inflater.nextBlock();
+                boolean isLastBlock = inflater.isFinished();
+
+                // Whitespace at the very end of the file is not treated as (blank) lines
+                int contentEnd = buffer.limit();
+                if (isLastBlock) {
+                    while (contentEnd > 0 && isTrailingWhitespace(buffer.get(contentEnd - 1))) {
+                        contentEnd--;
+                    }
+                }
+
+                int regionStart = 0;
+                if (lineCount == 0 && contentEnd > 0) {
+                    regionStart = checkMappedHeaders(buffer, contentEnd, isLastBlock);
+                    lineCount = 1;
+                }
+
+                lineCount = parseMappedLines(buffer, regionStart, contentEnd, lineCount, parallel,
+                        dictionary, report, questions);
+            }
+
+            if (lineCount == 0) {
+                throw new IllegalArgumentException("File is empty - expected headers \"" +
+                        COLUMN_HEADERS + "\" !");
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("File could not be read! Details:\n" +
+                    e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("Loading was interrupted!");
+        }
+
+        return questions;
+    }
+
+    /**
+     * Returns a new buffer containing the {@code size} bytes of the file read through the
+     * provided {@code channel} starting at the provided {@code position}.
+     *
+     * @throws IOException
+     *         if the file could not be read, or has become shorter since its size was read.
+     */
+    private static ByteBuffer readWindow(FileChannel channel, long position, int size)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("File changed size while it was being read!");
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Checks that the first line in the provided {@code buffer} matches the
+     * {@link #COLUMN_HEADERS}, and returns the offset of the start of the next line.
+     *
+     * @param buffer
+     *         the buffer containing the start of the file.
+     * @param contentEnd
+     *         the offset in the {@code buffer} one past the last byte to be read.
+     * @param isLastWindow
+     *         whether the {@code buffer} contains the end of the file.
+     *
+     * @return the offset in the {@code buffer} of the start of the line after the headers.
+     *
+     * @throws IllegalArgumentException
+     *         if the first line does not match the {@code COLUMN_HEADERS}.
+     */
+    private static int checkMappedHeaders(ByteBuffer buffer, int contentEnd, boolean isLastWindow)
+            throws IllegalArgumentException {
+        int lineEnd = 0;
+        while (lineEnd < contentEnd && buffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+
+        if (lineEnd == contentEnd && !isLastWindow) {
+            throw new IllegalArgumentException("Line #1 is longer than " + mappedWindowSize +
+                    " bytes!");
+        }
+
+        int nextLineStart = lineEnd + 1;
+        if (lineEnd > 0 && buffer.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+
+        byte[] firstLineBytes = new byte[lineEnd];
+        buffer.get(0, firstLineBytes);
+        String firstLine = new String(firstLineBytes, StandardCharsets.UTF_8);
+
+        if (!firstLine.equals(COLUMN_HEADERS)) {
+            throw new IllegalArgumentException("First line (headers) \"" + firstLine +
+                    "\" does not match expected headers \"" +
+                    COLUMN_HEADERS + "\" !");
+        }
+
+        return Math.min(nextLineStart, contentEnd);
+    }
+
+    /**
+     * Parses each line in the provided {@code buffer} between the offsets {@code start} and
+     * {@code end} into a new {@link Question}, adding them to the provided {@code questions} list
+     * in the order they appear, and returns the number of lines parsed so far in the whole file.
+     *
+     * <p>If {@code parallel} is {@code true}, and the range is at least
+     * {@link Settings#getParallelLoadMinimumBytes()} long, it is split into newline-aligned
+     * {@link QuestionFileChunk}s which are parsed on a {@link ForkJoinPool} with
+     * {@link Settings#getLoadThreads()} threads, and then reassembled in their original order.
+     * Otherwise, the whole range is parsed on the calling thread.
+     *
+     * @param buffer
+     *         the buffer containing the lines.
+     * @param start
+     *         the offset in the {@code buffer} of the first byte of the first line.
+     * @param end
+     *         the offset in the {@code buffer} one past the last byte of the last line.
+     * @param linesBefore
+     *         the number of lines in the file before the first line in the range.
+     * @param parallel
+     *         whether the lines may be parsed on multiple threads.
+     * @param dictionary
+     *         the {@link AttributeDictionary} of the file, shared by every line.
+     * @param report
+     *         the {@link LoadReport} in which to record invalid lines, or {@code null} if the
+     *         first invalid line should stop the load.
+     * @param questions
+     *         the list to which the new {@code Question}s are to be added.
+     *
+     * @return the number of lines in the file up to and including the last line in the range.
+     *
+     * @throws IllegalArgumentException
+     *         if any of the lines in the range are invalid (and there is no {@code report}).
+     */
+    private static int parseMappedLines(ByteBuffer buffer, int start, int end, int linesBefore,
+            boolean parallel, AttributeDictionary dictionary, LoadReport report,
+            ArrayList<Question> questions) throws IllegalArgumentException {
+        int threads = Settings.getLoadThreads();
+        ArrayList<QuestionFileChunk> chunks = new ArrayList<>();
+
+        if (!parallel || threads <= 1 || end - start < Settings.getParallelLoadMinimumBytes()) {
+            chunks.add(new QuestionFileChunk(buffer, start, end, dictionary, report).call());
+        } else {
+            // Several chunks per thread, so that one slow chunk does not hold up the rest
+            int chunkSize = Math.max((end - start) / (threads * 4), 1);
+            int chunkStart = start;
+
+            while (chunkStart < end) {
+                int chunkEnd = (int) Math.min((long) chunkStart + chunkSize, end);
+                while (chunkEnd < end && buffer.get(chunkEnd - 1) != '\n') {
+                    chunkEnd++;
+                }
+
+                chunks.add(new QuestionFileChunk(buffer, chunkStart, chunkEnd, dictionary,
+                        report));
+                chunkStart = chunkEnd;
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                for (Future<QuestionFileChunk> result : pool.invokeAll(chunks)) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalArgumentException("Loading was interrupted!");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalArgumentException(e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        int lineCount = linesBefore;
+        for (QuestionFileChunk chunk : chunks) {
+            if (chunk.hasInvalidLine()) {
+                throw new IllegalArgumentException("Line #" + (lineCount + chunk.getLineCount()) +
+                        " - \"" + chunk.getInvalidLine() +
+                        "\" - is invalid! Details:\n" +
+                        chunk.getInvalidLineDetails());
+            }
+
+            if (report != null) {
+                report.addAll(chunk.getReport(), lineCount);
+            }
+            questions.addAll(chunk.getQuestions());
+            lineCount += chunk.getLineCount();
+        }
+
+        return lineCount;
+    }
+
+    /**
+     * Returns {@code true} if the provided byte is an ASCII whitespace character (see
+     * {@link Character#isWhitespace(int)}).
+     *
+     * @param b
+     *         the byte to check.
+     *
+     * @return {@code true} if the provided byte is an ASCII whitespace character, {@code false}
+     *         otherwise.
+     */
+    static boolean isTrailingWhitespace(byte b) {
+        return b >= 0 && Character.isWhitespace(b);
+    }
+
     /**
      * Returns a new {@link Question} object, created using the parameters specified in the provided
      * {@code line}. If the {@code line} cannot be parsed for any reason (more or less fields than
      * expected, fields in wrong order, invalid field etc), an {@code IllegalArgumentException} will
      * be thrown.
      *
+     * <p>The {@code line} is split into fields in a single pass by the provided
+     * {@link CSVLineTokenizer}, which is reused between lines so that its buffers do not need to be
+     * reallocated for every line.
+     *
      * @param line
      *         a string from which a new {@code Question} should be created, with the values for
      *         each field separated by commas.
+     * @param tokenizer
+     *         the {@code CSVLineTokenizer} to use to split the {@code line} into fields.
+     * @param dictionary
+     *         the {@link AttributeDictionary} of the file containing the {@code line}.
      *
      * @return a new {@code Question} object, created using the parameters specified in the provided
      *         {@code line}.
@@ -130,145 +875,191 @@ public class FileQuestionsInterface {
      * @throws IllegalArgumentException
      *         if the {@code line} cannot be parsed for any reason.
      */
-    private static Question parseFileLine(String line) throws IllegalArgumentException {
-        Object[] questionAttributes = new Object[12];
+    static Question parseFileLine(String line, CSVLineTokenizer tokenizer,
+            AttributeDictionary dictionary) throws IllegalArgumentException {
+        tokenizer.tokenize(line);
+        return parseTokenizedLine(tokenizer, dictionary);
+    }
 
-        if (line.isBlank()) {
-            throw new IllegalArgumentException("\"" + line + "\" has 0 fields, expected " +
-                    questionAttributes.length + "!");
+    /**
+     * Returns a new {@link Question} object, created using the fields of the line most recently
+     * split by the provided {@link CSVLineTokenizer} (see
+     * {@link #parseFileLine(String, CSVLineTokenizer, AttributeDictionary)}).
+     *
+     * <p>The numerical fields are read directly from the line where possible (see
+     * {@link CSVLineTokenizer#getIntField(int)} and {@link CSVLineTokenizer#getDoubleField(int)}),
+     * so no string is created and no value is boxed for any of them.
+     *
+     * @param tokenizer
+     *         the {@code CSVLineTokenizer} which has split the line from which a new
+     *         {@code Question} should be created.
+     * @param dictionary
+     *         the {@link AttributeDictionary} of the file containing the line, from which the new
+     *         {@code Question} takes its attribute values.
+     *
+     * @return a new {@code Question} object, created using the fields of the line most recently
+     *         split by the provided {@code CSVLineTokenizer}.
+     *
+     * @throws IllegalArgumentException
+     *         if the line cannot be parsed for any reason.
+     */
+    static Question parseTokenizedLine(CSVLineTokenizer tokenizer,
+            AttributeDictionary dictionary) throws IllegalArgumentException {
+        if (tokenizer.isBlank()) {
+            throw new IllegalArgumentException("\"" + tokenizer.getLine() +
+                    "\" has 0 fields, expected " +
+                    COLUMN_COUNT + "!");
         }
 
-        String lineSegment = line;
-        for (int i = 0; i < questionAttributes.length - 1; i++) {
-            String section;
-            int firstSeparatingCommaIndex;
+        int fieldCount = tokenizer.getFieldCount();
+        if (fieldCount != COLUMN_COUNT) {
+            throw new IllegalArgumentException("\"" + tokenizer.getLine() + "\" has " +
+                    fieldCount +
+                    " fields, expected " +
+                    COLUMN_COUNT + "!");
+        }
 
-            try {
-                firstSeparatingCommaIndex = getFirstSeparatingCommaIndex(lineSegment);
-                section = lineSegment.substring(0, firstSeparatingCommaIndex);
-            } catch (IndexOutOfBoundsException e) {
-                throw new IllegalArgumentException("\"" + line + "\" has " + (i + 1) +
-                        " fields, expected " +
-                        questionAttributes.length + "!");
-            }
+        // The fields are read in order, so the first invalid field is the one reported
+        int index = parseIntegerField(tokenizer, 0, "index");
+        String title = tokenizer.getField(1);
+        String topic = tokenizer.getField(2);
+        String paperUnit = tokenizer.getField(3);
+        String subject = tokenizer.getField(4);
+        String qualLevel = tokenizer.getField(5);
+        String examBoard = tokenizer.getField(6);
+        int attempted = parseIntegerField(tokenizer, 7, "attempted");
+        int correct = parseIntegerField(tokenizer, 8, "correct");
+        double percentage = parseNumberField(tokenizer, 9, "percentage");
+        double expectedTimesAsked = parseNumberField(tokenizer, 10, "expectedTimesAsked");
+        double likelihood = parseNumberField(tokenizer, 11, "likelihood");
 
-            switch (i) {
-                // TODO this whole section is very hard-wired, maybe make it more generalised?
-                // These are the cases where the field is to be interpreted as a String; title,
-                // topic
-                // paperUnit, subject, qualificationLevel and examBoard
-                case 1, 2, 3, 4, 5, 6 -> questionAttributes[i] = section;
-
-                // These are the cases where the field is to be interpreted as an integer; index,
-                // attempted and correct
-                case 0, 7, 8 -> {
-                    try {
-                        questionAttributes[i] = Integer.parseInt(section);
-                    } catch (NumberFormatException e) {
-                        if (i == 0) {
-                            throw new IllegalArgumentException("Value of " + (i + 1) +
-                                    "st field \"index\" in \"" +
-                                    line +
-                                    "\" (\"" + section +
-                                    "\") is not an integer!");
-                        } else if (i == 7) {
-                            throw new IllegalArgumentException("Value of " + (i + 1) +
-                                    "th field \"attempted\" in" +
-                                    " \"" +
-                                    line +
-                                    "\" (\"" + section +
-                                    "\") is not an integer!");
-                        } else {
-                            throw new IllegalArgumentException("Value of " + (i + 1) +
-                                    "th field \"correct\" in " +
-                                    "\"" +
-                                    line +
-                                    "\" (\"" + section +
-                                    "\") is not an integer!");
-                        }
-                    }
-                }
+        return new Question(index, title, topic, paperUnit, subject, qualLevel, examBoard,
+                attempted, correct, percentage, expectedTimesAsked, likelihood, dictionary);
+    }
 
-                // These are the cases where the field is to be interpreted as a double; percentage,
-                // expectedTimesAsked and likelihood (below)
-                case 9, 10 -> {
-                    try {
-                        questionAttributes[i] = Double.parseDouble(section);
-                    } catch (NumberFormatException e) {
-                        if (i == 9) {
-                            throw new IllegalArgumentException("Value of " + (i + 1) +
-                                    "th field \"percentage\" " +
-                                    "in \"" +
-                                    line +
-                                    "\" (\"" + section +
-                                    "\") is not a number!");
-                        } else {
-                            throw new IllegalArgumentException("Value of " + (i + 1) +
-                                    "th field " +
-                                    "\"expectedTimesAsked\" in" +
-                                    " \"" +
-                                    line +
-                                    "\" (\"" + section +
-                                    "\") is not a number!");
-                        }
-                    }
-                }
+    /**
+     * Returns a new {@link Question} object, created using the fields of the line most recently
+     * split by the provided {@link CSVLineTokenizer}, as by
+     * {@link #parseTokenizedLine(CSVLineTokenizer, AttributeDictionary)}, but recording any
+     * problem with the line in the provided {@code report} rather than throwing an exception or
+     * displaying a message, so that a file with many invalid lines can still be loaded quickly.
+     *
+     * <p>A line which would stop a strict load is skipped. A line whose percentage or likelihood
+     * is incorrect is loaded with the value recalculated, as it would be by a strict load.
+     *
+     * @param tokenizer
+     *         the {@code CSVLineTokenizer} which has split the line from which a new
+     *         {@code Question} should be created.
+     * @param dictionary
+     *         the {@link AttributeDictionary} of the file containing the line, from which the new
+     *         {@code Question} takes its attribute values.
+     * @param report
+     *         the {@link LoadReport} in which to record any problem with the line.
+     * @param lineNumber
+     *         the number of the line, as it is to be recorded in the {@code report}.
+     *
+     * @return a new {@code Question} object, created using the fields of the line, or
+     *         {@code null} if the line was skipped.
+     */
+    static Question parseTokenizedLine(CSVLineTokenizer tokenizer, AttributeDictionary dictionary,
+            LoadReport report, int lineNumber) {
+        if (tokenizer.isBlank()) {
+            report.record(lineNumber, LoadReport.NO_FIELD, LoadReport.Problem.BLANK_LINE);
+            return null;
+        } else if (tokenizer.getFieldCount() != COLUMN_COUNT) {
+            report.record(lineNumber, LoadReport.NO_FIELD, LoadReport.Problem.WRONG_FIELD_COUNT);
+            return null;
+        }
+
+        // The fields are checked in the same order as they are read by a strict load
+        for (QuestionNumericalAttribute attribute : QuestionNumericalAttribute.values()) {
+            int field = NUMERICAL_FIELDS[attribute.ordinal()];
+            boolean isNumber = attribute == QuestionNumericalAttribute.INDEX ||
+                    attribute == QuestionNumericalAttribute.ATTEMPTED ||
+                    attribute == QuestionNumericalAttribute.CORRECT ?
+                    tokenizer.isIntField(field) : tokenizer.isDoubleField(field);
+            if (!isNumber) {
+                report.record(lineNumber, field, LoadReport.Problem.NOT_A_NUMBER);
+                return null;
             }
+        }
 
-            lineSegment = lineSegment.substring(firstSeparatingCommaIndex + 1);
+        QuestionAttribute[] attributes = QuestionAttribute.values();
+        String[] values = new String[attributes.length];
+        for (QuestionAttribute attribute : attributes) {
+            // The attribute fields follow the index, in the same order as the attributes
+            int field = attribute.ordinal() + 1;
+            String value = QuestionAttribute.findAttributeName(
+                    ReformatString.removeWhitespaceAndQuotes(tokenizer.getField(field)),
+                    attribute);
+            if (value == null) {
+                report.record(lineNumber, field, LoadReport.Problem.INVALID_VALUE);
+                return null;
+            }
+            values[attribute.ordinal()] = dictionary.intern(attribute, value);
         }
 
-        try {
-            questionAttributes[questionAttributes.length - 1] = Double.parseDouble(lineSegment);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Value of " + (questionAttributes.length) +
-                    "th field \"likelihood\" in \"" + line +
-                    "\" (\"" + lineSegment +
-                    "\") is not a number!");
+        int index = tokenizer.getIntField(0);
+        int attempted = tokenizer.getIntField(7);
+        int correct = tokenizer.getIntField(8);
+        double percentage = tokenizer.getDoubleField(9);
+        double expectedTimesAsked = tokenizer.getDoubleField(10);
+        double likelihood = tokenizer.getDoubleField(11);
+
+        QuestionNumericalAttribute invalidAttribute =
+                QuestionNumericalAttribute.getInvalidAttribute(index, attempted, correct,
+                        percentage, expectedTimesAsked, likelihood);
+        if (invalidAttribute == QuestionNumericalAttribute.PERCENTAGE ||
+                invalidAttribute == QuestionNumericalAttribute.LIKELIHOOD) {
+            // The percentage and likelihood are always recalculated from the other values
+            report.record(lineNumber, NUMERICAL_FIELDS[invalidAttribute.ordinal()],
+                    LoadReport.Problem.RECALCULATED);
+        } else if (invalidAttribute != null) {
+            report.record(lineNumber, NUMERICAL_FIELDS[invalidAttribute.ordinal()],
+                    LoadReport.Problem.INVALID_VALUE);
+            return null;
         }
 
-        return new Question((int) questionAttributes[0], (String) questionAttributes[1],
-                (String) questionAttributes[2], (String) questionAttributes[3], (String)
-                questionAttributes[4],
-                (String) questionAttributes[5], (String) questionAttributes[6],
-                (int) questionAttributes[7], (int) questionAttributes[8],
-                (double) questionAttributes[9],
-                (double) questionAttributes[10], (double) questionAttributes[11]);
+        return new Question(index, values, attempted, correct, expectedTimesAsked);
     }
 
     /**
-     * Returns the index of the first comma in the provided {@code line} which is not enclosed by
-     * surrounding quotes (ie a comma which is being used to separate fields, not one which is a
-     * character in a field).
-     *
-     * <p>This is determined by the number of double quote characters (") between
-     * any comma and the previous comma in the {@code line} (or the start of the line if there is no
-     * previous comma). If the number of double quote characters between these two commas is even,
-     * this means the latter comma is a field-separating comma, and not a comma character in a
-     * field.
-     *
-     * @param line
-     *         the string on which the search is to be performed
+     * Returns the value of the provided integer {@code field} of the line most recently split by
+     * the provided {@link CSVLineTokenizer}, read without creating a string where possible (see
+     * {@link CSVLineTokenizer#getIntField(int)}).
      *
-     * @return the index of the first comma in the provided {@code line} which is not enclosed by
-     *         surrounding quotes
+     * @throws IllegalArgumentException
+     *         if the field is not an integer, naming the field as {@code name}.
      */
-    private static int getFirstSeparatingCommaIndex(String line) {
-        int quoteCount;
-        int commaIndex = 0;
-
-        do {
-            quoteCount = 0;
-            commaIndex = line.indexOf(',', commaIndex + 1);
-
-            for (int i = 0; i < commaIndex; i++) {
-                if (line.charAt(i) == '"') {
-                    quoteCount++;
-                }
-            }
-        } while (quoteCount % 2 != 0);
+    private static int parseIntegerField(CSVLineTokenizer tokenizer, int field, String name)
+            throws IllegalArgumentException {
+        try {
+            return tokenizer.getIntField(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Value of " + (field + 1) +
+                    (field == 0 ? "st" : "th") + " field \"" + name + "\" in \"" +
+                    tokenizer.getLine() + "\" (\"" + tokenizer.getField(field) +
+                    "\") is not an integer!");
+        }
+    }
 
-        return commaIndex;
+    /**
+     * Returns the value of the provided numerical {@code field} of the line most recently split by
+     * the provided {@link CSVLineTokenizer}, read without creating a string where possible (see
+     * {@link CSVLineTokenizer#getDoubleField(int)}).
+     *
+     * @throws IllegalArgumentException
+     *         if the field is not a number, naming the field as {@code name}.
+     */
+    private static double parseNumberField(CSVLineTokenizer tokenizer, int field, String name)
+            throws IllegalArgumentException {
+        try {
+            return tokenizer.getDoubleField(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Value of " + (field + 1) + "th field \"" + name +
+                    "\" in \"" + tokenizer.getLine() + "\" (\"" + tokenizer.getField(field) +
+                    "\") is not a number!");
+        }
     }
 
     /**
@@ -278,7 +1069,23 @@ public class FileQuestionsInterface {
      *
      * <p>Writes the {@link #COLUMN_HEADERS} to the first line of the file, and then writes the
      * attributes of each {@link Question} in the provided list on a new line, and in the order
-     * specified by the {@code COLUMN_HEADERS}.
+     * specified by the {@code COLUMN_HEADERS}. Every line is written to a temporary file, which
+     * then replaces the file, so the file is never left partly written (see
+     * {@link QuestionFileWriter}).
+     *
+     * <p>If snapshots are enabled (see {@link Settings#isUseSnapshots()}), a snapshot of the
+     * {@code QuestionList} is then written alongside the file (see {@link QuestionSnapshot}),
+     * recording the file's size and modification time, so that it will be loaded in its place next
+     * time unless the file is changed in the meantime. Finally, the
+     * {@code QuestionList}'s {@link ProgressJournal} (if it has one) is cleared.
+     *
+     * <p>If the {@code QuestionList} has an {@link Autosave}, every {@code Question} loaded from
+     * the file is written in the order in which it was loaded, and nothing is written if every
+     * answer has already been saved in the background. If the {@code QuestionList} has a
+     * {@link QuestionFileWatcher}, any changes made to the file by another program are applied to
+     * it before it is written (see {@link QuestionFileWatcher#applyChanges(boolean)}). If the
+     * {@code QuestionList} was loaded from a directory, only the files whose {@code Question}s'
+     * progress has changed are written (see {@link QuestionBankFiles#write(QuestionProgress)}).
      *
      * @param questions
      *         the {@code QuestionList} whose {@code Question}s are to be written to the file at its
@@ -289,53 +1096,221 @@ public class FileQuestionsInterface {
      */
     public static void saveToFile(QuestionList questions)
             throws IOException {
-        String fileLocation = questions.getFileLocation();
-        FileWriter fileWriter = new FileWriter(fileLocation);
+        QuestionFileWatcher watcher = questions.getWatcher();
+        Autosave autosave = questions.getAutosave();
 
-        fileWriter.write(COLUMN_HEADERS + "\n");
+        // Changes made to the file by another program are applied first, so they are not lost
+        if (watcher != null) {
+            watcher.applyChanges(true);
+        }
 
-        ArrayList<Question> questionsList = questions.getQuestions();
-        for (int i = 0; i < questionsList.size() - 1; i++) {
-            writeQuestionToFile(fileWriter, questionsList.get(i), false);
+        if (autosave != null) {
+            autosave.saveNow();
+        } else if (questions.getBankFiles() != null) {
+            // The files are written in the order in which they were loaded
+            AttributeIndex index = questions.getAttributeIndex();
+            writeProgress(questions, QuestionProgress.of(index.getQuestions(
+                    index.getAllPositions())), true);
+        } else {
+            writeProgress(questions, QuestionProgress.of(questions.getQuestions()), true);
         }
-        writeQuestionToFile(fileWriter, questionsList.get(questionsList.size() - 1), true);
 
-        fileWriter.close();
+        // Every answer in the journal is now in the file
+        if (questions.getJournal() != null) {
+            questions.getJournal().clear();
+        }
     }
 
     /**
-     * Writes the attributes of the provided {@link Question} to the file to which the provided
-     * {@code fileWriter} is writing, in the correct order (as specified by
-     * {@link #COLUMN_HEADERS}).
+     * Overwrites the file at the provided {@code fileLocation} with the {@link Question}s in the
+     * provided {@code progress} (see {@link QuestionFileWriter}), and writes a snapshot of them if
+     * snapshots are enabled (see {@link Settings#isUseSnapshots()}). The progress is a copy, so
+     * this can be called on any thread.
      *
-     * @param fileWriter
-     *         the {@code FileWriter} object to be used to write the contents of the
-     *         {@code Question}.
-     * @param question
-     *         the {@code Question} whose contents are to be written.
-     * @param isLastQuestion
-     *         whether or not this {@code Question} is the last one to be written to the file
-     *         (meaning that a newline character "\n" should not be inserted afterwards).
+     * @param fileLocation
+     *         the location of the .csv file to write.
+     * @param progress
+     *         the {@code Question}s to write, and their progress.
      *
      * @throws IOException
-     *         if an I/O error occurs (see {@link FileWriter#write(String)}).
+     *         if the file or the snapshot could not be written for any reason.
      */
-    private static void writeQuestionToFile(FileWriter fileWriter, Question question,
-            boolean isLastQuestion) throws IOException {
-        fileWriter.write(question.getIndex() + ",");
+    static void writeProgress(String fileLocation, QuestionProgress progress) throws IOException {
+        BasicFileAttributes writtenAttributes = QuestionFileWriter.write(fileLocation, progress);
 
-        for (QuestionAttribute attribute : QuestionAttribute.values()) {
-            fileWriter.write(question.getQuestionAttribute(attribute) + ",");
+        if (Settings.isUseSnapshots()) {
+            QuestionSnapshot.save(fileLocation, progress, writtenAttributes);
         }
+    }
 
-        fileWriter.write(question.getAttempted() + ",");
-        fileWriter.write(question.getCorrect() + ",");
-        fileWriter.write(String.format("%.2f", question.getPercentage()) + ",");
-        fileWriter.write(String.format("%.2f", question.getExpectedTimesAsked()) + ",");
-        fileWriter.write(String.format("%.2f", question.getLikelihood()));
+    /**
+     * Overwrites the file from which the provided {@link QuestionList} was loaded with the
+     * {@link Question}s in the provided {@code progress}, as by
+     * {@link #writeProgress(String, QuestionProgress)}. If the {@code QuestionList} has a
+     * {@link QuestionFileWatcher}, the file is written through it, so that the write is not
+     * mistaken for a change made by another program, and (unless {@code isForced} is
+     * {@code true}) is not written at all if the file holds such changes which have not yet been
+     * applied (see {@link QuestionFileWatcher#write(QuestionProgress, boolean)}). If the
+     * {@code QuestionList} was loaded from a directory, each file whose {@code Question}s'
+     * progress has changed is written instead (see {@link QuestionBankFiles}), and the
+     * {@code progress} must be in the order in which the {@code Question}s were loaded.
+     *
+     * @param questions
+     *         the {@code QuestionList} containing every {@code Question} loaded from the file.
+     * @param progress
+     *         the {@code Question}s to write, and their progress.
+     * @param isForced
+     *         whether the file should be written even if it holds changes which have not yet been
+     *         applied.
+     *
+     * @return {@code true} if the file was written, {@code false} otherwise.
+     *
+     * @throws IOException
+     *         if the file or the snapshot could not be written for any reason.
+     */
+    static boolean writeProgress(QuestionList questions, QuestionProgress progress,
+            boolean isForced) throws IOException {
+        QuestionFileWatcher watcher = questions.getWatcher();
+        QuestionBankFiles bankFiles = questions.getBankFiles();
+
+        if (watcher != null) {
+            return watcher.write(progress, isForced);
+        } else if (bankFiles != null) {
+            bankFiles.write(progress);
+            return true;
+        }
+
+        writeProgress(questions.getFileLocation(), progress);
+        return true;
+    }
+
+    /**
+     * Opens the {@link ProgressJournal} for the provided {@link QuestionList}, restoring any
+     * progress recorded in it, and sets it as the {@code QuestionList}'s journal. If the journal
+     * cannot be opened, a message is added to the {@code QuestionList} (see
+     * {@link QuestionList#addMessage(String)}) and it is left without a journal.
+     *
+     * @param questions
+     *         the {@code QuestionList} containing every {@link Question} loaded from its file.
+     */
+    private static void openJournal(QuestionList questions) {
+        try {
+            questions.setJournal(ProgressJournal.open(questions));
+        } catch (IOException e) {
+            questions.addMessage("Journal \"" +
+                    ProgressJournal.getJournalLocation(questions.getFileLocation()) +
+                    "\" could not be opened, so answers will only be saved when the program " +
+                    "exits. Details:\n" + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts watching the file from which the provided {@link QuestionList} was loaded for
+     * changes made by another program (see {@link QuestionFileWatcher}). If the file cannot be
+     * watched, a message is added to the {@code QuestionList} (see
+     * {@link QuestionList#addMessage(String)}) and it is left without a watcher.
+     *
+     * @param questions
+     *         the {@code QuestionList} containing every {@link Question} loaded from its file.
+     */
+    private static void openWatcher(QuestionList questions) {
+        try {
+            questions.setWatcher(new QuestionFileWatcher(questions));
+        } catch (IOException e) {
+            questions.addMessage("File \"" + questions.getFileLocation() + "\" could not be " +
+                    "watched, so changes made to it will only be loaded when the program is " +
+                    "restarted. Details:\n" + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies any changes made to the file from which the provided {@link QuestionList} was
+     * loaded which have already been loaded in the background (see
+     * {@link QuestionFileWatcher#applyChanges(boolean)}), if it has a watcher. To be called when
+     * no selection made from the {@code QuestionList} is being answered, such as when the home
+     * page is shown, as selections already made keep the {@link Question}s they were made with.
+     *
+     * @param questions
+     *         the {@code QuestionList} containing every {@code Question} loaded from its file.
+     */
+    public static void applyFileChanges(QuestionList questions) {
+        QuestionFileWatcher watcher = questions.getWatcher();
+
+        if (watcher != null) {
+            watcher.applyChanges(false);
+        }
+    }
+
+    /**
+     * Starts saving in the background every answer given to the provided {@link QuestionList}
+     * which its {@link Autosave} (if it has one) has not yet saved (see
+     * {@link Autosave#saveAnswered()}). To be called when no {@link Question} is waiting to be
+     * answered, such as when the home page is shown, so that answers are not left unsaved while
+     * the program is idle.
+     *
+     * @param questions
+     *         the {@code QuestionList} containing every {@code Question} loaded from its file.
+     */
+    public static void saveAnswered(QuestionList questions) {
+        Autosave autosave = questions.getAutosave();
+
+        if (autosave != null) {
+            autosave.saveAnswered();
+        }
+    }
+
+    /**
+     * Stops watching the file from which the provided {@link QuestionList} was loaded, if it is
+     * being watched.
+     *
+     * @param questions
+     *         the {@code QuestionList} whose watcher is to be stopped.
+     */
+    public static void closeWatcher(QuestionList questions) {
+        QuestionFileWatcher watcher = questions.getWatcher();
+
+        if (watcher != null) {
+            watcher.close();
+            questions.setWatcher(null);
+        }
+    }
+
+    /**
+     * Closes the {@link ProgressJournal} of the provided {@link QuestionList}, if it has one,
+     * first removing every record from it if {@code discard} is {@code true}.
+     *
+     * @param questions
+     *         the {@code QuestionList} whose journal is to be closed.
+     * @param discard
+     *         whether the progress recorded in the journal should be discarded (for instance, if
+     *         the user chose not to save their changes).
+     */
+    public static void closeJournal(QuestionList questions, boolean discard) {
+        ProgressJournal journal = questions.getJournal();
+
+        if (journal != null) {
+            if (discard) {
+                journal.clear();
+            }
+            journal.close();
+            questions.setJournal(null);
+        }
+    }
+
+    /**
+     * Stops the {@link Autosave} of the provided {@link QuestionList}, if it has one, waiting for
+     * any save being written in the background to finish. To be called before its
+     * {@link ProgressJournal} is closed (see {@link #closeJournal(QuestionList, boolean)}).
+     *
+     * @param questions
+     *         the {@code QuestionList} whose autosave is to be stopped.
+     */
+    public static void closeAutosave(QuestionList questions) {
+        Autosave autosave = questions.getAutosave();
 
-        if (!isLastQuestion) {
-            fileWriter.write("\n");
+        if (autosave != null) {
+            autosave.close();
+            questions.setAutosave(null);
         }
     }
 }
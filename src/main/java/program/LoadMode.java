@@ -0,0 +1,26 @@
+package program;
+
+/**
+ * An enum containing the ways in which the file containing {@link Question} data can be read (see
+ * {@link FileQuestionsInterface#createQuestionList(String, LoadMode)}). Every mode produces an
+ * identical {@link QuestionList}.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+public enum LoadMode {
+    /**
+     * The file is read line by line using a {@link java.util.Scanner Scanner}.
+     */
+    STANDARD,
+    /**
+     * The file is memory-mapped, and lines are split directly on the mapped bytes, with only the
+     * text fields being decoded.
+     */
+    MEMORY_MAPPED,
+    /**
+     * As {@link #MEMORY_MAPPED}, but with the lines split into chunks which are parsed on multiple
+     * threads (see {@link Settings#getLoadThreads()}). Files smaller than
+     * {@link Settings#getParallelLoadMinimumBytes()} are parsed on a single thread.
+     */
+    PARALLEL;
+}
@@ -0,0 +1,246 @@
+package program;
+
+/**
+ * A record of the problems found in the lines of a file containing {@link Question} data when it
+ * is loaded leniently (see {@link Settings#isLenientLoad()}). Rather than the first invalid line
+ * stopping the load, each invalid line is skipped, and each incorrect percentage or likelihood is
+ * recalculated, and the problem is recorded here as its line number, field and {@link Problem}.
+ *
+ * <p>Only the first {@link Settings#getLoadReportMaximumProblems()} problems are kept, in three
+ * small arrays, while every problem is counted, so a report takes the same space however dirty the
+ * file is. Recording a problem creates no objects, and the report is displayed once, as a single
+ * summary (see {@link #toString()}), once the whole file has been loaded.
+ *
+ * <p>A report is only used by one thread at a time. When a file is loaded in parallel, each
+ * {@link QuestionFileChunk} records its problems in its own report, with line numbers counted
+ * from the start of the chunk, and these are added to the report of the whole file in order (see
+ * {@link #addAll(LoadReport, int)}).
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+public class LoadReport {
+
+    /**
+     * The field recorded for a problem with a whole line, rather than one of its fields.
+     */
+    final static int NO_FIELD = -1;
+
+    /**
+     * The names of the fields of each line, as given in the
+     * {@link FileQuestionsInterface#COLUMN_HEADERS}.
+     */
+    private final static String[] FIELD_NAMES = FileQuestionsInterface.COLUMN_HEADERS.split(",");
+
+    /**
+     * The kinds of problem found in a line.
+     */
+    public enum Problem {
+        BLANK_LINE("blank line", true),
+        WRONG_FIELD_COUNT("wrong number of fields", true),
+        NOT_A_NUMBER("not a number", true),
+        INVALID_VALUE("invalid value", true),
+        RECALCULATED("incorrect value recalculated", false);
+
+        /**
+         * A short description of the problem, as displayed in a summary.
+         */
+        private final String DESCRIPTION;
+
+        /**
+         * Whether a line with this problem is skipped, rather than loaded with the problem
+         * corrected.
+         */
+        private final boolean IS_SKIPPED;
+
+        Problem(String description, boolean isSkipped) {
+            this.DESCRIPTION = description;
+            this.IS_SKIPPED = isSkipped;
+        }
+
+        public boolean isSkipped() {
+            return IS_SKIPPED;
+        }
+    }
+
+    /**
+     * The greatest number of problems kept.
+     */
+    private final int MAX_RECORDED;
+
+    /**
+     * The line number, field and {@link Problem} (by ordinal) of each problem kept, in the order
+     * recorded.
+     */
+    private final int[] LINES;
+    private final byte[] FIELDS;
+    private final byte[] PROBLEMS;
+
+    /**
+     * The number of problems of each kind, by ordinal, including those not kept.
+     */
+    private final int[] COUNTS;
+
+    private int numRecorded;
+
+    /**
+     * Creates a new, empty {@code LoadReport}, keeping the first
+     * {@link Settings#getLoadReportMaximumProblems()} problems recorded.
+     */
+    public LoadReport() {
+        this(Settings.getLoadReportMaximumProblems());
+    }
+
+    /**
+     * Creates a new, empty {@code LoadReport}, keeping the first {@code maxRecorded} problems
+     * recorded.
+     *
+     * @param maxRecorded
+     *         the greatest number of problems to keep.
+     */
+    public LoadReport(int maxRecorded) {
+        this.MAX_RECORDED = Math.max(maxRecorded, 0);
+        this.LINES = new int[MAX_RECORDED];
+        this.FIELDS = new byte[MAX_RECORDED];
+        this.PROBLEMS = new byte[MAX_RECORDED];
+        this.COUNTS = new int[Problem.values().length];
+    }
+
+    /**
+     * Records a problem with the provided {@code field} (counted from 0, or {@link #NO_FIELD}) of
+     * the line with the provided number, keeping it if fewer than the maximum number of problems
+     * have been kept.
+     */
+    void record(int line, int field, Problem problem) {
+        COUNTS[problem.ordinal()]++;
+
+        if (numRecorded < MAX_RECORDED) {
+            LINES[numRecorded] = line;
+            FIELDS[numRecorded] = (byte) field;
+            PROBLEMS[numRecorded] = (byte) problem.ordinal();
+            numRecorded++;
+        }
+    }
+
+    /**
+     * Adds every problem in the provided {@code report} to this report, after those already
+     * recorded, adding {@code linesBefore} to the line number of each.
+     *
+     * @param report
+     *         the report of a range of lines in the same file, recorded after every range already
+     *         added to this report.
+     * @param linesBefore
+     *         the number of lines in the file before the first line of the range.
+     */
+    void addAll(LoadReport report, int linesBefore) {
+        for (int i = 0; i < report.numRecorded && numRecorded < MAX_RECORDED; i++) {
+            LINES[numRecorded] = report.LINES[i] + linesBefore;
+            FIELDS[numRecorded] = report.FIELDS[i];
+            PROBLEMS[numRecorded] = report.PROBLEMS[i];
+            numRecorded++;
+        }
+
+        for (int problem = 0; problem < COUNTS.length; problem++) {
+            COUNTS[problem] += report.COUNTS[problem];
+        }
+    }
+
+    /**
+     * Returns the greatest number of problems kept.
+     */
+    int getMaxRecorded() {
+        return MAX_RECORDED;
+    }
+
+    /**
+     * Returns the number of problems of the provided kind found, including those not kept.
+     */
+    public int getCount(Problem problem) {
+        return COUNTS[problem.ordinal()];
+    }
+
+    /**
+     * Returns the number of lines skipped.
+     */
+    public int getNumSkipped() {
+        int numSkipped = 0;
+        for (Problem problem : Problem.values()) {
+            if (problem.isSkipped()) {
+                numSkipped += getCount(problem);
+            }
+        }
+        return numSkipped;
+    }
+
+    /**
+     * Returns the number of values recalculated, in lines which were not skipped.
+     */
+    public int getNumRecalculated() {
+        return getCount(Problem.RECALCULATED);
+    }
+
+    public boolean hasProblems() {
+        return getNumSkipped() > 0 || getNumRecalculated() > 0;
+    }
+
+    /**
+     * Returns the number of problems kept, which can be read with {@link #getLine(int)},
+     * {@link #getField(int)} and {@link #getProblem(int)}.
+     */
+    public int getNumRecorded() {
+        return numRecorded;
+    }
+
+    public int getLine(int i) {
+        return LINES[i];
+    }
+
+    /**
+     * Returns the field (counted from 0) of the problem kept at the provided position, or
+     * {@link #NO_FIELD} if it was a problem with the whole line.
+     */
+    public int getField(int i) {
+        return FIELDS[i];
+    }
+
+    public Problem getProblem(int i) {
+        return Problem.values()[PROBLEMS[i]];
+    }
+
+    /**
+     * Returns a summary of the problems found: the number of each kind, followed by each of the
+     * problems kept.
+     *
+     * @return a summary of the problems found.
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(getNumSkipped()).append(" lines skipped and ")
+                .append(getNumRecalculated()).append(" values recalculated");
+
+        String separator = " (";
+        for (Problem problem : Problem.values()) {
+            if (getCount(problem) > 0) {
+                summary.append(separator).append(problem.DESCRIPTION).append(": ")
+                        .append(getCount(problem));
+                separator = ", ";
+            }
+        }
+        summary.append(separator.equals(", ") ? ")." : ".");
+
+        for (int i = 0; i < numRecorded; i++) {
+            summary.append("\n  Line #").append(LINES[i]);
+            if (FIELDS[i] != NO_FIELD) {
+                summary.append(", \"").append(FIELD_NAMES[FIELDS[i]]).append("\"");
+            }
+            summary.append(": ").append(getProblem(i).DESCRIPTION);
+        }
+
+        int numNotRecorded = getNumSkipped() + getNumRecalculated() - numRecorded;
+        if (numNotRecorded > 0) {
+            summary.append("\n  ...and ").append(numNotRecorded).append(" more.");
+        }
+
+        return summary.toString();
+    }
+}
@@ -41,11 +41,22 @@ public class Main {
         } catch (ReturnHomeException e) {
             exitProgram(questionsFromFile, isCommandLine);
         }
+        if (questionsFromFile != null) {
+            displayFileMessages(questionsFromFile, isCommandLine);
+        }
 
         boolean exit = false;
         do {
             String homePromptResponse = null;
 
+            // No selection is being answered, so changes made to the file can be applied, and
+            // answers not yet saved in the background can be saved
+            if (questionsFromFile != null) {
+                FileQuestionsInterface.applyFileChanges(questionsFromFile);
+                FileQuestionsInterface.saveAnswered(questionsFromFile);
+                displayFileMessages(questionsFromFile, isCommandLine);
+            }
+
             try {
                 homePromptResponse = homePrompt(isCommandLine);
             } catch (ReturnHomeException e) {
@@ -187,10 +198,7 @@ public class Main {
             QuestionList selectedList,
             boolean remove) {
         if (remove) {
-            ArrayList<Question> updatedArray = originalList.getQuestions();
-
-            updatedArray.removeAll(selectedList.getQuestions());
-            return new QuestionList(updatedArray, originalList.getFileLocation());
+            return originalList.removeSelection(selectedList);
         } else {
             return selectedList;
         }
@@ -202,6 +210,23 @@ public class Main {
         }
     }
 
+    /**
+     * Displays each message about the file from which the provided {@link QuestionList} was loaded
+     * which has not yet been displayed (see {@link QuestionList#takeMessages()}), such as a
+     * summary of the problems found when loading it.
+     *
+     * @param fileQList
+     *         the {@code QuestionList} containing every {@link Question} loaded from the file.
+     * @param isCommandLine
+     *         whether interactions with the user are to be via the command line
+     *         {@code isCommandLine = true}, or via the GUI {@code isCommandLine = false}.
+     */
+    public static void displayFileMessages(QuestionList fileQList, boolean isCommandLine) {
+        for (String message : fileQList.takeMessages()) {
+            displayMessage(message, isCommandLine);
+        }
+    }
+
     public static boolean doRemoveQuestions(boolean isCommandLine) {
         boolean removeQuestions = true;
 
@@ -241,6 +266,8 @@ public class Main {
 
         if (runType.equals(RunType.REVISE)) {
             runRevise(questions, sortingKey, isCommandLine);
+        } else if (runType.equals(RunType.WEIGHTED_REVISE)) {
+            runWeightedRevise(questions, isCommandLine);
         } else {
             runOrdered(questions, sortingKey, isCommandLine);
         }
@@ -249,7 +276,7 @@ public class Main {
     public static SortingKey getSortingKey(RunType runType, boolean isCommandLine) {
         SortingKey sortingKey;
 
-        if (runType.equals(RunType.REVISE)) {
+        if (runType.equals(RunType.REVISE) || runType.equals(RunType.WEIGHTED_REVISE)) {
             sortingKey = new SortingKey(QuestionNumericalAttribute.LIKELIHOOD, true);
         } else if (runType.equals(RunType.TEST)) {
             sortingKey = new SortingKey(QuestionNumericalAttribute.INDEX, false);
@@ -286,13 +313,35 @@ public class Main {
             boolean isCommandLine) {
         boolean exit = false;
         RunStats stats = new RunStats();
+        ReviseScheduler scheduler = questions.createReviseScheduler(sortingKey);
 
         do {
             //TODO implement avoidance of same question repeatedly
-            questions = questions.sort(sortingKey);
+            Boolean isCorrect = askQuestion(scheduler.getNextQuestion(), isCommandLine);
+            scheduler.answeredNextQuestion(isCorrect);
 
-            Boolean isCorrect = askQuestion(questions.getFirstQuestion(), isCommandLine);
-            questions.answeredFirstQuestion(isCorrect);
+            if (isCorrect) {
+                stats.correct();
+            } else {
+                stats.incorrect();
+            }
+
+            if (Settings.isDisplayMotivationMessages()) {
+                displayMotivationMessage(stats, isCommandLine);
+            }
+
+            displayQuestionStats(stats, isCommandLine);
+        } while (!exit);
+    }
+
+    public static void runWeightedRevise(QuestionList questions, boolean isCommandLine) {
+        boolean exit = false;
+        RunStats stats = new RunStats();
+        WeightedSampler sampler = questions.createWeightedSampler();
+
+        do {
+            Boolean isCorrect = askQuestion(sampler.getNextQuestion(), isCommandLine);
+            sampler.answeredNextQuestion(isCorrect);
 
             if (isCorrect) {
                 stats.correct();
@@ -372,7 +421,9 @@ public class Main {
         if (fileQList != null) {
             boolean saveChanges = true;
 
-            if (isCommandLine) {
+            // Progress already saved automatically cannot be discarded, so the user is only asked
+            // whether to save their changes if none have been saved yet
+            if (isCommandLine && !Settings.isUseAutosave()) {
                 saveChanges = CLI.askSaveChanges();
             }
 
@@ -384,6 +435,11 @@ public class Main {
                             " cannot be opened, or cannot be created!");
                 }
             }
+
+            FileQuestionsInterface.closeWatcher(fileQList);
+            FileQuestionsInterface.closeAutosave(fileQList);
+            FileQuestionsInterface.closeJournal(fileQList, !saveChanges);
+            displayFileMessages(fileQList, isCommandLine);
         }
 
         displayMessage(Settings.getUponProgramExit(), isCommandLine);
@@ -0,0 +1,413 @@
+package program;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of positions (non-negative {@code int}s), such as the positions of a selection
+ * of the {@link Question}s in an {@link AttributeIndex}, held as a compressed bitmap.
+ *
+ * <p>The positions are split into chunks of 65536 by their upper 16 bits, and only the chunks
+ * holding at least one position are stored. A chunk holding few positions stores their lower 16
+ * bits as a sorted array; a chunk holding more than {@value #MAX_ARRAY_CARDINALITY} stores one bit
+ * for each of its 65536 possible positions, in 1024 {@code long} words. Either way a chunk takes at
+ * most 8KB, and a set of consecutive positions takes about one bit per position.
+ *
+ * <p>Intersections, unions and differences are made chunk by chunk: two bitmap chunks are
+ * combined 64 positions at a time by combining their words, and array chunks are merged or looked
+ * up in the other chunk, so the time taken depends on the number of chunks and positions held,
+ * rather than the size of the largest position.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class PositionBitmap {
+
+    /**
+     * The greatest number of positions held in a chunk stored as an array. Above this, a bitmap
+     * takes less space.
+     */
+    private static final int MAX_ARRAY_CARDINALITY = 4096;
+
+    /**
+     * The number of {@code long} words in the bitmap of a chunk.
+     */
+    private static final int WORDS_PER_CHUNK = 1024;
+
+    /**
+     * An empty {@code PositionBitmap}.
+     */
+    static final PositionBitmap EMPTY = new PositionBitmap(new char[0], new Chunk[0], 0);
+
+    /**
+     * The upper 16 bits of the positions in each stored chunk, in ascending order.
+     */
+    private final char[] KEYS;
+
+    /**
+     * The chunk with each of the {@code KEYS}.
+     */
+    private final Chunk[] CHUNKS;
+
+    /**
+     * The number of positions in the set.
+     */
+    private final int CARDINALITY;
+
+    private PositionBitmap(char[] keys, Chunk[] chunks, int numChunks) {
+        this.KEYS = keys.length == numChunks ? keys : Arrays.copyOf(keys, numChunks);
+        this.CHUNKS = chunks.length == numChunks ? chunks : Arrays.copyOf(chunks, numChunks);
+
+        int cardinality = 0;
+        for (Chunk chunk : CHUNKS) {
+            cardinality += chunk.CARDINALITY;
+        }
+        this.CARDINALITY = cardinality;
+    }
+
+    /**
+     * Returns a {@code PositionBitmap} holding the provided {@code positions}, which must be
+     * non-negative and in strictly ascending order.
+     */
+    static PositionBitmap of(int[] positions) {
+        char[] keys = new char[positions.length];
+        Chunk[] chunks = new Chunk[positions.length];
+        int numChunks = 0;
+
+        int start = 0;
+        while (start < positions.length) {
+            int key = positions[start] >>> 16;
+            int end = start;
+            while (end < positions.length && positions[end] >>> 16 == key) {
+                end++;
+            }
+
+            char[] values = new char[end - start];
+            for (int i = start; i < end; i++) {
+                values[i - start] = (char) positions[i];
+            }
+
+            keys[numChunks] = (char) key;
+            chunks[numChunks++] = Chunk.ofArray(values, values.length);
+            start = end;
+        }
+
+        return new PositionBitmap(keys, chunks, numChunks);
+    }
+
+    /**
+     * Returns a {@code PositionBitmap} holding every position from 0 (inclusive) to the provided
+     * {@code size} (exclusive).
+     */
+    static PositionBitmap range(int size) {
+        int numChunks = (size + 0xFFFF) >>> 16;
+        char[] keys = new char[numChunks];
+        Chunk[] chunks = new Chunk[numChunks];
+
+        for (int key = 0; key < numChunks; key++) {
+            int chunkSize = Math.min(size - (key << 16), 1 << 16);
+            long[] words = new long[WORDS_PER_CHUNK];
+            Arrays.fill(words, 0, chunkSize >>> 6, -1L);
+            if ((chunkSize & 63) != 0) {
+                words[chunkSize >>> 6] = (1L << chunkSize) - 1;
+            }
+
+            keys[key] = (char) key;
+            chunks[key] = Chunk.ofWords(words, chunkSize);
+        }
+
+        return new PositionBitmap(keys, chunks, numChunks);
+    }
+
+    /**
+     * Returns the number of positions in the set.
+     */
+    int getCardinality() {
+        return CARDINALITY;
+    }
+
+    /**
+     * Returns every position in the set, in ascending order.
+     */
+    int[] toArray() {
+        int[] positions = new int[CARDINALITY];
+        int filled = 0;
+
+        for (int i = 0; i < CHUNKS.length; i++) {
+            filled = CHUNKS[i].copyTo(positions, filled, KEYS[i] << 16);
+        }
+
+        return positions;
+    }
+
+    /**
+     * Returns the positions in both this set and the {@code other}.
+     */
+    PositionBitmap and(PositionBitmap other) {
+        int capacity = Math.min(KEYS.length, other.KEYS.length);
+        char[] keys = new char[capacity];
+        Chunk[] chunks = new Chunk[capacity];
+        int numChunks = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < KEYS.length && j < other.KEYS.length) {
+            if (KEYS[i] < other.KEYS[j]) {
+                i++;
+            } else if (KEYS[i] > other.KEYS[j]) {
+                j++;
+            } else {
+                Chunk chunk = CHUNKS[i++].and(other.CHUNKS[j++]);
+                if (chunk.CARDINALITY > 0) {
+                    keys[numChunks] = KEYS[i - 1];
+                    chunks[numChunks++] = chunk;
+                }
+            }
+        }
+
+        return new PositionBitmap(keys, chunks, numChunks);
+    }
+
+    /**
+     * Returns the positions in this set, the {@code other}, or both.
+     */
+    PositionBitmap or(PositionBitmap other) {
+        int capacity = KEYS.length + other.KEYS.length;
+        char[] keys = new char[capacity];
+        Chunk[] chunks = new Chunk[capacity];
+        int numChunks = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < KEYS.length || j < other.KEYS.length) {
+            if (j >= other.KEYS.length || (i < KEYS.length && KEYS[i] < other.KEYS[j])) {
+                keys[numChunks] = KEYS[i];
+                chunks[numChunks++] = CHUNKS[i++];
+            } else if (i >= KEYS.length || KEYS[i] > other.KEYS[j]) {
+                keys[numChunks] = other.KEYS[j];
+                chunks[numChunks++] = other.CHUNKS[j++];
+            } else {
+                keys[numChunks] = KEYS[i];
+                chunks[numChunks++] = CHUNKS[i++].or(other.CHUNKS[j++]);
+            }
+        }
+
+        return new PositionBitmap(keys, chunks, numChunks);
+    }
+
+    /**
+     * Returns the positions in this set which are not in the {@code other}.
+     */
+    PositionBitmap andNot(PositionBitmap other) {
+        char[] keys = new char[KEYS.length];
+        Chunk[] chunks = new Chunk[KEYS.length];
+        int numChunks = 0;
+
+        int j = 0;
+        for (int i = 0; i < KEYS.length; i++) {
+            while (j < other.KEYS.length && other.KEYS[j] < KEYS[i]) {
+                j++;
+            }
+
+            Chunk chunk = CHUNKS[i];
+            if (j < other.KEYS.length && other.KEYS[j] == KEYS[i]) {
+                chunk = chunk.andNot(other.CHUNKS[j]);
+            }
+            if (chunk.CARDINALITY > 0) {
+                keys[numChunks] = KEYS[i];
+                chunks[numChunks++] = chunk;
+            }
+        }
+
+        return new PositionBitmap(keys, chunks, numChunks);
+    }
+
+    /**
+     * The positions in a {@code PositionBitmap} sharing the same upper 16 bits, held as either a
+     * sorted array of their lower 16 bits, or a bitmap of 65536 bits.
+     */
+    private static final class Chunk {
+
+        /**
+         * The lower 16 bits of each position, in ascending order, or {@code null} if the chunk is
+         * held as a bitmap.
+         */
+        private final char[] VALUES;
+
+        /**
+         * The bitmap of the chunk, holding the bit for position {@code p} at bit {@code p & 63} of
+         * word {@code p >>> 6}, or {@code null} if the chunk is held as an array.
+         */
+        private final long[] WORDS;
+
+        /**
+         * The number of positions in the chunk.
+         */
+        private final int CARDINALITY;
+
+        private Chunk(char[] values, long[] words, int cardinality) {
+            this.VALUES = values;
+            this.WORDS = words;
+            this.CARDINALITY = cardinality;
+        }
+
+        /**
+         * Returns a chunk holding the first {@code cardinality} of the provided ascending
+         * {@code values}, held in whichever form suits its cardinality.
+         */
+        private static Chunk ofArray(char[] values, int cardinality) {
+            if (cardinality > MAX_ARRAY_CARDINALITY) {
+                long[] words = new long[WORDS_PER_CHUNK];
+                for (int i = 0; i < cardinality; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                return new Chunk(null, words, cardinality);
+            }
+
+            return new Chunk(values.length == cardinality ? values :
+                    Arrays.copyOf(values, cardinality), null, cardinality);
+        }
+
+        /**
+         * Returns a chunk holding the positions set in the provided {@code words}, of which there
+         * are {@code cardinality}, held in whichever form suits its cardinality.
+         */
+        private static Chunk ofWords(long[] words, int cardinality) {
+            if (cardinality > MAX_ARRAY_CARDINALITY) {
+                return new Chunk(null, words, cardinality);
+            }
+
+            char[] values = new char[cardinality];
+            int filled = 0;
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[filled++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new Chunk(values, null, cardinality);
+        }
+
+        private boolean isBitmap() {
+            return WORDS != null;
+        }
+
+        private boolean contains(char value) {
+            if (isBitmap()) {
+                return (WORDS[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(VALUES, value) >= 0;
+        }
+
+        /**
+         * Copies each position in the chunk, plus the provided {@code high} bits, into the
+         * provided {@code positions} from index {@code from}, and returns the index after the last
+         * position copied.
+         */
+        private int copyTo(int[] positions, int from, int high) {
+            if (!isBitmap()) {
+                for (char value : VALUES) {
+                    positions[from++] = high | value;
+                }
+                return from;
+            }
+
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                for (long word = WORDS[i]; word != 0; word &= word - 1) {
+                    positions[from++] = high | (i << 6) + Long.numberOfTrailingZeros(word);
+                }
+            }
+            return from;
+        }
+
+        private Chunk and(Chunk other) {
+            if (isBitmap() && other.isBitmap()) {
+                long[] words = new long[WORDS_PER_CHUNK];
+                int cardinality = 0;
+                for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                    words[i] = WORDS[i] & other.WORDS[i];
+                    cardinality += Long.bitCount(words[i]);
+                }
+                return ofWords(words, cardinality);
+            }
+
+            // Look up each value of the array chunk (the smaller of the two, if both are arrays)
+            Chunk array = !isBitmap() && (other.isBitmap() || CARDINALITY <= other.CARDINALITY) ?
+                    this : other;
+            Chunk lookup = array == this ? other : this;
+            char[] values = new char[array.CARDINALITY];
+            int cardinality = 0;
+            for (char value : array.VALUES) {
+                if (lookup.contains(value)) {
+                    values[cardinality++] = value;
+                }
+            }
+            return ofArray(values, cardinality);
+        }
+
+        private Chunk or(Chunk other) {
+            if (isBitmap() || other.isBitmap()) {
+                long[] words = isBitmap() ? WORDS.clone() : other.WORDS.clone();
+                Chunk added = isBitmap() ? other : this;
+                if (added.isBitmap()) {
+                    for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                        words[i] |= added.WORDS[i];
+                    }
+                } else {
+                    for (char value : added.VALUES) {
+                        words[value >>> 6] |= 1L << value;
+                    }
+                }
+                return ofWords(words, countBits(words));
+            }
+
+            // Merge the two sorted arrays
+            char[] values = new char[CARDINALITY + other.CARDINALITY];
+            int cardinality = 0;
+            int i = 0;
+            int j = 0;
+            while (i < CARDINALITY || j < other.CARDINALITY) {
+                if (j >= other.CARDINALITY ||
+                        (i < CARDINALITY && VALUES[i] < other.VALUES[j])) {
+                    values[cardinality++] = VALUES[i++];
+                } else if (i >= CARDINALITY || VALUES[i] > other.VALUES[j]) {
+                    values[cardinality++] = other.VALUES[j++];
+                } else {
+                    values[cardinality++] = VALUES[i++];
+                    j++;
+                }
+            }
+            return ofArray(values, cardinality);
+        }
+
+        private Chunk andNot(Chunk other) {
+            if (isBitmap()) {
+                long[] words = WORDS.clone();
+                if (other.isBitmap()) {
+                    for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                        words[i] &= ~other.WORDS[i];
+                    }
+                } else {
+                    for (char value : other.VALUES) {
+                        words[value >>> 6] &= ~(1L << value);
+                    }
+                }
+                return ofWords(words, countBits(words));
+            }
+
+            char[] values = new char[CARDINALITY];
+            int cardinality = 0;
+            for (char value : VALUES) {
+                if (!other.contains(value)) {
+                    values[cardinality++] = value;
+                }
+            }
+            return ofArray(values, cardinality);
+        }
+
+        private static int countBits(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+    }
+}
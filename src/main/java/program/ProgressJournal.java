@@ -0,0 +1,664 @@
+package program;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * A write-ahead journal of the progress made on the {@link Question}s loaded from a file, stored
+ * alongside the file, so that progress is not lost if the program stops before the file is saved.
+ *
+ * <p>Rather than rewriting the whole file after every answer, a short record is appended to the
+ * journal each time a {@code Question} is answered (see
+ * {@link QuestionList#answeredQuestion(int, boolean)}). When the journal is opened, its records are
+ * replayed on top of the {@code Question}s loaded from the file, and once the file has been saved
+ * the records already saved are removed from the journal (see
+ * {@link FileQuestionsInterface#saveToFile(QuestionList)} and {@link Autosave}), so the journal
+ * only ever holds the answers which are not yet in the file.
+ *
+ * <p>As answering a {@code Question} also changes the expected times asked of every other
+ * {@code Question} in the same {@link QuestionList}, the journal contains three kinds of record:
+ * <ul>
+ *     <li>a pool record, written before the first answer in a {@code QuestionList}, giving the
+ *     {@code QuestionList} a number and containing the index of every {@code Question} in it
+ *     (but not their progress, which is given by the file and the records before it);</li>
+ *     <li>a switch record, written before an answer in a {@code QuestionList} which already has a
+ *     pool record, containing its number;</li>
+ *     <li>an answer record, containing the index of the {@code Question} answered and whether
+ *     it was answered correctly.</li>
+ * </ul>
+ * A pool record is therefore written once for each {@code QuestionList} answered in, rather than
+ * each time answering moves to a different one. {@code Question}s are identified by their index,
+ * so the journal can only be used if every {@code Question} in the file has a different index.
+ *
+ * <p>Each answer record is forced to the disk before the answer is made, so that the answer is
+ * kept even if the computer stops rather than just the program. This costs one synchronous disk
+ * write per answer, which is far less than the time taken to answer a {@code Question}; answers
+ * are not batched, as an answer still waiting in a batch would be lost.
+ *
+ * <p>Records are only added on the thread answering {@code Question}s, but the records already
+ * saved may be removed from another thread once the file has been saved in the background (see
+ * {@link Autosave}), so every method which reads or writes the journal is synchronized.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class ProgressJournal {
+
+    /**
+     * The first four bytes of every journal ("QJNL").
+     */
+    private final static int MAGIC = 0x514A4E4C;
+
+    /**
+     * The version of the journal format written by this class.
+     */
+    private final static int VERSION = 2;
+
+    /**
+     * The length, in bytes, of the header at the start of every journal.
+     */
+    private final static int HEADER_LENGTH = 2 * Integer.BYTES;
+
+    /**
+     * The extension added to the location of a .csv file to give the location of its journal.
+     */
+    private final static String EXTENSION = ".journal";
+
+    /**
+     * The extension added to the location of the journal to give the location to which it is
+     * rewritten before replacing it (see {@link #removeRecordsBefore(long)}).
+     */
+    private final static String TEMP_EXTENSION = ".tmp";
+
+    /**
+     * The type byte at the start of a pool record.
+     */
+    private final static byte POOL_RECORD = 'P';
+
+    /**
+     * The type byte at the start of a switch record.
+     */
+    private final static byte SWITCH_RECORD = 'S';
+
+    /**
+     * The type byte at the start of an answer record.
+     */
+    private final static byte ANSWER_RECORD = 'A';
+
+    /**
+     * The length, in bytes, of a switch record.
+     */
+    private final static int SWITCH_RECORD_LENGTH = 1 + Integer.BYTES;
+
+    /**
+     * The length, in bytes, of an answer record.
+     */
+    private final static int ANSWER_RECORD_LENGTH = 1 + Integer.BYTES + 1;
+
+    /**
+     * The location of the journal.
+     */
+    private final Path PATH;
+
+    /**
+     * The {@link QuestionList} containing every {@link Question} loaded from the file, to which a
+     * message is added if the journal is disabled.
+     */
+    private final QuestionList QUESTIONS;
+
+    /**
+     * The number of each {@link QuestionList} with a pool record in the journal, for the
+     * {@code QuestionList}s answered in since their {@link Question}s were last replaced.
+     */
+    private final IdentityHashMap<QuestionList, Integer> POOL_NUMBERS;
+
+    /**
+     * The indices of the {@link Question}s in each pool record in the journal, by number, so that
+     * the pool records still needed can be rewritten when earlier records are removed.
+     */
+    private final HashMap<Integer, int[]> POOL_INDICES;
+
+    /**
+     * The channel to which records are appended. This is replaced when the journal is rewritten
+     * (see {@link #removeRecordsBefore(long)}).
+     */
+    private FileChannel channel;
+
+    /**
+     * The number to be given to the next pool record.
+     */
+    private int nextPoolNumber;
+
+    /**
+     * The {@link QuestionList} in which the most recently recorded answer was given, or
+     * {@code null} if the next answer must be preceded by a pool or switch record.
+     */
+    private QuestionList currentPool;
+
+    /**
+     * The length of the journal returned by the most recent call to {@link #mark()}, or -1 if
+     * the journal has been cleared or rewritten since.
+     */
+    private long markedLength;
+
+    /**
+     * Whether the journal is still being written to. A journal is disabled if it cannot be
+     * written, so that a failing disk does not stop {@link Question}s from being answered.
+     */
+    private boolean isEnabled;
+
+    /**
+     * Creates a new {@code ProgressJournal} which appends records to the provided
+     * {@code channel}.
+     *
+     * @param channel
+     *         the channel through which the journal is to be read and written.
+     * @param path
+     *         the location of the journal.
+     * @param questions
+     *         the {@code QuestionList} containing every {@link Question} loaded from the file.
+     */
+    private ProgressJournal(FileChannel channel, Path path, QuestionList questions) {
+        this.channel = channel;
+        this.PATH = path;
+        this.QUESTIONS = questions;
+        this.POOL_NUMBERS = new IdentityHashMap<>();
+        this.POOL_INDICES = new HashMap<>();
+        this.markedLength = -1;
+        this.isEnabled = true;
+    }
+
+    /**
+     * Returns the location of the journal for the .csv file at the provided {@code fileLocation}.
+     *
+     * @param fileLocation
+     *         the location of the .csv file containing the {@link Question} data.
+     *
+     * @return the location of the journal for the .csv file at the provided {@code fileLocation}.
+     */
+    static String getJournalLocation(String fileLocation) {
+        return fileLocation + EXTENSION;
+    }
+
+    /**
+     * Opens (creating if necessary) the journal for the provided {@link QuestionList}, which should
+     * contain every {@link Question} loaded from its file, and replays any records already in the
+     * journal on top of its {@code Question}s. If any answers are restored, a message saying how
+     * many is added to the {@code QuestionList} (see {@link QuestionList#addMessage(String)}).
+     *
+     * <p>If the journal ends with an incomplete record (for instance, if the program stopped while
+     * the record was being written), the incomplete record is ignored and removed.
+     *
+     * @param questions
+     *         the {@code QuestionList} containing every {@code Question} loaded from the file.
+     *
+     * @return the opened {@code ProgressJournal}.
+     *
+     * @throws IOException
+     *         if the journal could not be read or created, is not a valid journal, or if any two
+     *         {@code Question}s in the {@code questions} list have the same index.
+     */
+    static ProgressJournal open(QuestionList questions) throws IOException {
+        HashMap<Integer, Question> questionsByIndex = new HashMap<>();
+        for (Question question : questions.getQuestions()) {
+            if (questionsByIndex.put(question.getIndex(), question) != null) {
+                throw new IOException("More than one question has index " +
+                        question.getIndex() + "!");
+            }
+        }
+
+        Path path = Path.of(getJournalLocation(questions.getFileLocation()));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ProgressJournal journal = new ProgressJournal(channel, path, questions);
+
+        try {
+            long validLength;
+
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                header.putInt(MAGIC).putInt(VERSION);
+                journal.write(header);
+                validLength = HEADER_LENGTH;
+            } else {
+                validLength = journal.replay(questionsByIndex);
+            }
+
+            channel.truncate(validLength);
+            channel.position(validLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        return journal;
+    }
+
+    /**
+     * Replays each complete record in the journal on top of the provided {@link Question}s, and
+     * returns the length of the journal up to the end of the last complete record. The indices of
+     * the {@code Question}s in each pool record are kept, so that the pool records still needed
+     * can be rewritten when earlier records are removed (see {@link #removeRecordsBefore(long)}).
+     *
+     * @param questionsByIndex
+     *         every {@code Question} loaded from the file, by index.
+     *
+     * @return the length, in bytes, of the journal up to the end of the last complete record.
+     *
+     * @throws IOException
+     *         if the journal could not be read, or is not a valid journal.
+     */
+    private long replay(HashMap<Integer, Question> questionsByIndex) throws IOException {
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new IOException("Journal is too large to be read!");
+        }
+        ByteBuffer buffer = read(0, (int) channel.size());
+
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+            throw new IOException("File is not a journal!");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Journal version " + version + " is not supported " +
+                    "(expected " + VERSION + ")!");
+        }
+
+        HashMap<Integer, QuestionList> pools = new HashMap<>();
+        HashMap<Integer, IdentityHashMap<Question, Integer>> poolPositions = new HashMap<>();
+        QuestionList pool = null;
+        IdentityHashMap<Question, Integer> positions = null;
+        int answersReplayed = 0;
+        int validLength = buffer.position();
+
+        try {
+            while (buffer.hasRemaining()) {
+                byte recordType = buffer.get();
+
+                if (recordType == POOL_RECORD) {
+                    int number = buffer.getInt();
+                    int poolSize = buffer.getInt();
+                    if (poolSize < 0 || poolSize > buffer.remaining() / Integer.BYTES) {
+                        break;
+                    }
+
+                    int[] indices = new int[poolSize];
+                    ArrayList<Question> poolQuestions = new ArrayList<>(poolSize);
+                    positions = new IdentityHashMap<>();
+                    for (int i = 0; i < poolSize; i++) {
+                        indices[i] = buffer.getInt();
+                        Question question = questionsByIndex.get(indices[i]);
+
+                        // Questions removed from the file since the journal was written are skipped
+                        if (question != null) {
+                            positions.put(question, poolQuestions.size());
+                            poolQuestions.add(question);
+                        }
+                    }
+
+                    pool = new QuestionList(poolQuestions, QUESTIONS.getFileLocation());
+                    pools.put(number, pool);
+                    poolPositions.put(number, positions);
+                    POOL_INDICES.put(number, indices);
+                    nextPoolNumber = Math.max(nextPoolNumber, number + 1);
+                } else if (recordType == SWITCH_RECORD) {
+                    int number = buffer.getInt();
+                    pool = pools.get(number);
+                    positions = poolPositions.get(number);
+                    if (pool == null) {
+                        throw new IOException("Journal refers to pool " + number +
+                                ", which it does not contain!");
+                    }
+                } else if (recordType == ANSWER_RECORD) {
+                    Question question = questionsByIndex.get(buffer.getInt());
+                    boolean isCorrect = buffer.get() != 0;
+
+                    Integer position = positions == null ? null : positions.get(question);
+                    if (position != null) {
+                        pool.answeredQuestion(position, isCorrect);
+                        answersReplayed++;
+                    }
+                } else {
+                    throw new IOException("Journal contains an unknown record type!");
+                }
+
+                validLength = buffer.position();
+            }
+        } catch (BufferUnderflowException e) {
+            // The last record is incomplete, so is ignored
+        }
+
+        if (answersReplayed > 0) {
+            QUESTIONS.addMessage(answersReplayed + " unsaved answers restored from journal.");
+        }
+
+        return validLength;
+    }
+
+    /**
+     * Appends an answer record for the provided {@link Question} to the journal, and forces it to
+     * the disk. If the answer was given in a different {@link QuestionList} to the previous
+     * answer, a pool record for the {@code QuestionList} is appended first, or a switch record if
+     * the journal already has a pool record for it. This must be called before the answer is
+     * applied to the {@code Question}s in the {@code pool}.
+     *
+     * <p>If the journal cannot be written to, it is disabled and a message is added to the
+     * {@link QuestionList} loaded from the file, rather than an exception being thrown.
+     *
+     * @param pool
+     *         the {@code QuestionList} in which the {@code Question} was answered.
+     * @param question
+     *         the {@code Question} which was answered.
+     * @param isCorrect
+     *         whether the {@code Question} was answered correctly.
+     */
+    synchronized void recordAnswer(QuestionList pool, Question question, boolean isCorrect) {
+        if (!isEnabled) {
+            return;
+        }
+
+        try {
+            if (pool != currentPool) {
+                Integer number = POOL_NUMBERS.get(pool);
+
+                if (number == null) {
+                    number = nextPoolNumber++;
+                    ArrayList<Question> poolQuestions = pool.getQuestions();
+                    int[] indices = new int[poolQuestions.size()];
+                    for (int i = 0; i < indices.length; i++) {
+                        indices[i] = poolQuestions.get(i).getIndex();
+                    }
+
+                    write(poolRecord(number, indices));
+                    POOL_NUMBERS.put(pool, number);
+                    POOL_INDICES.put(number, indices);
+                } else {
+                    ByteBuffer record = ByteBuffer.allocate(SWITCH_RECORD_LENGTH);
+                    write(record.put(SWITCH_RECORD).putInt(number));
+                }
+                currentPool = pool;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(ANSWER_RECORD_LENGTH);
+            record.put(ANSWER_RECORD).putInt(question.getIndex()).put((byte) (isCorrect ? 1 : 0));
+            write(record);
+            channel.force(false);
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+
+    /**
+     * Records that the {@link Question}s of a {@link QuestionList} may have changed (see
+     * {@link QuestionList#replaceQuestions(ArrayList)}), so that a new pool record is appended
+     * before the next answer in any {@code QuestionList}, even one which already has a pool record.
+     */
+    synchronized void resetPool() {
+        POOL_NUMBERS.clear();
+        currentPool = null;
+    }
+
+    /**
+     * Returns a pool record with the provided {@code number}, containing the provided
+     * {@code indices}.
+     *
+     * @param number
+     *         the number of the pool.
+     * @param indices
+     *         the indices of the {@link Question}s in the pool.
+     *
+     * @return the pool record, positioned at its end.
+     */
+    private static ByteBuffer poolRecord(int number, int[] indices) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 2 * Integer.BYTES +
+                indices.length * Integer.BYTES);
+
+        record.put(POOL_RECORD).putInt(number).putInt(indices.length);
+        for (int index : indices) {
+            record.putInt(index);
+        }
+
+        return record;
+    }
+
+    /**
+     * Writes the whole of the provided {@code record} to the end of the journal.
+     *
+     * @param record
+     *         the record to write, positioned at its end.
+     *
+     * @throws IOException
+     *         if the record could not be written.
+     */
+    private void write(ByteBuffer record) throws IOException {
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    /**
+     * Reads the provided number of bytes of the journal from the provided position.
+     *
+     * @param position
+     *         the position from which to read.
+     * @param length
+     *         the number of bytes to read.
+     *
+     * @return the bytes read, positioned at the start.
+     *
+     * @throws IOException
+     *         if the journal could not be read.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() &&
+                channel.read(buffer, position + buffer.position()) >= 0) {
+            // Keep reading until the whole range is in the buffer
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Returns the current length of the journal, so that the records before it can later be
+     * removed once the progress they record has been saved (see {@link #removeSavedRecords(long)}).
+     * The next answer is preceded by a pool or switch record, so that the records after this
+     * length can be replayed without those before it.
+     *
+     * @return the length of the journal, or -1 if the journal is disabled.
+     */
+    synchronized long mark() {
+        if (!isEnabled) {
+            return -1;
+        }
+
+        try {
+            markedLength = channel.position();
+            currentPool = null;
+            return markedLength;
+        } catch (IOException e) {
+            disable(e);
+            return -1;
+        }
+    }
+
+    /**
+     * Removes every record before the provided {@code length} from the journal (see
+     * {@link #mark()}). To be called once the progress recorded in the journal when it had that
+     * length has been saved to the file, possibly while {@link Question}s are still being answered
+     * on another thread. If no answer has been recorded since, the journal is cleared; otherwise
+     * only the records after that length are kept, so that they are not replayed twice.
+     *
+     * <p>If the journal has been cleared or rewritten since {@code length} was returned, it is left
+     * unchanged.
+     *
+     * @param length
+     *         the length of the journal when the saved progress was copied.
+     */
+    synchronized void removeSavedRecords(long length) {
+        if (!isEnabled || length == -1 || length != markedLength) {
+            return;
+        }
+
+        try {
+            if (length == channel.position()) {
+                clear();
+            } else {
+                removeRecordsBefore(length);
+            }
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+
+    /**
+     * Rewrites the journal without the records before the provided {@code length}, which must
+     * have been returned by {@link #mark()}. The records after it begin with a pool or switch
+     * record, and a pool record is written first for each pool they switch to without containing
+     * its pool record. The journal is rewritten to a temporary file which then replaces it, so
+     * that the journal is never left partly rewritten.
+     *
+     * @param length
+     *         the length of the journal before which every record is to be removed.
+     *
+     * @throws IOException
+     *         if the journal could not be rewritten.
+     */
+    private void removeRecordsBefore(long length) throws IOException {
+        ByteBuffer records = read(length, (int) (channel.position() - length));
+
+        // Find the pools referred to by the records kept, and the pools defined before them
+        LinkedHashSet<Integer> earlierPools = new LinkedHashSet<>();
+        HashSet<Integer> keptPools = new HashSet<>();
+        while (records.hasRemaining()) {
+            byte recordType = records.get();
+
+            if (recordType == POOL_RECORD) {
+                keptPools.add(records.getInt());
+                records.position(records.position() + records.getInt() * Integer.BYTES);
+            } else if (recordType == SWITCH_RECORD) {
+                int number = records.getInt();
+                if (keptPools.add(number)) {
+                    earlierPools.add(number);
+                }
+            } else {
+                records.position(records.position() + ANSWER_RECORD_LENGTH - 1);
+            }
+        }
+        records.rewind();
+
+        Path tempPath = Path.of(PATH + TEMP_EXTENSION);
+        try (FileChannel temp = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            writeFully(temp, header.putInt(MAGIC).putInt(VERSION));
+            for (int number : earlierPools) {
+                writeFully(temp, poolRecord(number, POOL_INDICES.get(number)));
+            }
+            while (records.hasRemaining()) {
+                temp.write(records);
+            }
+            temp.force(false);
+        }
+
+        Files.move(tempPath, PATH, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        channel = FileChannel.open(PATH, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+
+        POOL_INDICES.keySet().retainAll(keptPools);
+        POOL_NUMBERS.values().retainAll(keptPools);
+        markedLength = -1;
+    }
+
+    /**
+     * Writes the whole of the provided {@code record} to the end of the provided {@code channel}.
+     *
+     * @param channel
+     *         the channel to which the record is to be written.
+     * @param record
+     *         the record to write, positioned at its end.
+     *
+     * @throws IOException
+     *         if the record could not be written.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer record) throws IOException {
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    /**
+     * Removes every record from the journal. To be called once every answer in the journal has
+     * been saved to the file (or is to be discarded).
+     */
+    synchronized void clear() {
+        if (!isEnabled) {
+            return;
+        }
+
+        try {
+            channel.truncate(HEADER_LENGTH);
+            channel.position(HEADER_LENGTH);
+            channel.force(false);
+            POOL_NUMBERS.clear();
+            POOL_INDICES.clear();
+            currentPool = null;
+            markedLength = -1;
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+
+    /**
+     * Stops writing to the journal and deletes it, and adds a message explaining that it could
+     * not be written to to the {@link QuestionList} (see {@link QuestionList#addMessage(String)}).
+     * The journal is deleted because it could not be cleared once its answers are saved, and
+     * replaying them on top of the saved file would count them twice.
+     *
+     * @param e
+     *         the exception thrown when writing to the journal.
+     */
+    private void disable(IOException e) {
+        isEnabled = false;
+        try {
+            channel.close();
+            Files.deleteIfExists(PATH);
+        } catch (IOException ignored) {
+        }
+
+        QUESTIONS.addMessage("Journal \"" + PATH + "\" could not be written to, so answers will " +
+                "only be saved when the program exits. Details:\n" + e.getMessage());
+    }
+
+    /**
+     * Closes the journal. If the journal contains no records, it is deleted.
+     */
+    synchronized void close() {
+        if (!isEnabled) {
+            return;
+        }
+
+        try {
+            boolean isEmpty = channel.size() <= HEADER_LENGTH;
+            channel.close();
+
+            if (isEmpty) {
+                Files.deleteIfExists(PATH);
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+}
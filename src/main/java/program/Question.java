@@ -6,16 +6,41 @@ import program.exceptions.InvalidQuestionAttributeException;
 import program.exceptions.InvalidQuestionNumericalAttributeException;
 import program.helpers.ReformatString;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
 
 /**
  * <p>
  * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
  */
 public class Question {
-    private Map<QuestionAttribute, String> attributeStringMap;
-    private Map<QuestionNumericalAttribute, Number> numericalAttributeNumberMap;
+    private final String title;
+    private final String topic;
+    private final String paperUnit;
+    private final String subject;
+    private final String qualLevel;
+    private final String examBoard;
+
+    /**
+     * The hash code of this Question's attributes, calculated once, as they cannot change (see
+     * {@link #hashCode()}).
+     */
+    private final int attributesHash;
+
+    private final int index;
+    private int attempted;
+    private int correct;
+    private double percentage;
+    private double expectedTimesAsked;
+    private double likelihood;
+
+    /**
+     * The pool (if any) whose answers have not all been added to this Question's expected times
+     * asked yet, the number of answers it had been given when they last were, and the number of
+     * times this Question appears in it (see {@link QuestionPool}).
+     */
+    private QuestionPool pool;
+    private long poolAnswers;
+    private int poolOccurrences;
 
     /**
      * Constructor for initialising a revision_program.Question object with the provided parameters
@@ -53,6 +78,28 @@ public class Question {
     public Question(int index, String title, String topic, String paperUnit, String subject,
             String qualLevel, String examBoard, int attempted, int correct, double percentage,
             double expectedTimesAsked, double likelihood) throws IllegalArgumentException {
+        this(index, title, topic, paperUnit, subject, qualLevel, examBoard, attempted, correct,
+                percentage, expectedTimesAsked, likelihood, null);
+    }
+
+    /**
+     * Constructor for initialising a Question object with the provided parameters (see
+     * {@link #Question(int, String, String, String, String, String, String, int, int, double,
+     * double, double)}), taking each of its attribute values from the provided
+     * {@code dictionary}, so that it shares them with every other Question loaded from the same
+     * file.
+     *
+     * @param dictionary
+     *         the {@link AttributeDictionary} of the file from which the question was loaded, or
+     *         {@code null} if the values should not be shared.
+     *
+     * @throws IllegalArgumentException
+     *         if any of the provided parameters are invalid
+     */
+    Question(int index, String title, String topic, String paperUnit, String subject,
+            String qualLevel, String examBoard, int attempted, int correct, double percentage,
+            double expectedTimesAsked, double likelihood, AttributeDictionary dictionary)
+            throws IllegalArgumentException {
         String[] qAtts = {title, topic, paperUnit, subject, qualLevel, examBoard};
         qAtts = ReformatString.removeWhitespaceAndQuotes(qAtts);
         try {
@@ -62,14 +109,21 @@ public class Question {
             throw new IllegalArgumentException(e.getMessage());
         }
 
-        Map<QuestionAttribute, String> attributeStringMap = new HashMap<>();
+        if (dictionary != null) {
+            qAtts[1] = dictionary.intern(QuestionAttribute.TOPIC, qAtts[1]);
+            qAtts[2] = dictionary.intern(QuestionAttribute.SUBJECT, qAtts[2]);
+            qAtts[3] = dictionary.intern(QuestionAttribute.PAPER_OR_UNIT, qAtts[3]);
+            qAtts[4] = dictionary.intern(QuestionAttribute.QUALIFICATION_LEVEL, qAtts[4]);
+            qAtts[5] = dictionary.intern(QuestionAttribute.EXAM_BOARD, qAtts[5]);
+        }
 
-        attributeStringMap.put(QuestionAttribute.TITLE, qAtts[0]);
-        attributeStringMap.put(QuestionAttribute.TOPIC, qAtts[1]);
-        attributeStringMap.put(QuestionAttribute.PAPER_OR_UNIT, qAtts[3]);
-        attributeStringMap.put(QuestionAttribute.SUBJECT, qAtts[2]);
-        attributeStringMap.put(QuestionAttribute.QUALIFICATION_LEVEL, qAtts[4]);
-        attributeStringMap.put(QuestionAttribute.EXAM_BOARD, qAtts[5]);
+        this.title = qAtts[0];
+        this.topic = qAtts[1];
+        this.paperUnit = qAtts[3];
+        this.subject = qAtts[2];
+        this.qualLevel = qAtts[4];
+        this.examBoard = qAtts[5];
+        this.attributesHash = hashAttributes();
 
         try {
             QuestionNumericalAttribute.assertAttributesValid(index, attempted, correct, percentage,
@@ -84,81 +138,155 @@ public class Question {
             }
         }
 
-        Map<QuestionNumericalAttribute, Number> numericalAttributeNumberMap = new HashMap<>();
-
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.INDEX, index);
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.ATTEMPTED, attempted);
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.CORRECT, correct);
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.EXPECTED_TIMES_ASKED,
-                expectedTimesAsked);
-        if (attempted == 0) {
-            percentage = 0.0;
-        } else {
-            percentage = 100 * ((double) correct / attempted);
-        }
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.PERCENTAGE, percentage);
-        likelihood = calculateLikelihood(attempted, percentage, expectedTimesAsked);
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.LIKELIHOOD, likelihood);
+        this.index = index;
+        setProgress(attempted, correct, expectedTimesAsked);
+    }
 
-        this.attributeStringMap = attributeStringMap;
-        this.numericalAttributeNumberMap = numericalAttributeNumberMap;
+    /**
+     * Constructor for re-creating a Question object from values which have already been validated
+     * and formatted, such as those read back from a snapshot written by this program (see
+     * {@link QuestionSnapshot}). The values are not checked or reformatted again, and the
+     * percentage and likelihood are calculated from the provided values.
+     *
+     * @param attributes
+     *         the values of each {@link QuestionAttribute}, in the order given by
+     *         {@link QuestionAttribute#values()}.
+     */
+    Question(int index, String[] attributes, int attempted, int correct,
+            double expectedTimesAsked) {
+        this.title = attributes[QuestionAttribute.TITLE.ordinal()];
+        this.topic = attributes[QuestionAttribute.TOPIC.ordinal()];
+        this.paperUnit = attributes[QuestionAttribute.PAPER_OR_UNIT.ordinal()];
+        this.subject = attributes[QuestionAttribute.SUBJECT.ordinal()];
+        this.qualLevel = attributes[QuestionAttribute.QUALIFICATION_LEVEL.ordinal()];
+        this.examBoard = attributes[QuestionAttribute.EXAM_BOARD.ordinal()];
+        this.attributesHash = hashAttributes();
+
+        this.index = index;
+        setProgress(attempted, correct, expectedTimesAsked);
     }
 
     public String getQuestionAttribute(QuestionAttribute attribute) {
-        return attributeStringMap.get(attribute);
+        switch (attribute) {
+            case TITLE:
+                return title;
+            case TOPIC:
+                return topic;
+            case PAPER_OR_UNIT:
+                return paperUnit;
+            case SUBJECT:
+                return subject;
+            case QUALIFICATION_LEVEL:
+                return qualLevel;
+            case EXAM_BOARD:
+                return examBoard;
+            default:
+                return null;
+        }
     }
 
     public String getTitle() {
-        return getQuestionAttribute(QuestionAttribute.TITLE);
+        return title;
     }
 
     public String getTopic() {
-        return getQuestionAttribute(QuestionAttribute.TOPIC);
+        return topic;
     }
 
     public String getPaperUnit() {
-        return getQuestionAttribute(QuestionAttribute.PAPER_OR_UNIT);
+        return paperUnit;
     }
 
     public String getSubject() {
-        return getQuestionAttribute(QuestionAttribute.SUBJECT);
+        return subject;
     }
 
     public String getQualLevel() {
-        return getQuestionAttribute(QuestionAttribute.QUALIFICATION_LEVEL);
+        return qualLevel;
     }
 
     public String getExamBoard() {
-        return getQuestionAttribute(QuestionAttribute.EXAM_BOARD);
+        return examBoard;
     }
 
+    /**
+     * Returns the value of the provided {@link QuestionNumericalAttribute} for this Question, as an
+     * {@link Integer} for {@code INDEX}, {@code ATTEMPTED} and {@code CORRECT}, or as a
+     * {@link Double} otherwise. The value is boxed on each call, so
+     * {@link #getNumericalAttributeValue(QuestionNumericalAttribute)} should be preferred where a
+     * primitive is all that is needed.
+     */
     public Number getQuestionNumericalAttribute(QuestionNumericalAttribute attribute) {
-        return numericalAttributeNumberMap.get(attribute);
+        switch (attribute) {
+            case INDEX:
+                return index;
+            case ATTEMPTED:
+                return attempted;
+            case CORRECT:
+                return correct;
+            default:
+                return getNumericalAttributeValue(attribute);
+        }
+    }
+
+    /**
+     * Returns the value of the provided {@link QuestionNumericalAttribute} for this Question as a
+     * primitive double, without boxing it.
+     */
+    public double getNumericalAttributeValue(QuestionNumericalAttribute attribute) {
+        switch (attribute) {
+            case INDEX:
+                return index;
+            case ATTEMPTED:
+                return attempted;
+            case CORRECT:
+                return correct;
+            case PERCENTAGE:
+                return percentage;
+            case EXPECTED_TIMES_ASKED:
+                return getExpectedTimesAsked();
+            case LIKELIHOOD:
+                return getLikelihood();
+            default:
+                return 0;
+        }
     }
 
     public int getIndex() {
-        return (int) getQuestionNumericalAttribute(QuestionNumericalAttribute.INDEX);
+        return index;
     }
 
     public int getCorrect() {
-        return (int) getQuestionNumericalAttribute(QuestionNumericalAttribute.CORRECT);
+        return correct;
     }
 
     public int getAttempted() {
-        return (int) getQuestionNumericalAttribute(QuestionNumericalAttribute.ATTEMPTED);
+        return attempted;
     }
 
     public double getPercentage() {
-        return (double) getQuestionNumericalAttribute(QuestionNumericalAttribute.PERCENTAGE);
+        return percentage;
     }
 
     public double getExpectedTimesAsked() {
-        return (double) getQuestionNumericalAttribute(
-                QuestionNumericalAttribute.EXPECTED_TIMES_ASKED);
+        addPoolAnswers();
+        return expectedTimesAsked;
     }
 
     public double getLikelihood() {
-        return (double) getQuestionNumericalAttribute(QuestionNumericalAttribute.LIKELIHOOD);
+        addPoolAnswers();
+        return likelihood;
+    }
+
+    /**
+     * Returns the percentage of the provided number of {@code attempted} answers which were
+     * {@code correct}, or 0 if none were attempted.
+     */
+    public static double calculatePercentage(int attempted, int correct) {
+        if (attempted == 0) {
+            return 0.0;
+        }
+        return 100 * ((double) correct / attempted);
     }
 
     public static double calculateLikelihood(int attempted, double percentage,
@@ -180,42 +308,173 @@ public class Question {
     }
 
     public void answeredCorrect(int questionsInPool) {
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.CORRECT, this.getCorrect() + 1);
+        addPoolAnswers();
+        correct++;
         this.answeredIncorrect(questionsInPool);
     }
 
     public void answeredIncorrect(int questionsInPool) {
-        int attempted = this.getAttempted();
-        int correct = this.getCorrect();
-
+        addPoolAnswers();
         attempted++;
-        double percentage = 100 * ((double) correct / attempted);
-
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.ATTEMPTED, attempted);
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.PERCENTAGE, percentage);
+        percentage = 100 * ((double) correct / attempted);
 
         this.notAsked(questionsInPool);
     }
 
     public void notAsked(int questionsInPool) {
-        int attempted = this.getAttempted();
-        double expectedTimesAsked = this.getExpectedTimesAsked();
-        double percentage = this.getPercentage();
-
+        addPoolAnswers();
         expectedTimesAsked += (double) 1 / questionsInPool;
-        double likelihood = calculateLikelihood(attempted, percentage, expectedTimesAsked);
+        likelihood = calculateLikelihood(attempted, percentage, expectedTimesAsked);
+    }
 
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.EXPECTED_TIMES_ASKED,
-                expectedTimesAsked);
-        numericalAttributeNumberMap.put(QuestionNumericalAttribute.LIKELIHOOD, likelihood);
+    /**
+     * Sets the attempted, correct and expected times asked values of this Question to the provided
+     * values, recalculating its percentage and likelihood. Used to restore progress recorded by a
+     * {@link ProgressJournal}.
+     */
+    void restoreProgress(int attempted, int correct, double expectedTimesAsked) {
+        if (pool != null) {
+            poolAnswers = pool.getAnswers();
+        }
+        setProgress(attempted, correct, expectedTimesAsked);
+    }
+
+    /**
+     * Adds this Question to the provided {@code pool}, first bringing its expected times asked up
+     * to date with any previous pool (which is detached, as it no longer contains every one of
+     * its Questions). If this Question is already in the provided pool, it is counted as
+     * appearing in it once more.
+     */
+    void joinPool(QuestionPool pool) {
+        addPoolAnswers();
+
+        if (this.pool == pool) {
+            poolOccurrences++;
+        } else {
+            if (this.pool != null) {
+                this.pool.detach();
+            }
+            this.pool = pool;
+            poolAnswers = pool.getAnswers();
+            poolOccurrences = 1;
+        }
+    }
+
+    /**
+     * Records an answer to this Question, which has already been counted by its pool (see
+     * {@link QuestionPool#answered()}). This gives exactly the same values as
+     * {@link #answeredCorrect(int)} or {@link #answeredIncorrect(int)} followed by
+     * {@link #notAsked(int)} for each other occurrence of this Question in the pool.
+     */
+    void answeredInPool(boolean isCorrect) {
+        addPoolAnswers();
+
+        if (isCorrect) {
+            correct++;
+        }
+        attempted++;
+        percentage = 100 * ((double) correct / attempted);
+        likelihood = calculateLikelihood(attempted, percentage, expectedTimesAsked);
+    }
+
+    /**
+     * Adds {@code 1 / (size of pool)} to the expected times asked of this Question for each
+     * answer given to its pool since this was last done (once for each time it appears in the
+     * pool), and recalculates its likelihood. The result is exactly the same as adding the values
+     * one at a time, as {@link #notAsked(int)} does (see {@link #addRepeatedly}).
+     */
+    private void addPoolAnswers() {
+        if (pool == null || poolAnswers == pool.getAnswers()) {
+            return;
+        }
+
+        long additions = (pool.getAnswers() - poolAnswers) * poolOccurrences;
+        expectedTimesAsked = addRepeatedly(expectedTimesAsked, (double) 1 / pool.getSize(),
+                additions);
+
+        poolAnswers = pool.getAnswers();
+        likelihood = calculateLikelihood(attempted, percentage, expectedTimesAsked);
+    }
+
+    /**
+     * Returns the result of adding the provided {@code increment} to the provided {@code value}
+     * the provided number of {@code times}, one addition at a time, without making every
+     * addition.
+     *
+     * <p>While a sum stays within the same power of two, every value it can take is a multiple of
+     * the same ulp, so adding the same (non-negative) increment always rounds it to the same
+     * multiple of that ulp - unless the increment is exactly halfway between two multiples, in
+     * which case the rounding depends on the sum itself. Outside that case, each run of additions
+     * within one power of two can be made with a single multiplication, which is exact, and only
+     * the additions that cross into the next power of two (or that round halfway) are made one at
+     * a time.
+     *
+     * <p>Also used by {@link ColumnarQuestionList}, so that its values are exactly the same.
+     */
+    static double addRepeatedly(double value, double increment, long times) {
+        while (times > 0) {
+            double next = value + increment;
+            times--;
+
+            if (value < Double.MIN_NORMAL || times == 0) {
+                value = next;
+                continue;
+            }
+
+            double powerOfTwoEnd = Math.scalb(1.0, Math.getExponent(value) + 1);
+            double ulp = Math.ulp(value);
+            if (next >= powerOfTwoEnd || 2 * (increment % ulp) == ulp) {
+                value = next;
+                continue;
+            }
+
+            double step = next - value;
+            if (step == 0) {
+                return value;
+            }
+
+            // The number of further steps which keep the sum below the next power of two
+            long steps = Math.min(times, (long) ((powerOfTwoEnd - next) / step));
+            while (steps > 0 && next + steps * step >= powerOfTwoEnd) {
+                steps--;
+            }
+
+            value = next + steps * step;
+            times -= steps;
+        }
+
+        return value;
+    }
+
+    /**
+     * Sets the attempted, correct and expected times asked values of this Question to the provided
+     * values, and calculates its percentage and likelihood from them.
+     */
+    private void setProgress(int attempted, int correct, double expectedTimesAsked) {
+        this.attempted = attempted;
+        this.correct = correct;
+        this.expectedTimesAsked = expectedTimesAsked;
+        this.percentage = calculatePercentage(attempted, correct);
+        likelihood = calculateLikelihood(attempted, percentage, expectedTimesAsked);
+    }
+
+    private int hashAttributes() {
+        return Objects.hash(title, topic, paperUnit, subject, qualLevel, examBoard);
     }
 
     //TODO should be implemented in questionComparator instead
     @Override
     public boolean equals(Object obj) {
-        if (obj instanceof Question) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof Question) {
             Question otherQ = (Question) obj;
 
+            // Questions with different hash codes cannot have the same attributes
+            if (this.attributesHash != otherQ.attributesHash) {
+                return false;
+            }
+
             for (QuestionAttribute attribute : QuestionAttribute.values()) {
                 String thisValue = this.getQuestionAttribute(attribute);
                 String otherValue = otherQ.getQuestionAttribute(attribute);
@@ -231,6 +490,16 @@ public class Question {
         }
     }
 
+    /**
+     * Returns a hash code for this Question which is consistent with {@link #equals(Object)}: it
+     * depends only on the value of each {@link QuestionAttribute}, so Questions can be held in
+     * hashed collections such as {@link java.util.HashSet}.
+     */
+    @Override
+    public int hashCode() {
+        return attributesHash;
+    }
+
     public String toString() {
         String stringToReturn = this.getExamBoard() + " " + this.getQualLevel() + " " +
                 this.getSubject() + " (" + this.getTopic() +
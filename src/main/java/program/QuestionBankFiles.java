@@ -0,0 +1,174 @@
+package program;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * The .csv files from which the {@link Question}s in a {@link QuestionList} were loaded, when they
+ * were loaded from a directory of files rather than a single file (see
+ * {@link FileQuestionsInterface#createQuestionList(String, LoadMode)}).
+ *
+ * <p>The {@code Question}s of each file are loaded one after another, in the order of the files'
+ * names, so the {@code Question}s of each file occupy one range of positions in the
+ * {@link AttributeIndex} of the {@code QuestionList}, from which the file each {@code Question}
+ * came from is found (see {@link #getFileLocation(int)}).
+ *
+ * <p>The progress each file held when it was loaded, or last written, is kept, so that when the
+ * {@code QuestionList} is saved, only the files in which a {@code Question}'s progress has changed
+ * are written (see {@link #write(QuestionProgress)}). A save therefore takes time proportional to
+ * the size of the files whose {@code Question}s were answered, rather than to the whole bank.
+ *
+ * <p>Files may be written on a background thread (see {@link Autosave}), so
+ * {@link #write(QuestionProgress)} is synchronized.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionBankFiles {
+
+    /**
+     * The location of each file, in the order in which their {@link Question}s were loaded.
+     */
+    private final String[] FILE_LOCATIONS;
+
+    /**
+     * The position of the first {@link Question} of each file, followed by the total number of
+     * {@code Question}s, so that the {@code Question}s of the file at {@code i} occupy the
+     * positions from {@code FIRST_POSITIONS[i]} (inclusive) to {@code FIRST_POSITIONS[i + 1]}
+     * (exclusive).
+     */
+    private final int[] FIRST_POSITIONS;
+
+    /**
+     * The progress of the {@link Question}s of each file, as last loaded from or written to it.
+     */
+    private final QuestionProgress[] SAVED_PROGRESS;
+
+    /**
+     * Creates a new {@code QuestionBankFiles} of the files at the provided
+     * {@code fileLocations}, whose {@link Question}s are the provided {@code fileQuestions} (in the
+     * same order), as loaded from the files.
+     *
+     * @param fileLocations
+     *         the location of each file, in the order in which their {@code Question}s are loaded.
+     * @param fileQuestions
+     *         the {@code Question}s loaded from each file, before any progress is restored from a
+     *         {@link ProgressJournal}.
+     */
+    QuestionBankFiles(ArrayList<String> fileLocations,
+            ArrayList<ArrayList<Question>> fileQuestions) {
+        int numFiles = fileLocations.size();
+        this.FILE_LOCATIONS = fileLocations.toArray(new String[0]);
+        this.FIRST_POSITIONS = new int[numFiles + 1];
+        this.SAVED_PROGRESS = new QuestionProgress[numFiles];
+
+        for (int i = 0; i < numFiles; i++) {
+            FIRST_POSITIONS[i + 1] = FIRST_POSITIONS[i] + fileQuestions.get(i).size();
+            SAVED_PROGRESS[i] = QuestionProgress.of(fileQuestions.get(i));
+        }
+    }
+
+    /**
+     * Returns the locations of the files in the directory at the provided
+     * {@code directoryLocation} whose names match {@link Settings#getBankFilePattern()}, sorted by
+     * name. Files in subdirectories are not included.
+     *
+     * @param directoryLocation
+     *         the location of the directory containing the .csv files.
+     *
+     * @return the locations of the matching files, sorted by name.
+     *
+     * @throws FileNotFoundException
+     *         if the directory could not be read, or contains no matching files.
+     */
+    static ArrayList<String> findFiles(String directoryLocation) throws FileNotFoundException {
+        ArrayList<String> fileLocations = new ArrayList<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Path.of(directoryLocation),
+                Settings.getBankFilePattern())) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) {
+                    fileLocations.add(file.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new FileNotFoundException("Directory could not be read! Details:\n" +
+                    e.getMessage());
+        }
+
+        if (fileLocations.isEmpty()) {
+            throw new FileNotFoundException("No files matching \"" +
+                    Settings.getBankFilePattern() + "\" found in directory!");
+        }
+
+        Collections.sort(fileLocations);
+        return fileLocations;
+    }
+
+    int getNumFiles() {
+        return FILE_LOCATIONS.length;
+    }
+
+    /**
+     * Returns the location of the file from which the {@link Question} at the provided
+     * {@code position} in the {@link AttributeIndex} was loaded.
+     *
+     * @param position
+     *         the position of the {@code Question}, in the order in which it was loaded.
+     *
+     * @return the location of the file containing the {@code Question}.
+     */
+    String getFileLocation(int position) {
+        if (position < 0 || position >= FIRST_POSITIONS[FILE_LOCATIONS.length]) {
+            throw new IndexOutOfBoundsException("Position " + position + " is out of bounds!");
+        }
+
+        int i = Arrays.binarySearch(FIRST_POSITIONS, position);
+        if (i < 0) {
+            i = -i - 2;
+        } else {
+            // Skips any empty files starting at the same position
+            while (FIRST_POSITIONS[i + 1] == position) {
+                i++;
+            }
+        }
+        return FILE_LOCATIONS[i];
+    }
+
+    /**
+     * Writes the {@link Question}s in the provided {@code progress} to the files from which they
+     * were loaded, as by {@link FileQuestionsInterface#writeProgress(String, QuestionProgress)}.
+     * A file is only written if the progress of any of its {@code Question}s differs from the
+     * progress it was loaded with, or last written with. The progress is a copy, so this can be
+     * called on any thread.
+     *
+     * @param progress
+     *         the progress of every {@code Question} loaded from the files, in the order in which
+     *         they were loaded.
+     *
+     * @throws IOException
+     *         if any of the files, or their snapshots, could not be written for any reason. Files
+     *         written before the failure keep their new progress.
+     */
+    synchronized void write(QuestionProgress progress) throws IOException {
+        if (progress.getNumQuestions() != FIRST_POSITIONS[FILE_LOCATIONS.length]) {
+            throw new IllegalArgumentException("Progress of " + progress.getNumQuestions() +
+                    " questions does not match the " + FIRST_POSITIONS[FILE_LOCATIONS.length] +
+                    " questions loaded!");
+        }
+
+        for (int i = 0; i < FILE_LOCATIONS.length; i++) {
+            if (!progress.hasSameProgress(FIRST_POSITIONS[i], SAVED_PROGRESS[i])) {
+                QuestionProgress fileProgress = progress.range(FIRST_POSITIONS[i],
+                        FIRST_POSITIONS[i + 1]);
+                FileQuestionsInterface.writeProgress(FILE_LOCATIONS[i], fileProgress);
+                SAVED_PROGRESS[i] = fileProgress;
+            }
+        }
+    }
+}
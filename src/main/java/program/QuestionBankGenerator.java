@@ -0,0 +1,468 @@
+package program;
+
+import program.attributes.fields.QuestionAttribute;
+import program.attributes.values.ExamBoard;
+import program.exceptions.InvalidQuestionAttributeException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates synthetic banks of {@link Question}s of any size, for testing how the program behaves
+ * with far more {@code Question}s than a real bank holds. Every bank is a valid .csv file (see
+ * {@link FileQuestionsInterface#COLUMN_HEADERS}), so it loads without any invalid values, and the
+ * same options and seed always generate exactly the same file.
+ *
+ * <p>Each subject is given a qualification level and exam board, as a student takes each subject
+ * at one level with one board, and a number of topics, which are chosen with a Zipf distribution
+ * so that a few topics hold most of its {@code Question}s. Subjects are chosen in proportion to
+ * their weights. A fraction of the titles contain commas (so are written as quoted fields), some
+ * of which also contain quotes.
+ *
+ * <p>The progress of each {@code Question} follows from the difficulty of its topic: a
+ * {@code Question} has either never been attempted, or has been attempted a geometrically
+ * distributed number of times, answering each attempt correctly with a probability close to that
+ * of the rest of its topic. Its expected times asked is near the number of times it was attempted.
+ * The percentage and likelihood are calculated from these as by the {@code Question} itself.
+ *
+ * <p>Lines are generated one at a time and written through a {@link QuestionFileWriter}, so a
+ * bank of several gigabytes takes no more memory than a bank of a single {@code Question}.
+ *
+ * <p>Run as a program, with the location of the file to write and any of the options described
+ * by {@link #USAGE}, or with {@code gradle generateBank -PgeneratorArgs="..."}.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+public class QuestionBankGenerator {
+
+    /**
+     * How the generator is run, displayed if its arguments are invalid.
+     */
+    private final static String USAGE =
+            "Usage: QuestionBankGenerator <file> [options]\n" +
+                    "  --questions=N       number of questions to generate (default 100000)\n" +
+                    "  --seed=N            seed from which the questions are generated " +
+                    "(default 1)\n" +
+                    "  --subjects=S:W,...  subjects to include, each with its relative weight " +
+                    "(default Biology,\n" +
+                    "                      Chemistry, Physics, Mathematics, Psychology and " +
+                    "Computer Science,\n" +
+                    "                      equally weighted)\n" +
+                    "  --topics=N          number of topics in each subject (default 20)\n" +
+                    "  --topic-skew=X      exponent of the Zipf distribution of topics, where 0 " +
+                    "makes every\n" +
+                    "                      topic equally likely (default 1)\n" +
+                    "  --comma-titles=X    fraction of titles containing commas " +
+                    "(default 0.33)\n" +
+                    "  --new=X             fraction of questions never attempted " +
+                    "(default 0.25)\n" +
+                    "  --mean-attempts=X   mean number of times each attempted question was " +
+                    "attempted (default 6)";
+
+    private final static String[] DEFAULT_SUBJECTS = {"Biology", "Chemistry", "Physics",
+            "Mathematics", "Psychology", "Computer Science"};
+
+    /**
+     * The qualification levels given to subjects, at each of which every paper in
+     * {@link #PAPERS} is sat.
+     */
+    private final static String[] QUALIFICATION_LEVELS = {"A Level", "GCSE"};
+
+    private final static String[] PAPERS = {"Paper 1", "Paper 2", "Paper 3"};
+
+    private final static String[] VERBS = {"Describe", "Explain", "Define", "Compare",
+            "Evaluate", "Calculate", "Outline", "Suggest"};
+
+    /**
+     * The greatest number of times a {@link Question} is attempted.
+     */
+    private final static int MAX_ATTEMPTED = 200;
+
+    /**
+     * The range of the probabilities of answering a {@link Question} in each topic correctly.
+     */
+    private final static double MIN_TOPIC_SKILL = 0.35;
+    private final static double MAX_TOPIC_SKILL = 0.9;
+
+    /**
+     * The standard deviation of the probability of answering a {@link Question} correctly, about
+     * that of its topic.
+     */
+    private final static double QUESTION_SKILL_DEVIATION = 0.1;
+
+    private final long SEED;
+    private final int NUM_QUESTIONS;
+    private final String[] SUBJECTS;
+
+    /**
+     * The cumulative weight of each subject, divided by the total weight.
+     */
+    private final double[] SUBJECT_CUMULATIVE_WEIGHTS;
+
+    private final int TOPICS_PER_SUBJECT;
+
+    /**
+     * The cumulative probability of each topic of a subject being chosen.
+     */
+    private final double[] TOPIC_CUMULATIVE_WEIGHTS;
+
+    private final double COMMA_TITLE_FRACTION;
+    private final double NEW_FRACTION;
+    private final double MEAN_ATTEMPTS;
+
+    /**
+     * For each number of times attempted, the percentage for each number of correct answers,
+     * rounded to two decimal places as it is written to a file, or {@code null} if not needed yet.
+     */
+    private final double[][] ROUNDED_PERCENTAGES;
+
+    /**
+     * Creates a new {@code QuestionBankGenerator} generating the provided number of
+     * {@link Question}s from the provided {@code seed}, with the default value of every other
+     * option (see {@link #USAGE}).
+     *
+     * @param numQuestions
+     *         the number of {@code Question}s to generate.
+     * @param seed
+     *         the seed from which the {@code Question}s are generated.
+     */
+    QuestionBankGenerator(int numQuestions, long seed) {
+        this(numQuestions, seed, DEFAULT_SUBJECTS, null, 20, 1, 0.33, 0.25, 6);
+    }
+
+    /**
+     * Creates a new {@code QuestionBankGenerator}.
+     *
+     * @param numQuestions
+     *         the number of {@link Question}s to generate.
+     * @param seed
+     *         the seed from which the {@code Question}s are generated.
+     * @param subjects
+     *         the subjects of the {@code Question}s, each of which must be a valid value of the
+     *         {@code SUBJECT} {@link QuestionAttribute}.
+     * @param subjectWeights
+     *         the relative weight of each of the {@code subjects}, or {@code null} if they are
+     *         equally weighted.
+     * @param topicsPerSubject
+     *         the number of topics in each subject.
+     * @param topicSkew
+     *         the exponent of the Zipf distribution from which topics are chosen.
+     * @param commaTitleFraction
+     *         the fraction of titles containing commas.
+     * @param newFraction
+     *         the fraction of {@code Question}s which have never been attempted.
+     * @param meanAttempts
+     *         the mean number of times each attempted {@code Question} was attempted.
+     *
+     * @throws IllegalArgumentException
+     *         if any of the provided parameters are invalid.
+     */
+    QuestionBankGenerator(int numQuestions, long seed, String[] subjects, double[] subjectWeights,
+            int topicsPerSubject, double topicSkew, double commaTitleFraction, double newFraction,
+            double meanAttempts) throws IllegalArgumentException {
+        if (numQuestions < 0) {
+            throw new IllegalArgumentException("Number of questions is less than 0!");
+        } else if (subjects.length == 0) {
+            throw new IllegalArgumentException("No subjects provided!");
+        } else if (topicsPerSubject < 1) {
+            throw new IllegalArgumentException("Number of topics is less than 1!");
+        } else if (!(topicSkew >= 0)) {
+            throw new IllegalArgumentException("Topic skew is less than 0!");
+        } else if (!(commaTitleFraction >= 0 && commaTitleFraction <= 1) ||
+                !(newFraction >= 0 && newFraction <= 1)) {
+            throw new IllegalArgumentException("Fractions must be between 0 and 1!");
+        } else if (!(meanAttempts >= 1)) {
+            throw new IllegalArgumentException("Mean number of attempts is less than 1!");
+        }
+
+        this.SEED = seed;
+        this.NUM_QUESTIONS = numQuestions;
+        this.SUBJECTS = new String[subjects.length];
+        for (int i = 0; i < subjects.length; i++) {
+            try {
+                SUBJECTS[i] = QuestionAttribute.formatAttributeName(subjects[i],
+                        QuestionAttribute.SUBJECT);
+            } catch (InvalidQuestionAttributeException e) {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+        }
+
+        if (subjectWeights == null) {
+            subjectWeights = new double[subjects.length];
+            Arrays.fill(subjectWeights, 1);
+        } else if (subjectWeights.length != subjects.length) {
+            throw new IllegalArgumentException("Expected " + subjects.length +
+                    " subject weights, got " + subjectWeights.length + "!");
+        }
+        for (double weight : subjectWeights) {
+            if (!(weight > 0 && weight < Double.POSITIVE_INFINITY)) {
+                throw new IllegalArgumentException("Subject weight " + weight +
+                        " is not greater than 0!");
+            }
+        }
+        this.SUBJECT_CUMULATIVE_WEIGHTS = cumulativeWeights(subjectWeights);
+
+        this.TOPICS_PER_SUBJECT = topicsPerSubject;
+        double[] topicWeights = new double[topicsPerSubject];
+        for (int topic = 0; topic < topicsPerSubject; topic++) {
+            topicWeights[topic] = 1 / Math.pow(topic + 1, topicSkew);
+        }
+        this.TOPIC_CUMULATIVE_WEIGHTS = cumulativeWeights(topicWeights);
+
+        this.COMMA_TITLE_FRACTION = commaTitleFraction;
+        this.NEW_FRACTION = newFraction;
+        this.MEAN_ATTEMPTS = meanAttempts;
+        this.ROUNDED_PERCENTAGES = new double[MAX_ATTEMPTED + 1][];
+    }
+
+    /**
+     * Generates a bank of {@link Question}s with the options provided as command-line arguments
+     * (see {@link #USAGE}).
+     *
+     * @param args
+     *         command-line arguments.
+     */
+    public static void main(String[] args) {
+        String fileLocation = null;
+        int numQuestions = 100000;
+        long seed = 1;
+        String[] subjects = DEFAULT_SUBJECTS;
+        double[] subjectWeights = null;
+        int topicsPerSubject = 20;
+        double topicSkew = 1;
+        double commaTitleFraction = 0.33;
+        double newFraction = 0.25;
+        double meanAttempts = 6;
+
+        QuestionBankGenerator generator;
+        try {
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    if (fileLocation != null) {
+                        throw new IllegalArgumentException("More than one file provided!");
+                    }
+                    fileLocation = arg;
+                    continue;
+                }
+
+                int equals = arg.indexOf('=');
+                if (equals == -1) {
+                    throw new IllegalArgumentException("No value provided for \"" + arg + "\"!");
+                }
+                String value = arg.substring(equals + 1);
+
+                switch (arg.substring(0, equals)) {
+                    case "--questions":
+                        numQuestions = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--subjects":
+                        String[] entries = value.split(",");
+                        subjects = new String[entries.length];
+                        subjectWeights = new double[entries.length];
+                        for (int i = 0; i < entries.length; i++) {
+                            int colon = entries[i].lastIndexOf(':');
+                            subjects[i] = (colon == -1 ? entries[i] :
+                                    entries[i].substring(0, colon)).strip();
+                            subjectWeights[i] = colon == -1 ? 1 :
+                                    Double.parseDouble(entries[i].substring(colon + 1));
+                        }
+                        break;
+                    case "--topics":
+                        topicsPerSubject = Integer.parseInt(value);
+                        break;
+                    case "--topic-skew":
+                        topicSkew = Double.parseDouble(value);
+                        break;
+                    case "--comma-titles":
+                        commaTitleFraction = Double.parseDouble(value);
+                        break;
+                    case "--new":
+                        newFraction = Double.parseDouble(value);
+                        break;
+                    case "--mean-attempts":
+                        meanAttempts = Double.parseDouble(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option \"" + arg + "\"!");
+                }
+            }
+
+            if (fileLocation == null) {
+                throw new IllegalArgumentException("No file provided!");
+            }
+
+            generator = new QuestionBankGenerator(numQuestions, seed, subjects, subjectWeights,
+                    topicsPerSubject, topicSkew, commaTitleFraction, newFraction, meanAttempts);
+        } catch (IllegalArgumentException e) {
+            // Includes the NumberFormatExceptions of any invalid numbers
+            System.err.println(e.getMessage() + "\n" + USAGE);
+            System.exit(1);
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            generator.write(fileLocation);
+        } catch (IOException e) {
+            System.err.println("File \"" + fileLocation + "\" could not be written! Details:\n" +
+                    e.getMessage());
+            System.exit(1);
+        }
+
+        System.out.println("Generated " + numQuestions + " questions in \"" + fileLocation +
+                "\" in " + (System.nanoTime() - startTime) / 1000000 + " ms.");
+    }
+
+    /**
+     * Writes the generated bank of {@link Question}s to the file at the provided
+     * {@code fileLocation}, replacing any existing file once every {@code Question} has been
+     * written.
+     *
+     * @param fileLocation
+     *         the location of the .csv file to write.
+     *
+     * @throws IOException
+     *         if the file could not be written for any reason.
+     */
+    void write(String fileLocation) throws IOException {
+        Random random = new Random(SEED);
+
+        // Fix the level, board, topic names and topic skills of each subject before any
+        // Question is generated, so they depend only on the options
+        String[] examBoards = ExamBoard.getStringValues();
+        String[] qualLevels = new String[SUBJECTS.length];
+        String[] boards = new String[SUBJECTS.length];
+        String[][] topics = new String[SUBJECTS.length][TOPICS_PER_SUBJECT];
+        double[][] topicSkills = new double[SUBJECTS.length][TOPICS_PER_SUBJECT];
+        for (int subject = 0; subject < SUBJECTS.length; subject++) {
+            qualLevels[subject] = pick(random, QUALIFICATION_LEVELS);
+            boards[subject] = pick(random, examBoards);
+            for (int topic = 0; topic < TOPICS_PER_SUBJECT; topic++) {
+                topics[subject][topic] = SUBJECTS[subject] + " topic " + (topic + 1);
+                topicSkills[subject][topic] = MIN_TOPIC_SKILL +
+                        (MAX_TOPIC_SKILL - MIN_TOPIC_SKILL) * random.nextDouble();
+            }
+        }
+
+        QuestionFileWriter.write(fileLocation, writer -> {
+            for (int index = 1; index <= NUM_QUESTIONS; index++) {
+                int subject = choose(random, SUBJECT_CUMULATIVE_WEIGHTS);
+                int topic = choose(random, TOPIC_CUMULATIVE_WEIGHTS);
+                String title = getTitle(random, index, topics[subject][topic]);
+
+                int attempted = 0;
+                int correct = 0;
+                int expectedHundredths;
+                if (random.nextDouble() < NEW_FRACTION) {
+                    // Not attempted yet, but may have been in a pool which was answered
+                    expectedHundredths = random.nextInt(151);
+                } else {
+                    attempted = getAttempted(random);
+                    double skill = Math.min(Math.max(topicSkills[subject][topic] +
+                            QUESTION_SKILL_DEVIATION * random.nextGaussian(), 0.05), 0.98);
+                    for (int attempt = 0; attempt < attempted; attempt++) {
+                        if (random.nextDouble() < skill) {
+                            correct++;
+                        }
+                    }
+                    expectedHundredths = (int) Math.round(
+                            attempted * (70 + 60 * random.nextDouble()));
+                }
+
+                // Calculate the likelihood from the values as they are written to the file, as
+                // it is when the file is read
+                double percentage = getRoundedPercentage(attempted, correct);
+                double expectedTimesAsked = expectedHundredths / 100.0;
+                double likelihood = Question.calculateLikelihood(attempted, percentage,
+                        expectedTimesAsked);
+
+                writer.putLine(index, title, topics[subject][topic], pick(random, PAPERS),
+                        SUBJECTS[subject], qualLevels[subject], boards[subject], attempted,
+                        correct, percentage, expectedTimesAsked, likelihood);
+            }
+        });
+    }
+
+    /**
+     * Returns the title of the {@link Question} with the provided {@code index}, containing a
+     * comma in {@link #COMMA_TITLE_FRACTION} of cases.
+     */
+    private String getTitle(Random random, int index, String topic) {
+        String verb = pick(random, VERBS);
+        if (random.nextDouble() >= COMMA_TITLE_FRACTION) {
+            return verb + " " + topic + " question " + index;
+        } else if (random.nextBoolean()) {
+            return verb + " " + topic + " question " + index + ", giving " +
+                    (random.nextInt(4) + 2) + " examples";
+        } else {
+            return verb + " the term \"\"" + topic + " " + index + "\"\", with an example";
+        }
+    }
+
+    /**
+     * Returns a number of attempts from a geometric distribution with a mean of
+     * {@link #MEAN_ATTEMPTS}, of at least 1 and at most {@link #MAX_ATTEMPTED}.
+     */
+    private int getAttempted(Random random) {
+        if (MEAN_ATTEMPTS == 1) {
+            return 1;
+        }
+
+        double attempts = 1 + Math.floor(Math.log(1 - random.nextDouble()) /
+                Math.log(1 - 1 / MEAN_ATTEMPTS));
+        return (int) Math.min(attempts, MAX_ATTEMPTED);
+    }
+
+    /**
+     * Returns the percentage of the provided number of {@code attempted} answers which were
+     * {@code correct}, rounded to two decimal places as when it is written to a file.
+     */
+    private double getRoundedPercentage(int attempted, int correct) {
+        if (ROUNDED_PERCENTAGES[attempted] == null) {
+            double[] percentages = new double[attempted + 1];
+            for (int i = 0; i <= attempted; i++) {
+                percentages[i] = Double.parseDouble(String.format(Locale.ROOT, "%.2f",
+                        Question.calculatePercentage(attempted, i)));
+            }
+            ROUNDED_PERCENTAGES[attempted] = percentages;
+        }
+
+        return ROUNDED_PERCENTAGES[attempted][correct];
+    }
+
+    /**
+     * Returns the provided {@code weights} summed cumulatively, and divided by their total.
+     */
+    private static double[] cumulativeWeights(double[] weights) {
+        double[] cumulativeWeights = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            cumulativeWeights[i] /= total;
+        }
+        return cumulativeWeights;
+    }
+
+    /**
+     * Returns a position chosen at random with the probabilities given by the provided
+     * {@code cumulativeWeights} (see {@link #cumulativeWeights(double[])}).
+     */
+    private static int choose(Random random, double[] cumulativeWeights) {
+        int position = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        // Not found, so the insertion point is returned, which is the chosen position
+        return Math.min(position < 0 ? -position - 1 : position + 1,
+                cumulativeWeights.length - 1);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
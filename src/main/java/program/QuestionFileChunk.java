@@ -0,0 +1,172 @@
+package program;
+
+import program.helpers.CSVLineTokenizer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+
+/**
+ * A range of complete lines in a memory-mapped file containing {@link Question} data, which can be
+ * parsed independently of (and in parallel with) every other range of the same file - see
+ * {@link FileQuestionsInterface#getQuestionsFromFile(String, LoadMode)}.
+ *
+ * <p>As the number of lines before the range is not known until the ranges before it have been
+ * parsed, line numbers are counted from the start of the range. If a line is invalid, parsing stops
+ * and the line, its number within the range and the reason it is invalid are recorded, so that the
+ * caller can report it with its number within the whole file. When the file is loaded leniently,
+ * invalid lines are instead recorded in the chunk's own {@link LoadReport} and parsing continues.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionFileChunk implements Callable<QuestionFileChunk> {
+
+    /**
+     * The buffer containing the range of lines. This is a duplicate of the mapped buffer, so that
+     * each chunk can be read from a different thread.
+     */
+    private final ByteBuffer BUFFER;
+
+    /**
+     * The offset in the {@code BUFFER} of the first byte of the first line in the range.
+     */
+    private final int START;
+
+    /**
+     * The offset in the {@code BUFFER} one past the last byte of the range.
+     */
+    private final int END;
+
+    /**
+     * The {@link AttributeDictionary} of the whole file, shared with every other range of it.
+     */
+    private final AttributeDictionary DICTIONARY;
+
+    /**
+     * The {@link Question}s created from the lines in the range, in the order they appear.
+     */
+    private final ArrayList<Question> questions;
+
+    /**
+     * The problems found in the lines of the range, with line numbers counted from the start of
+     * the range, or {@code null} if the first invalid line stops parsing.
+     */
+    private final LoadReport REPORT;
+
+    /**
+     * The number of lines parsed from the range (including any invalid line).
+     */
+    private int lineCount;
+
+    /**
+     * The invalid line (if any) at which parsing stopped, or {@code null} if every line was valid.
+     */
+    private String invalidLine;
+
+    /**
+     * The reason the {@code invalidLine} is invalid, or {@code null} if every line was valid.
+     */
+    private String invalidLineDetails;
+
+    /**
+     * Creates a new {@code QuestionFileChunk} for the lines in the provided {@code buffer} between
+     * the offsets {@code start} (inclusive) and {@code end} (exclusive).
+     *
+     * @param buffer
+     *         the buffer containing the lines.
+     * @param start
+     *         the offset in the {@code buffer} of the first byte of the first line.
+     * @param end
+     *         the offset in the {@code buffer} one past the last byte of the range.
+     * @param dictionary
+     *         the {@link AttributeDictionary} of the whole file.
+     * @param fileReport
+     *         the {@link LoadReport} of the whole file, which the chunk's own report will be added
+     *         to (and which keeps the same number of problems), or {@code null} if the first
+     *         invalid line should stop parsing.
+     */
+    QuestionFileChunk(ByteBuffer buffer, int start, int end, AttributeDictionary dictionary,
+            LoadReport fileReport) {
+        this.BUFFER = buffer.duplicate();
+        this.START = start;
+        this.END = end;
+        this.DICTIONARY = dictionary;
+        this.REPORT = fileReport == null ? null : new LoadReport(fileReport.getMaxRecorded());
+        this.questions = new ArrayList<>();
+    }
+
+    /**
+     * Parses each line in the range into a new {@link Question}, stopping at the first invalid
+     * line, or recording and skipping each invalid line if parsing leniently.
+     *
+     * @return this {@code QuestionFileChunk}.
+     */
+    public QuestionFileChunk call() {
+        CSVLineTokenizer tokenizer = new CSVLineTokenizer(FileQuestionsInterface.COLUMN_COUNT);
+        int lineStart = START;
+
+        while (lineStart < END) {
+            int lineEnd = lineStart;
+            while (lineEnd < END && BUFFER.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+
+            int nextLineStart = lineEnd + 1;
+            if (lineEnd > lineStart && BUFFER.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            lineCount++;
+
+            tokenizer.tokenize(BUFFER, lineStart, lineEnd);
+            if (REPORT != null) {
+                Question question = FileQuestionsInterface.parseTokenizedLine(tokenizer,
+                        DICTIONARY, REPORT, lineCount);
+                if (question != null) {
+                    questions.add(question);
+                }
+                lineStart = nextLineStart;
+                continue;
+            }
+
+            try {
+                questions.add(FileQuestionsInterface.parseTokenizedLine(tokenizer, DICTIONARY));
+            } catch (IllegalArgumentException e) {
+                invalidLine = tokenizer.getLine();
+                invalidLineDetails = e.getMessage();
+                break;
+            }
+
+            lineStart = nextLineStart;
+        }
+
+        return this;
+    }
+
+    public ArrayList<Question> getQuestions() {
+        return questions;
+    }
+
+    /**
+     * Returns the problems found in the lines of the range, with line numbers counted from the
+     * start of the range, or {@code null} if not parsing leniently.
+     */
+    public LoadReport getReport() {
+        return REPORT;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public boolean hasInvalidLine() {
+        return invalidLine != null;
+    }
+
+    public String getInvalidLine() {
+        return invalidLine;
+    }
+
+    public String getInvalidLineDetails() {
+        return invalidLineDetails;
+    }
+}
@@ -0,0 +1,215 @@
+package program;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses a gzip-compressed file containing {@link Question} data (a .csv.gz file) on a
+ * background thread, handing the decompressed bytes to the thread parsing them in blocks of
+ * complete lines (see {@link FileQuestionsInterface#getQuestionsFromFile(String, LoadMode,
+ * LoadReport)}). Up to {@link #QUEUED_BLOCKS} blocks are decompressed ahead of the block being
+ * parsed, so reading and decompressing the file overlaps with parsing it, rather than the file
+ * having to be decompressed before parsing can start.
+ *
+ * <p>Every block but the last ends with a newline character, and is followed by a line containing
+ * a character which is not whitespace, so that whitespace at the very end of the file is only ever
+ * in the last block, where it is ignored just as at the end of an uncompressed file. A block is
+ * made larger if a single line does not fit in it.
+ *
+ * <p>Only one thread may take blocks from a {@code QuestionFileInflater}, which must be closed
+ * once it is no longer needed, so that the background thread stops if the file is not read to
+ * the end (for instance, because a line is invalid).
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionFileInflater implements AutoCloseable {
+
+    /**
+     * The extension at the end of the location of every gzip-compressed file.
+     */
+    private final static String EXTENSION = ".gz";
+
+    /**
+     * The number of decompressed bytes in each block, unless a single line is longer.
+     */
+    private final static int BLOCK_SIZE = 1 << 22;
+
+    /**
+     * The greatest number of decompressed blocks waiting to be parsed.
+     */
+    private final static int QUEUED_BLOCKS = 2;
+
+    /**
+     * The size of the buffer of compressed bytes read from the file at once.
+     */
+    private final static int COMPRESSED_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The location of the compressed file.
+     */
+    private final Path PATH;
+
+    /**
+     * The blocks which have been decompressed but not yet taken.
+     */
+    private final BlockingQueue<Block> BLOCKS;
+
+    /**
+     * The thread on which the file is decompressed.
+     */
+    private final Thread THREAD;
+
+    /**
+     * Whether the last block of the file has been taken.
+     */
+    private boolean isFinished;
+
+    /**
+     * Returns {@code true} if the file at the provided {@code fileLocation} is gzip-compressed,
+     * as given by its extension (such as a .csv.gz file), {@code false} otherwise.
+     */
+    static boolean isCompressed(String fileLocation) {
+        return fileLocation.endsWith(EXTENSION);
+    }
+
+    /**
+     * Creates a new {@code QuestionFileInflater} of the gzip-compressed file at the provided
+     * {@code path}, and starts decompressing it on a background thread.
+     *
+     * @param path
+     *         the location of the compressed file.
+     */
+    QuestionFileInflater(Path path) {
+        this.PATH = path;
+        this.BLOCKS = new ArrayBlockingQueue<>(QUEUED_BLOCKS);
+        this.THREAD = new Thread(this::inflate, "Decompressor");
+        THREAD.setDaemon(true);
+        THREAD.start();
+    }
+
+    /**
+     * Returns the next block of the decompressed file, waiting for it to be decompressed if it
+     * has not been already. The lines of the block are held from offset {@code 0} up to its limit.
+     *
+     * @return the next block of the decompressed file.
+     *
+     * @throws IOException
+     *         if the file could not be read or decompressed.
+     * @throws InterruptedException
+     *         if the calling thread is interrupted while waiting.
+     * @throws IllegalStateException
+     *         if the last block has already been taken (see {@link #isFinished()}).
+     */
+    ByteBuffer nextBlock() throws IOException, InterruptedException {
+        if (isFinished) {
+            throw new IllegalStateException("Every block has already been taken!");
+        }
+
+        Block block = BLOCKS.take();
+        if (block.error != null) {
+            isFinished = true;
+            throw block.error;
+        }
+
+        isFinished = block.isLast;
+        return block.buffer;
+    }
+
+    /**
+     * Returns {@code true} if the last block of the file has been taken, {@code false} otherwise.
+     */
+    boolean isFinished() {
+        return isFinished;
+    }
+
+    /**
+     * Stops decompressing the file, if it has not been decompressed already.
+     */
+    @Override
+    public void close() {
+        THREAD.interrupt();
+    }
+
+    /**
+     * Decompresses the file, adding each block of complete lines to the {@code BLOCKS} as soon as
+     * it has been decompressed, until the end of the file or until this is closed. Run on the
+     * background thread.
+     */
+    private void inflate() {
+        try {
+            try (InputStream input = new GZIPInputStream(Files.newInputStream(PATH),
+                    COMPRESSED_BUFFER_SIZE)) {
+                byte[] bytes = new byte[BLOCK_SIZE];
+                int length = 0;
+
+                while (true) {
+                    length += input.readNBytes(bytes, length, bytes.length - length);
+
+                    // The stream only ends before the block is full at the end of the file
+                    if (length < bytes.length) {
+                        BLOCKS.put(new Block(ByteBuffer.wrap(bytes, 0, length), true, null));
+                        return;
+                    }
+
+                    int blockEnd = findBlockEnd(bytes, length);
+                    if (blockEnd == 0) {
+                        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                        continue;
+                    }
+
+                    // The rest of the last line is moved to the start of the next block
+                    byte[] nextBytes = new byte[Math.max(BLOCK_SIZE, (length - blockEnd) * 2)];
+                    System.arraycopy(bytes, blockEnd, nextBytes, 0, length - blockEnd);
+
+                    BLOCKS.put(new Block(ByteBuffer.wrap(bytes, 0, blockEnd), false, null));
+                    bytes = nextBytes;
+                    length -= blockEnd;
+                }
+            } catch (IOException e) {
+                BLOCKS.put(new Block(null, true, e));
+            }
+        } catch (InterruptedException e) {
+            // This has been closed
+        }
+    }
+
+    /**
+     * Returns the offset one past the last newline character in the first {@code length} of the
+     * provided {@code bytes} which is followed by a character which is not whitespace, or
+     * {@code 0} if there is none.
+     */
+    private static int findBlockEnd(byte[] bytes, int length) {
+        int position = length - 1;
+
+        while (position >= 0 && FileQuestionsInterface.isTrailingWhitespace(bytes[position])) {
+            position--;
+        }
+        while (position >= 0 && bytes[position] != '\n') {
+            position--;
+        }
+
+        return position + 1;
+    }
+
+    /**
+     * A block of the decompressed file, or the reason the file could not be decompressed.
+     */
+    private static final class Block {
+        private final ByteBuffer buffer;
+        private final boolean isLast;
+        private final IOException error;
+
+        private Block(ByteBuffer buffer, boolean isLast, IOException error) {
+            this.buffer = buffer;
+            this.isLast = isLast;
+            this.error = error;
+        }
+    }
+}
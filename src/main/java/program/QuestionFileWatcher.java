@@ -0,0 +1,600 @@
+package program;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the file from which the {@link Question}s in a {@link QuestionList} were loaded, and
+ * applies the changes made to it by another program (such as a spreadsheet) to the loaded
+ * {@code Question}s, without the program being restarted or any progress made since the file was
+ * loaded being lost.
+ *
+ * <p>When the file changes, it is parsed again on a background thread once it has stopped changing
+ * for {@link Settings#getWatchSettleMillis()} milliseconds, and each {@code Question} in it is
+ * matched with the loaded {@code Question} with the same index:
+ * <ul>
+ *     <li>a loaded {@code Question} whose attribute values are unchanged is kept as it is;</li>
+ *     <li>a loaded {@code Question} whose attribute values have changed is replaced by the
+ *     {@code Question} in the file, which takes over its progress;</li>
+ *     <li>a {@code Question} whose index was not loaded is added, with the progress in the
+ *     file;</li>
+ *     <li>a loaded {@code Question} whose index is no longer in the file is removed.</li>
+ * </ul>
+ * Progress made since the file was loaded therefore takes precedence over the progress in the
+ * file. Only the parse takes as long as loading the file, and it is made in the background, so
+ * the {@code Question}s can be answered throughout. The changes are then applied on the thread
+ * answering the {@code Question}s, once no selection of them is being answered (see
+ * {@link #applyChanges(boolean)}), by replacing the {@code Question}s of the {@code QuestionList}
+ * with the matched {@code Question}s, in the order of the file (see
+ * {@link QuestionList#replaceQuestions(ArrayList)}).
+ *
+ * <p>The file is also written by this program (see {@link Autosave}), so the version of the file
+ * (its modification time, size and identity) last loaded, written or applied by this program is
+ * recorded, and a change which leaves the file at that version is ignored. A save in the
+ * background is not written while the file is at any other version, so that changes which have
+ * not yet been applied are not overwritten (see {@link #write(QuestionProgress, boolean)}). The
+ * version is checked again immediately before a save replaces the file, so only changes saved by
+ * another program in that instant can still be overwritten.
+ *
+ * <p>Changes can only be matched by index if every {@code Question}, in the file and loaded, has a
+ * different index. Otherwise, or if the file cannot be parsed, the changes are not applied, and a
+ * message explaining why is added to the {@code QuestionList} instead (see
+ * {@link QuestionList#addMessage(String)}).
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionFileWatcher {
+
+    /**
+     * The {@link QuestionList} containing every {@link Question} loaded from the file.
+     */
+    private final QuestionList QUESTIONS;
+
+    /**
+     * The location of the file.
+     */
+    private final Path PATH;
+
+    /**
+     * The service notified of changes to the directory containing the file.
+     */
+    private final WatchService WATCH_SERVICE;
+
+    /**
+     * The time, in milliseconds, for which the file must be unchanged before it is parsed.
+     */
+    private final long SETTLE_MILLIS;
+
+    /**
+     * Held while the file is being parsed, so that it is only parsed on one thread at a time.
+     */
+    private final Object PARSE_LOCK = new Object();
+
+    /**
+     * The version of the file whose {@link Question}s are loaded, or which was last written by this
+     * program, or {@code null} if it could not be read.
+     */
+    private FileVersion knownVersion;
+
+    /**
+     * The {@link AttributeIndex} of the loaded {@link Question}s, against which changes are
+     * matched in the background.
+     */
+    private AttributeIndex loadedIndex;
+
+    /**
+     * The most recent changes parsed from the file which have not yet been applied, or
+     * {@code null} if there are none.
+     */
+    private Changes pendingChanges;
+
+    /**
+     * The reason the most recent changes to the file could not be parsed, or {@code null} if they
+     * could be.
+     */
+    private String pendingProblem;
+
+    /**
+     * Creates a new {@code QuestionFileWatcher} of the file from which the provided
+     * {@code questions} were loaded, and starts watching it on a background thread. The file is
+     * taken to be at the version from which the {@code questions} were loaded.
+     *
+     * @param questions
+     *         the {@link QuestionList} containing every {@link Question} loaded from its file.
+     *
+     * @throws IOException
+     *         if the file cannot be watched.
+     */
+    QuestionFileWatcher(QuestionList questions) throws IOException {
+        this.QUESTIONS = questions;
+        this.PATH = Path.of(questions.getFileLocation()).toAbsolutePath();
+        this.WATCH_SERVICE = PATH.getFileSystem().newWatchService();
+        this.SETTLE_MILLIS = Math.max(Settings.getWatchSettleMillis(), 0);
+        this.knownVersion = FileVersion.read(PATH);
+        this.loadedIndex = questions.getAttributeIndex();
+
+        try {
+            // Files are often saved by replacing them, so the whole directory is watched
+            PATH.getParent().register(WATCH_SERVICE, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            WATCH_SERVICE.close();
+            throw e;
+        }
+
+        Thread thread = new Thread(this::watch, "File watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Applies the most recent changes made to the file which have been parsed in the background
+     * (if any), and adds a summary of them, or the reason they could not be applied, to the
+     * {@link QuestionList} (see {@link QuestionList#addMessage(String)}). Must be called on the
+     * thread answering the {@link Question}s, while no selection of them is being answered, as
+     * selections already made keep the {@code Question}s they were made with.
+     *
+     * @param isCheckingFile
+     *         whether the file should first be checked for changes which have not been parsed yet
+     *         (and parsed on the calling thread if there are any), as before the file is saved
+     *         (see {@link FileQuestionsInterface#saveToFile(QuestionList)}).
+     */
+    void applyChanges(boolean isCheckingFile) {
+        if (isCheckingFile) {
+            checkForChanges();
+        }
+
+        Changes changes;
+        String problem;
+        synchronized (this) {
+            changes = pendingChanges;
+            problem = pendingProblem;
+            pendingChanges = null;
+            pendingProblem = null;
+        }
+
+        if (problem != null) {
+            QUESTIONS.addMessage("Changes to \"" + QUESTIONS.getFileLocation() + "\" could not " +
+                    "be loaded, so the questions already loaded are still being used. " +
+                    "Details:\n" + problem);
+        }
+        if (changes == null) {
+            return;
+        }
+
+        // The changes were matched against Questions which have since been replaced
+        AttributeIndex index = QUESTIONS.getAttributeIndex();
+        if (changes.matchedIndex != index) {
+            changes.match(index);
+        }
+
+        if (changes.problem != null) {
+            QUESTIONS.addMessage("Changes to \"" + QUESTIONS.getFileLocation() + "\" could not " +
+                    "be applied, so the questions already loaded are still being used. " +
+                    "Details:\n" + changes.problem);
+            return;
+        }
+
+        if (changes.hasChanges()) {
+            QUESTIONS.replaceQuestions(changes.getMatchedQuestions());
+
+            if (QUESTIONS.getJournal() != null) {
+                QUESTIONS.getJournal().resetPool();
+            }
+            if (QUESTIONS.getAutosave() != null) {
+                QUESTIONS.getAutosave().questionsReplaced();
+            }
+        }
+
+        synchronized (this) {
+            loadedIndex = QUESTIONS.getAttributeIndex();
+
+            // If the file has been written since it was parsed, the write is either this
+            // program's own (and so already known), or another change which is still to be parsed
+            if (changes.version.equals(FileVersion.read(PATH))) {
+                knownVersion = changes.version;
+            }
+        }
+
+        if (Settings.isLenientLoad() && changes.report.hasProblems()) {
+            QUESTIONS.addMessage("Problems were found in \"" + QUESTIONS.getFileLocation() +
+                    "\": " + changes.report);
+        }
+        if (changes.hasChanges()) {
+            QUESTIONS.addMessage("Changes to \"" + QUESTIONS.getFileLocation() + "\" loaded: " +
+                    changes.numAdded + " questions added, " + changes.numUpdated +
+                    " updated and " + changes.numRemoved + " removed.");
+        }
+    }
+
+    /**
+     * Overwrites the file with the {@link Question}s in the provided {@code progress}, and writes a
+     * snapshot of them if snapshots are enabled, as by
+     * {@link FileQuestionsInterface#writeProgress(String, QuestionProgress)}, recording the
+     * version written so that the write is not mistaken for a change made by another program. The
+     * progress is a copy, so this can be called on any thread.
+     *
+     * @param progress
+     *         the {@code Question}s to write, and their progress.
+     * @param isForced
+     *         whether the file should be written even if it holds changes which have not yet been
+     *         applied.
+     *
+     * @return {@code true} if the file was written, or {@code false} if it was not, as it is not
+     *         at the version known to this program and {@code isForced} is {@code false}.
+     *
+     * @throws IOException
+     *         if the file or its snapshot could not be written for any reason.
+     */
+    boolean write(QuestionProgress progress, boolean isForced) throws IOException {
+        String fileLocation = QUESTIONS.getFileLocation();
+
+        // Checked both before and after the lines are written, as writing them takes some time
+        if (!isForced && !isKnownVersion()) {
+            return false;
+        }
+
+        FileVersion[] replacedVersion = new FileVersion[1];
+        BasicFileAttributes writtenAttributes;
+        try {
+            writtenAttributes = QuestionFileWriter.write(fileLocation, progress, () -> {
+                synchronized (this) {
+                    if (!isForced && !isKnownVersion()) {
+                        return false;
+                    }
+
+                    // Replacing the file keeps the version of the temporary file, which is
+                    // recorded first so that no change made after the file is replaced is missed
+                    replacedVersion[0] = knownVersion;
+                    knownVersion = FileVersion.read(
+                            Path.of(QuestionFileWriter.getTempLocation(fileLocation)));
+                    return true;
+                }
+            });
+            if (writtenAttributes == null) {
+                return false;
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                if (replacedVersion[0] != null) {
+                    knownVersion = replacedVersion[0];
+                }
+            }
+            throw e;
+        }
+
+        if (Settings.isUseSnapshots()) {
+            QuestionSnapshot.save(fileLocation, progress, writtenAttributes);
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the file is at the version known to this program, so holds no
+     * changes which have not been applied.
+     */
+    private synchronized boolean isKnownVersion() {
+        return Objects.equals(FileVersion.read(PATH), knownVersion);
+    }
+
+    /**
+     * Stops watching the file. Changes which have been parsed but not applied are discarded.
+     */
+    void close() {
+        try {
+            WATCH_SERVICE.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Waits for the file to change, and parses it once it has stopped changing, until the watcher
+     * is closed. Run on the background thread.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                if (!isFileChanged(WATCH_SERVICE.take())) {
+                    continue;
+                }
+
+                // The file is not parsed until it has stopped changing, so that it is not read
+                // while another program is still writing it
+                long settleEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS);
+                long remaining;
+                while ((remaining = settleEnd - System.nanoTime()) > 0) {
+                    WatchKey key = WATCH_SERVICE.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (key == null) {
+                        break;
+                    }
+                    if (isFileChanged(key)) {
+                        settleEnd = System.nanoTime() +
+                                TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS);
+                    }
+                }
+
+                checkForChanges();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // The watcher has been closed
+        }
+    }
+
+    /**
+     * Returns {@code true} if any of the events of the provided {@code key} may be a change to the
+     * file (rather than to another file in the same directory, such as its journal), and resets
+     * the {@code key} so that further events are reported.
+     */
+    private boolean isFileChanged(WatchKey key) {
+        boolean isChanged = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW ||
+                    PATH.getFileName().equals(event.context())) {
+                isChanged = true;
+            }
+        }
+
+        key.reset();
+        return isChanged;
+    }
+
+    /**
+     * Parses the file, if it is not at the version whose {@link Question}s are loaded or already
+     * parsed, and matches its {@code Question}s against those loaded, keeping the changes to be
+     * applied by {@link #applyChanges(boolean)} (replacing any which have not yet been applied).
+     *
+     * <p>The file is always parsed leniently (see {@link LoadReport}), so that its problems are
+     * only reported once the changes are applied. Unless lenient loading is enabled (see
+     * {@link Settings#isLenientLoad()}), the changes are not applied if any line is invalid, just
+     * as the file could not be loaded. If the file changes while it is being parsed, it is parsed
+     * again.
+     */
+    private void checkForChanges() {
+        synchronized (PARSE_LOCK) {
+            FileVersion version = FileVersion.read(PATH);
+
+            while (true) {
+                AttributeIndex index;
+                synchronized (this) {
+                    if (version == null || version.equals(knownVersion) ||
+                            (pendingChanges != null && version.equals(pendingChanges.version))) {
+                        return;
+                    }
+                    index = loadedIndex;
+                }
+
+                Changes changes = null;
+                String problem = null;
+                try {
+                    LoadReport report = new LoadReport();
+                    ArrayList<Question> fileQuestions =
+                            FileQuestionsInterface.getQuestionsFromChangingFile(
+                                    QUESTIONS.getFileLocation(), Settings.getLoadMode(), report);
+
+                    if (!Settings.isLenientLoad() && report.getNumSkipped() > 0) {
+                        problem = "Invalid lines were found: " + report;
+                    } else {
+                        changes = new Changes(version, fileQuestions, report);
+                        changes.match(index);
+                    }
+                } catch (FileNotFoundException | IllegalArgumentException e) {
+                    problem = e.getMessage();
+                }
+
+                FileVersion parsedVersion = version;
+                version = FileVersion.read(PATH);
+                if (!parsedVersion.equals(version)) {
+                    continue;
+                }
+
+                synchronized (this) {
+                    pendingChanges = null;
+                    pendingProblem = problem;
+
+                    if (changes != null && changes.problem == null && !changes.hasChanges() &&
+                            index == loadedIndex) {
+                        // The file holds the loaded Questions (such as when this program wrote it)
+                        knownVersion = version;
+                    } else {
+                        pendingChanges = changes;
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * The {@link Question}s parsed from one version of the file, and how they differ from the
+     * loaded {@code Question}s.
+     */
+    private static class Changes {
+        private final FileVersion version;
+        private final ArrayList<Question> fileQuestions;
+        private final LoadReport report;
+
+        /**
+         * The {@link AttributeIndex} of the loaded {@link Question}s against which the
+         * {@code fileQuestions} were matched, and the loaded {@code Question} with the same index
+         * as each of them (or {@code null} if there is none).
+         */
+        private AttributeIndex matchedIndex;
+        private Question[] matches;
+
+        private int numAdded;
+        private int numUpdated;
+        private int numRemoved;
+        private boolean isReordered;
+
+        /**
+         * The reason the {@code fileQuestions} could not be matched, or {@code null} if they
+         * were.
+         */
+        private String problem;
+
+        private Changes(FileVersion version, ArrayList<Question> fileQuestions,
+                LoadReport report) {
+            this.version = version;
+            this.fileQuestions = fileQuestions;
+            this.report = report;
+        }
+
+        /**
+         * Matches each of the {@link Question}s parsed from the file with the {@code Question}
+         * with the same index in the provided {@code index}, and counts the {@code Question}s
+         * added, updated and removed.
+         */
+        private void match(AttributeIndex index) {
+            matchedIndex = index;
+            matches = null;
+            numAdded = 0;
+            numUpdated = 0;
+            numRemoved = 0;
+            isReordered = false;
+            problem = findDuplicateIndex(fileQuestions);
+
+            int numLoaded = index.getNumQuestions();
+            HashMap<Integer, Integer> loadedPositions = new HashMap<>(numLoaded * 2);
+            for (int position = 0; position < numLoaded && problem == null; position++) {
+                int questionIndex = index.getQuestion(position).getIndex();
+                if (loadedPositions.put(questionIndex, position) != null) {
+                    problem = "More than one loaded question has index " + questionIndex + "!";
+                }
+            }
+            if (problem != null) {
+                return;
+            }
+
+            matches = new Question[fileQuestions.size()];
+            int previousPosition = -1;
+            for (int i = 0; i < matches.length; i++) {
+                Question fileQuestion = fileQuestions.get(i);
+                Integer position = loadedPositions.remove(fileQuestion.getIndex());
+
+                if (position == null) {
+                    numAdded++;
+                    continue;
+                }
+
+                matches[i] = index.getQuestion(position);
+                if (!matches[i].equals(fileQuestion)) {
+                    numUpdated++;
+                }
+                if (position < previousPosition) {
+                    isReordered = true;
+                }
+                previousPosition = position;
+            }
+            numRemoved = loadedPositions.size();
+        }
+
+        /**
+         * Returns a message naming an index shared by more than one of the provided
+         * {@code questions}, or {@code null} if every index is different.
+         */
+        private static String findDuplicateIndex(ArrayList<Question> questions) {
+            int[] indices = new int[questions.size()];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = questions.get(i).getIndex();
+            }
+            Arrays.sort(indices);
+
+            for (int i = 1; i < indices.length; i++) {
+                if (indices[i] == indices[i - 1]) {
+                    return "More than one question in the file has index " + indices[i] + "!";
+                }
+            }
+            return null;
+        }
+
+        private boolean hasChanges() {
+            return numAdded > 0 || numUpdated > 0 || numRemoved > 0 || isReordered;
+        }
+
+        /**
+         * Returns the {@link Question}s to replace the loaded {@code Question}s with, in the order
+         * of the file: each matched {@code Question} whose attribute values are unchanged, and
+         * otherwise the {@code Question} parsed from the file, with the progress of the matched
+         * {@code Question} (if any). Must be called on the thread answering the
+         * {@code Question}s, as their progress is read.
+         */
+        private ArrayList<Question> getMatchedQuestions() {
+            ArrayList<Question> questions = new ArrayList<>(matches.length);
+
+            for (int i = 0; i < matches.length; i++) {
+                Question fileQuestion = fileQuestions.get(i);
+                Question loadedQuestion = matches[i];
+
+                if (loadedQuestion == null) {
+                    questions.add(fileQuestion);
+                } else if (loadedQuestion.equals(fileQuestion)) {
+                    questions.add(loadedQuestion);
+                } else {
+                    fileQuestion.restoreProgress(loadedQuestion.getAttempted(),
+                            loadedQuestion.getCorrect(), loadedQuestion.getExpectedTimesAsked());
+                    questions.add(fileQuestion);
+                }
+            }
+
+            return questions;
+        }
+    }
+
+    /**
+     * The modification time, size and identity of one version of the file.
+     */
+    private static final class FileVersion {
+        private final FileTime lastModified;
+        private final long size;
+        private final Object fileKey;
+
+        private FileVersion(BasicFileAttributes attributes) {
+            this.lastModified = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.fileKey = attributes.fileKey();
+        }
+
+        /**
+         * Returns the current version of the file at the provided {@code path}, or {@code null}
+         * if it cannot be read (for instance, while it is being replaced).
+         */
+        private static FileVersion read(Path path) {
+            try {
+                return new FileVersion(Files.readAttributes(path, BasicFileAttributes.class));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FileVersion)) {
+                return false;
+            }
+
+            FileVersion other = (FileVersion) obj;
+            return lastModified.equals(other.lastModified) && size == other.size &&
+                    Objects.equals(fileKey, other.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, size, fileKey);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package program;
+
+import program.helpers.DecimalRounding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the {@link Question}s of a {@link QuestionList} to a .csv file, in the format read by
+ * {@link FileQuestionsInterface#getQuestionsFromFile(String, LoadMode)}, with the progress copied
+ * in a {@link QuestionProgress} (see {@link FileQuestionsInterface#saveToFile(QuestionList)}).
+ * As the progress is a copy, a file can be written on one thread while the {@code Question}s
+ * continue to be answered on another (see {@link Autosave}).
+ *
+ * <p>Each line is encoded straight into a large direct buffer, which is written to the file
+ * through a {@link FileChannel} only when it is full, so saving a file makes only a few system
+ * calls however many {@code Question}s it contains. Numbers are formatted by hand rather than with
+ * {@link String#format(String, Object...)} (see {@link DecimalRounding}), so no strings are
+ * created for them.
+ *
+ * <p>The file is written to a temporary file first, which is forced to the disk and then replaces
+ * the existing file, so an interrupted save never leaves a partial file behind - the file holds
+ * either every {@code Question} as it was before the save, or every {@code Question} as it was
+ * after.
+ *
+ * <p>A file whose location ends in .gz (see {@link QuestionFileInflater#isCompressed(String)}) is
+ * gzip-compressed as it is written, one buffer at a time, so the uncompressed file is never held
+ * in full, nor written to the disk.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionFileWriter {
+
+    /**
+     * The extension added to the location of a .csv file to give the location of the temporary
+     * file written in its place.
+     */
+    private final static String TEMP_EXTENSION = ".tmp";
+
+    /**
+     * The size of the buffer used when writing a file.
+     */
+    private final static int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The size of the buffer of compressed bytes written to a gzip-compressed file at once.
+     */
+    private final static int COMPRESSED_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The number of bytes of space kept in the buffer for each character of a string encoded
+     * without checking for space, which is enough for any character, or for a surrogate pair
+     * starting at it (encoded as four bytes in UTF-8).
+     */
+    private final static int MAX_BYTES_PER_CHAR = 4;
+
+    /**
+     * The greatest number of bytes written for a single number.
+     */
+    private final static int MAX_NUMBER_BYTES = 32;
+
+    /**
+     * The channel through which the temporary file is written, which compresses the bytes written
+     * to it if the file is gzip-compressed.
+     */
+    private final WritableByteChannel CHANNEL;
+
+    /**
+     * The buffer holding the bytes not yet written to the {@code CHANNEL}.
+     */
+    private final ByteBuffer BUFFER;
+
+    /**
+     * Returns the location of the temporary file written in place of the .csv file at the
+     * provided {@code fileLocation}, which replaces it once every line has been written.
+     */
+    static String getTempLocation(String fileLocation) {
+        return fileLocation + TEMP_EXTENSION;
+    }
+
+    private QuestionFileWriter(WritableByteChannel channel) {
+        this.CHANNEL = channel;
+        this.BUFFER = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the lines of a file, after its column headers (see
+     * {@link #write(String, Lines)}).
+     */
+    interface Lines {
+
+        void write(QuestionFileWriter writer) throws IOException;
+    }
+
+    /**
+     * Overwrites the file at the provided {@code fileLocation} with the
+     * {@link FileQuestionsInterface#COLUMN_HEADERS} and each of the {@link Question}s in the
+     * provided {@code progress} on a new line, replacing the file only once every line has been
+     * written.
+     *
+     * @param fileLocation
+     *         the location of the .csv file to write.
+     * @param progress
+     *         the {@code Question}s to write, in the order they should appear in the file, and
+     *         their progress.
+     *
+     * @return the attributes of the file as written by this method, read before it replaced the
+     *         existing file, so that they are not those of a version written by another program
+     *         since (see {@link QuestionSnapshot#save(String, QuestionProgress,
+     *         BasicFileAttributes)}).
+     *
+     * @throws IOException
+     *         if the file could not be written for any reason, in which case the existing file is
+     *         left unchanged.
+     */
+    static BasicFileAttributes write(String fileLocation, QuestionProgress progress)
+            throws IOException {
+        return write(fileLocation, progress, () -> true);
+    }
+
+    /**
+     * Overwrites the file at the provided {@code fileLocation} with the {@link Question}s in the
+     * provided {@code progress}, as by {@link #write(String, QuestionProgress)}, but only if the
+     * provided {@code canReplace} still returns {@code true} once every line has been written,
+     * immediately before the file is replaced. This keeps a file which is changed by another
+     * program while it is being written from being overwritten (see
+     * {@link QuestionFileWatcher}).
+     *
+     * @param fileLocation
+     *         the location of the .csv file to write.
+     * @param progress
+     *         the {@code Question}s to write, in the order they should appear in the file, and
+     *         their progress.
+     * @param canReplace
+     *         returns whether the file may still be replaced.
+     *
+     * @return the attributes of the file as written by this method (see
+     *         {@link #write(String, QuestionProgress)}), or {@code null} if it was left unchanged
+     *         as {@code canReplace} returned {@code false}.
+     *
+     * @throws IOException
+     *         if the file could not be written for any reason, in which case the existing file is
+     *         left unchanged.
+     */
+    static BasicFileAttributes write(String fileLocation, QuestionProgress progress,
+            BooleanSupplier canReplace) throws IOException {
+        return write(fileLocation, writer -> {
+            for (int position = 0; position < progress.getNumQuestions(); position++) {
+                writer.putQuestion(progress, position);
+            }
+        }, canReplace);
+    }
+
+    /**
+     * Overwrites the file at the provided {@code fileLocation} with the
+     * {@link FileQuestionsInterface#COLUMN_HEADERS} and each of the lines written by the provided
+     * {@code lines}, replacing the file only once every line has been written. As each line is
+     * written to the file as soon as the buffer is full, a file of any size can be written without
+     * holding its lines in memory (see {@link QuestionBankGenerator}).
+     *
+     * @param fileLocation
+     *         the location of the .csv file to write.
+     * @param lines
+     *         writes each line of the file, in order, with
+     *         {@link #putLine(int, String, String, String, String, String, String, int, int,
+     *         double, double, double)}.
+     *
+     * @throws IOException
+     *         if the file could not be written for any reason, in which case the existing file is
+     *         left unchanged.
+     */
+    static void write(String fileLocation, Lines lines) throws IOException {
+        write(fileLocation, lines, () -> true);
+    }
+
+    /**
+     * Writes the lines written by the provided {@code lines} to a temporary file, as by
+     * {@link #write(String, Lines)}, and replaces the file at the provided {@code fileLocation}
+     * with it if the provided {@code canReplace} returns {@code true} (see
+     * {@link #write(String, QuestionProgress, BooleanSupplier)}), or otherwise deletes it.
+     *
+     * @return the attributes of the temporary file, read immediately before it replaced the file
+     *         (which keeps them), or {@code null} if the file was not replaced.
+     */
+    private static BasicFileAttributes write(String fileLocation, Lines lines,
+            BooleanSupplier canReplace) throws IOException {
+        Path path = Path.of(fileLocation);
+        Path tempPath = Path.of(getTempLocation(fileLocation));
+
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                GZIPOutputStream compressor = null;
+                QuestionFileWriter writer;
+                if (QuestionFileInflater.isCompressed(fileLocation)) {
+                    compressor = new GZIPOutputStream(Channels.newOutputStream(channel),
+                            COMPRESSED_BUFFER_SIZE);
+                    writer = new QuestionFileWriter(Channels.newChannel(compressor));
+                } else {
+                    writer = new QuestionFileWriter(channel);
+                }
+
+                writer.putString(FileQuestionsInterface.COLUMN_HEADERS);
+                lines.write(writer);
+
+                writer.flush();
+                if (compressor != null) {
+                    compressor.finish();
+                }
+                channel.force(false);
+            }
+
+            if (!canReplace.getAsBoolean()) {
+                Files.deleteIfExists(tempPath);
+                return null;
+            }
+
+            // Moving the file within its directory keeps its size and modification time
+            BasicFileAttributes attributes = Files.readAttributes(tempPath,
+                    BasicFileAttributes.class);
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return attributes;
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the {@link Question} at the provided {@code position} in the provided
+     * {@code progress} on a new line.
+     */
+    private void putQuestion(QuestionProgress progress, int position) throws IOException {
+        Question question = progress.getQuestion(position);
+
+        putLine(question.getIndex(), question.getTitle(), question.getTopic(),
+                question.getPaperUnit(), question.getSubject(), question.getQualLevel(),
+                question.getExamBoard(), progress.getAttempted(position),
+                progress.getCorrect(position), progress.getPercentage(position),
+                progress.getExpectedTimesAsked(position), progress.getLikelihood(position));
+    }
+
+    /**
+     * Writes a new line holding the provided values, in the order specified by the
+     * {@link FileQuestionsInterface#COLUMN_HEADERS}, with each attribute value enclosed in quotes
+     * if it contains a comma, and each of the {@code percentage}, {@code expectedTimesAsked} and
+     * {@code likelihood} rounded to two decimal places.
+     *
+     * @throws IOException
+     *         if the buffer was full, and could not be written to the file.
+     */
+    void putLine(int index, String title, String topic, String paperUnit, String subject,
+            String qualLevel, String examBoard, int attempted, int correct, double percentage,
+            double expectedTimesAsked, double likelihood) throws IOException {
+        // There is no newline after the last line
+        putByte('\n');
+        putInt(index);
+        putByte(',');
+        putField(title);
+        putByte(',');
+        putField(topic);
+        putByte(',');
+        putField(paperUnit);
+        putByte(',');
+        putField(subject);
+        putByte(',');
+        putField(qualLevel);
+        putByte(',');
+        putField(examBoard);
+        putByte(',');
+        putInt(attempted);
+        putByte(',');
+        putInt(correct);
+        putByte(',');
+        putFixed(percentage);
+        putByte(',');
+        putFixed(expectedTimesAsked);
+        putByte(',');
+        putFixed(likelihood);
+    }
+
+    /**
+     * Writes the provided attribute {@code value} as a field, enclosing it in quotes if it contains
+     * a comma, so that it is read back as a single field.
+     */
+    private void putField(String value) throws IOException {
+        if (value.indexOf(',') == -1) {
+            putString(value);
+        } else {
+            putByte('"');
+            putString(value);
+            putByte('"');
+        }
+    }
+
+    /**
+     * Writes the provided string encoded as UTF-8.
+     */
+    private void putString(String s) throws IOException {
+        int length = s.length();
+        int i = 0;
+
+        while (i < length) {
+            ensureSpace(MAX_BYTES_PER_CHAR);
+
+            // Encode as much of the string as fits in the buffer, without checking for space
+            // before each character
+            int end = Math.min(length, i + BUFFER.remaining() / MAX_BYTES_PER_CHAR);
+            for (; i < end; i++) {
+                char c = s.charAt(i);
+
+                if (c < 0x80) {
+                    BUFFER.put((byte) c);
+                } else if (c < 0x800) {
+                    BUFFER.put((byte) (0xC0 | (c >> 6)));
+                    BUFFER.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length &&
+                        Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    BUFFER.put((byte) (0xF0 | (codePoint >> 18)));
+                    BUFFER.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    BUFFER.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    BUFFER.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    // An unpaired surrogate cannot be encoded, so is replaced (as by getBytes)
+                    BUFFER.put((byte) '?');
+                } else {
+                    BUFFER.put((byte) (0xE0 | (c >> 12)));
+                    BUFFER.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    BUFFER.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the provided {@code value} in decimal, as {@link Integer#toString(int)} would.
+     */
+    private void putInt(int value) throws IOException {
+        ensureSpace(MAX_NUMBER_BYTES);
+
+        if (value < 0) {
+            BUFFER.put((byte) '-');
+        }
+        putDigits(Math.abs((long) value), 0);
+    }
+
+    /**
+     * Writes the provided {@code value} rounded to two decimal places, as
+     * {@code String.format("%.2f", value)} would (rounding half up, from the shortest decimal
+     * representation of the value), but always with a '.' as the decimal separator.
+     */
+    private void putFixed(double value) throws IOException {
+        ensureSpace(MAX_NUMBER_BYTES);
+
+        long hundredths = DecimalRounding.roundToHundredths(value);
+        if (hundredths != DecimalRounding.NOT_ROUNDED) {
+            if (Double.doubleToRawLongBits(value) < 0) {
+                BUFFER.put((byte) '-');
+            }
+            putDigits(Math.abs(hundredths), 2);
+            return;
+        }
+
+        // Values which are very large, not finite, or too close to halfway between two
+        // hundredths to be sure which way they should be rounded
+        putString(String.format(Locale.ROOT, "%.2f", value));
+    }
+
+    /**
+     * Writes the provided non-negative {@code value} in decimal, with a '.' before the last
+     * {@code decimalPlaces} digits, and at least one digit before the '.'.
+     */
+    private void putDigits(long value, int decimalPlaces) {
+        int numDigits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            numDigits++;
+        }
+        numDigits = Math.max(numDigits, decimalPlaces + 1);
+
+        int start = BUFFER.position();
+        int end = start + numDigits + (decimalPlaces > 0 ? 1 : 0);
+        int position = end;
+        for (int digit = 0; digit < numDigits; digit++) {
+            if (digit == decimalPlaces && decimalPlaces > 0) {
+                BUFFER.put(--position, (byte) '.');
+            }
+            BUFFER.put(--position, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        BUFFER.position(end);
+    }
+
+    private void putByte(char c) throws IOException {
+        ensureSpace(1);
+        BUFFER.put((byte) c);
+    }
+
+    /**
+     * Writes the contents of the buffer to the file if it has fewer than {@code bytes} bytes of
+     * space remaining.
+     */
+    private void ensureSpace(int bytes) throws IOException {
+        if (BUFFER.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        BUFFER.flip();
+        while (BUFFER.hasRemaining()) {
+            CHANNEL.write(BUFFER);
+        }
+        BUFFER.clear();
+    }
+}
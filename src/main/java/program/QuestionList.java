@@ -10,6 +10,8 @@ import program.helpers.SortingKey;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
 
 /**
  * <p>
@@ -18,29 +20,200 @@ import java.util.Collections;
 public class QuestionList {
     private ArrayList<Question> questions;
     private String fileLocation;
+    private ProgressJournal journal;
+    private Autosave autosave;
+    private QuestionFileWatcher watcher;
+    private QuestionBankFiles bankFiles;
+    private QuestionPool pool;
+    private AttributeIndex index;
+
+    /**
+     * The positions in the {@link AttributeIndex} of the Questions in this list, or {@code null}
+     * if they are not known or the Questions are not in the order in which they were loaded. If
+     * this is known, {@code questions} is only created when it is first needed.
+     */
+    private PositionBitmap selection;
+
+    /**
+     * Messages for the user about the file from which the Questions in this list were loaded
+     * which have not yet been displayed (see {@link #takeMessages()}), or {@code null} if there
+     * are none. Messages may be added from a background thread, so this is only read or written
+     * while synchronized.
+     */
+    private ArrayList<String> messages;
 
     public QuestionList(ArrayList<Question> questions, String fileLocation) {
         this.questions = questions;
         this.fileLocation = fileLocation;
     }
 
+    /**
+     * Creates a new QuestionList containing a selection of the Questions in the provided
+     * {@code parent} list, sharing its file location, {@link ProgressJournal} and
+     * {@link Autosave}.
+     */
+    QuestionList(ArrayList<Question> questions, QuestionList parent) {
+        this(questions, parent.fileLocation);
+        this.journal = parent.journal;
+        this.autosave = parent.autosave;
+        this.index = parent.index;
+    }
+
+    /**
+     * Creates a new QuestionList containing the Questions at the provided {@code selection} of
+     * positions in the {@link AttributeIndex} of the provided {@code parent} list, in the order in
+     * which they were loaded. The list of Questions is not created until it is first needed.
+     */
+    private QuestionList(PositionBitmap selection, QuestionList parent) {
+        this((ArrayList<Question>) null, parent);
+        this.selection = selection;
+    }
+
     public ArrayList<Question> getQuestions() {
+        if (questions == null) {
+            questions = index.getQuestions(selection);
+        }
         return questions;
     }
 
     public int getNumQuestions() {
+        if (questions == null) {
+            return selection.getCardinality();
+        }
         return questions.size();
     }
 
     public Question getFirstQuestion() {
-        return questions.get(0);
+        return getQuestions().get(0);
     }
 
     public String getFileLocation() {
         return fileLocation;
     }
 
+    ProgressJournal getJournal() {
+        return journal;
+    }
+
+    void setJournal(ProgressJournal journal) {
+        this.journal = journal;
+    }
+
+    Autosave getAutosave() {
+        return autosave;
+    }
+
+    void setAutosave(Autosave autosave) {
+        this.autosave = autosave;
+    }
+
+    /**
+     * Adds the provided {@code message} for the user about the file from which the Questions in
+     * this list were loaded, such as the progress restored from its {@link ProgressJournal}, to
+     * be displayed by the caller of {@link #takeMessages()}. May be called from any thread.
+     */
+    synchronized void addMessage(String message) {
+        if (messages == null) {
+            messages = new ArrayList<>();
+        }
+        messages.add(message);
+    }
+
+    /**
+     * Returns every message added to this list (see {@link #addMessage(String)}) since this was
+     * last called, in the order in which they were added, so that they can be displayed.
+     */
+    public synchronized ArrayList<String> takeMessages() {
+        ArrayList<String> taken = messages == null ? new ArrayList<>() : messages;
+        messages = null;
+        return taken;
+    }
+
+    QuestionFileWatcher getWatcher() {
+        return watcher;
+    }
+
+    void setWatcher(QuestionFileWatcher watcher) {
+        this.watcher = watcher;
+    }
+
+    /**
+     * Returns the files from which the Questions in this list were loaded, if they were loaded
+     * from a directory, or {@code null} if they were loaded from the single file at
+     * {@link #getFileLocation()} (or this list is a selection made from another).
+     */
+    QuestionBankFiles getBankFiles() {
+        return bankFiles;
+    }
+
+    void setBankFiles(QuestionBankFiles bankFiles) {
+        this.bankFiles = bankFiles;
+    }
+
+    AttributeIndex getAttributeIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the positions in the provided {@link AttributeIndex} of the Questions in this list,
+     * or {@code null} if this list was not made from it, or its positions are not known (see
+     * {@link #isIndexed()}).
+     */
+    PositionBitmap getPositions(AttributeIndex index) {
+        if (this.index != index || !isIndexed()) {
+            return null;
+        }
+        return selection;
+    }
+
+    /**
+     * Builds an {@link AttributeIndex} of the Questions in this list, in their current order, which
+     * is used by this list and every selection made from it.
+     */
+    void createIndex() {
+        index = new AttributeIndex(questions);
+        selection = index.getAllPositions();
+    }
+
+    /**
+     * Replaces the Questions in this list with the provided {@code questions}, as when changes to
+     * its file are applied (see {@link QuestionFileWatcher}), and builds a new
+     * {@link AttributeIndex} of them. Selections already made from this list keep the Questions
+     * they were made with. The next answer in this list starts a new {@link QuestionPool}, as the
+     * Questions in the previous pool may have changed even if their number has not.
+     */
+    void replaceQuestions(ArrayList<Question> questions) {
+        this.questions = questions;
+        this.pool = null;
+        createIndex();
+    }
+
+    /**
+     * Returns {@code true} if the positions in the {@link AttributeIndex} of the Questions in this
+     * list are known. Once created, the list of Questions may have been changed directly (see
+     * {@link #getQuestions()}), so the positions are only trusted while the number of Questions is
+     * unchanged.
+     */
+    private boolean isIndexed() {
+        return selection != null &&
+                (questions == null || questions.size() == selection.getCardinality());
+    }
+
+    /**
+     * Returns a new QuestionList containing each Question in this list whose value for the
+     * provided {@code attribute} matches any of the provided {@code values} (ignoring case for the
+     * {@code TITLE} and {@code TOPIC} attributes).
+     *
+     * <p>If this list is still in the order in which its Questions were loaded, the selection is
+     * made using the {@link AttributeIndex}, taking time proportional to the number of matching
+     * Questions, and the new list holds only their positions until its Questions are needed.
+     * Otherwise, every Question in this list is compared with the values.
+     */
     public QuestionList selectByAttributeArray(String[] values, QuestionAttribute attribute) {
+        if (isIndexed()) {
+            return new QuestionList(selection.and(index.select(values, attribute)), this);
+        }
+
         ArrayList<Question> matchingQuestions = new ArrayList<>();
         StringComparator comparator;
 
@@ -55,24 +228,55 @@ public class QuestionList {
             for (String value : values) {
                 if (comparator.compare(elem.getQuestionAttribute(attribute), value) == 0) {
                     matchingQuestions.add(elem);
+                    break;
                 }
             }
         }
 
-        return new QuestionList(matchingQuestions, this.fileLocation);
+        return new QuestionList(matchingQuestions, this);
+    }
+
+    /**
+     * Returns a new QuestionList containing the Questions in this list which are not in the
+     * provided {@code selectedList} (such as a selection made from this list). This list is not
+     * changed.
+     *
+     * <p>If the positions in the {@link AttributeIndex} of the Questions in both lists are known,
+     * the new list holds only the positions of this list which are not in the
+     * {@code selectedList}. Otherwise, each Question in this list is kept unless it is equal to
+     * one in the {@code selectedList} (see {@link Question#equals(Object)}), found by looking it up
+     * in a {@link HashSet} of the {@code selectedList}.
+     */
+    public QuestionList removeSelection(QuestionList selectedList) {
+        if (isIndexed() && selectedList.isIndexed() && index == selectedList.index) {
+            return new QuestionList(selection.andNot(selectedList.selection), this);
+        }
+
+        HashSet<Question> removedQuestions = new HashSet<>(selectedList.getQuestions());
+        ArrayList<Question> remainingQuestions = new ArrayList<>();
+        for (Question elem : getQuestions()) {
+            if (!removedQuestions.contains(elem)) {
+                remainingQuestions.add(elem);
+            }
+        }
+
+        return new QuestionList(remainingQuestions, this);
     }
 
     public QuestionList sortByAttribute(QuestionAttribute attribute, boolean reverse) {
         QuestionList sortedList = this;
-        Collections.sort(sortedList.questions, new QuestionAttributeComparator(attribute, reverse));
+        Collections.sort(sortedList.getQuestions(),
+                new QuestionAttributeComparator(attribute, reverse));
+        sortedList.selection = null;
         return sortedList;
     }
 
     public QuestionList sortByNumericalAttribute(QuestionNumericalAttribute attribute,
             boolean reverse) {
         QuestionList sortedList = this;
-        Collections.sort(sortedList.questions,
+        Collections.sort(sortedList.getQuestions(),
                 new QuestionNumericalAttributeComparator(attribute, reverse));
+        sortedList.selection = null;
         return sortedList;
     }
 
@@ -92,6 +296,22 @@ public class QuestionList {
         return sortedList;
     }
 
+    /**
+     * Returns a new {@link ReviseScheduler} which asks the Questions in this list in the order
+     * given by the provided {@code key}, as if the list were sorted before each question.
+     */
+    public ReviseScheduler createReviseScheduler(SortingKey key) {
+        return new ReviseScheduler(this, key);
+    }
+
+    /**
+     * Returns a new {@link WeightedSampler} which asks the Questions in this list in a random
+     * order, drawing each with probability proportional to its likelihood.
+     */
+    public WeightedSampler createWeightedSampler() {
+        return new WeightedSampler(this, new Random());
+    }
+
     // TODO not needed?
 //    public QuestionList replaceChangedValues(QuestionList alteredQList) {
 //        ArrayList<Question> originalList = this.questions;
@@ -115,28 +335,44 @@ public class QuestionList {
         answeredQuestion(0, isCorrect);
     }
 
+    /**
+     * Records an answer to the Question at the provided {@code index}, adding
+     * {@code 1 / (number of questions)} to the expected times asked of every Question in this list.
+     * The addition is made lazily (see {@link QuestionPool}), so an answer takes constant time,
+     * unless another list has answered questions in this list since this list last did.
+     *
+     * <p>The answer is recorded in the {@link ProgressJournal} (if any) before it is made, and this
+     * list is then marked as changed for the {@link Autosave} (if any).
+     */
     public void answeredQuestion(int index, boolean isCorrect) {
-        ArrayList<Question> questionsList = this.questions;
+        ArrayList<Question> questionsList = getQuestions();
         int questionsInPool = questionsList.size();
+        Question question = questionsList.get(index);
 
-        if (isCorrect) {
-            questionsList.get(index).answeredCorrect(questionsInPool);
-        } else {
-            questionsList.get(index).answeredIncorrect(questionsInPool);
+        if (journal != null) {
+            journal.recordAnswer(this, question, isCorrect);
         }
 
-        for (int i = 0; i < questionsInPool; i++) {
-            if (i != index) {
-                questionsList.get(i).notAsked(questionsInPool);
+        if (pool == null || pool.isDetached() || pool.getSize() != questionsInPool) {
+            pool = new QuestionPool(questionsInPool);
+            for (Question elem : questionsList) {
+                elem.joinPool(pool);
             }
         }
+
+        pool.answered();
+        question.answeredInPool(isCorrect);
+
+        if (autosave != null) {
+            autosave.answered(this);
+        }
     }
 
     public String listQuestions(SortingKey sortingKey) {
-        ArrayList<Question> questionsToDisplay = questions;
+        ArrayList<Question> questionsToDisplay = getQuestions();
 
         if (sortingKey != null) {
-            questionsToDisplay = this.sort(sortingKey).questions;
+            questionsToDisplay = this.sort(sortingKey).getQuestions();
         }
 
         String returnString = "";
@@ -148,7 +384,7 @@ public class QuestionList {
 
             if (sortingKey != null && sortingKey.hasQuestionNumericalAttributeKey()) {
                 QuestionNumericalAttribute att = sortingKey.getQuestionNumericalAttributeKey();
-                String value = String.format("%.2f", (double) elem.getQuestionNumericalAttribute(att));
+                String value = String.format("%.2f", elem.getNumericalAttributeValue(att));
 
                 returnString += " (" + ReformatString.toPlainText(att.toString(), false) +
                         " = " + value + ")";
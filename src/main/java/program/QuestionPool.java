@@ -0,0 +1,68 @@
+package program;
+
+/**
+ * The pool of {@link Question}s from which a {@link QuestionList} asks its questions, counting the
+ * answers given to it so that each {@code Question} in the pool can add its share of them to its
+ * expected times asked only when that value is next needed (see
+ * {@link QuestionList#answeredQuestion(int, boolean)}).
+ *
+ * <p>Every answer given to a pool of {@code size} questions adds {@code 1 / size} to the expected
+ * times asked of each {@code Question} in the pool (or of each occurrence of it, if it is in the
+ * pool more than once). Rather than adding this to every {@code Question} after each answer, the
+ * pool only counts its answers, and each {@code Question} records the count at the time it last
+ * brought its own value up to date.
+ *
+ * <p>A {@code Question} belongs to at most one pool at a time. When another pool takes it over,
+ * its previous pool is marked as detached, and must take over its {@code Question}s again before
+ * it is next answered.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionPool {
+
+    /**
+     * The number of questions in the pool (counting a {@link Question} once for each time it
+     * appears in the pool).
+     */
+    private final int SIZE;
+
+    /**
+     * The number of answers given to the pool.
+     */
+    private long answers;
+
+    /**
+     * Whether any {@link Question} has left the pool since it was created.
+     */
+    private boolean isDetached;
+
+    QuestionPool(int size) {
+        this.SIZE = size;
+    }
+
+    int getSize() {
+        return SIZE;
+    }
+
+    long getAnswers() {
+        return answers;
+    }
+
+    boolean isDetached() {
+        return isDetached;
+    }
+
+    /**
+     * Records an answer given to a question in the pool.
+     */
+    void answered() {
+        answers++;
+    }
+
+    /**
+     * Marks the pool as detached, as one of its {@link Question}s has joined another pool.
+     */
+    void detach() {
+        isDetached = true;
+    }
+}
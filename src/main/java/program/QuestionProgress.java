@@ -0,0 +1,170 @@
+package program;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A copy of the progress (the attempted, correct and expected times asked values) of a fixed list
+ * of {@link Question}s, taken at one moment, so that it can be written to a file (see
+ * {@link QuestionFileWriter} and {@link QuestionSnapshot}) while the {@code Question}s themselves
+ * continue to be answered, possibly from another thread (see {@link Autosave}).
+ *
+ * <p>The attribute values and index of a {@code Question} never change, so they are read from the
+ * {@code Question} itself. The percentage and likelihood are calculated from the copied values in
+ * the same way as by the {@code Question}, so they are exactly the values it had when the copy was
+ * taken.
+ *
+ * <p>A {@code QuestionProgress} is never changed once created, so it can be read from any thread.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionProgress {
+
+    /**
+     * The {@link Question}s whose progress was copied, in the order in which they are written.
+     */
+    private final Question[] QUESTIONS;
+
+    /**
+     * The attempted value of the {@link Question} at each position.
+     */
+    private final int[] ATTEMPTED;
+
+    /**
+     * The correct value of the {@link Question} at each position.
+     */
+    private final int[] CORRECT;
+
+    /**
+     * The expected times asked of the {@link Question} at each position.
+     */
+    private final double[] EXPECTED_TIMES_ASKED;
+
+    private QuestionProgress(Question[] questions, int[] attempted, int[] correct,
+            double[] expectedTimesAsked) {
+        this.QUESTIONS = questions;
+        this.ATTEMPTED = attempted;
+        this.CORRECT = correct;
+        this.EXPECTED_TIMES_ASKED = expectedTimesAsked;
+    }
+
+    /**
+     * Returns a copy of the current progress of each of the provided {@code questions}, in the
+     * order provided.
+     *
+     * @param questions
+     *         the {@link Question}s whose progress is to be copied.
+     *
+     * @return a copy of the progress of the {@code questions}.
+     */
+    static QuestionProgress of(List<Question> questions) {
+        int numQuestions = questions.size();
+        QuestionProgress progress = new QuestionProgress(questions.toArray(new Question[0]),
+                new int[numQuestions], new int[numQuestions], new double[numQuestions]);
+
+        for (int position = 0; position < numQuestions; position++) {
+            progress.copy(position);
+        }
+
+        return progress;
+    }
+
+    /**
+     * Returns a copy of this progress in which the values at each of the provided
+     * {@code positions} are replaced with the current progress of the {@link Question} at that
+     * position, so that only the {@code Question}s which may have changed since this copy was
+     * taken need to be read.
+     *
+     * @param positions
+     *         the positions of the {@code Question}s whose progress is to be copied again.
+     *
+     * @return a copy of the progress, up to date at the provided {@code positions}.
+     */
+    QuestionProgress update(int[] positions) {
+        QuestionProgress progress = new QuestionProgress(QUESTIONS, ATTEMPTED.clone(),
+                CORRECT.clone(), EXPECTED_TIMES_ASKED.clone());
+
+        for (int position : positions) {
+            progress.copy(position);
+        }
+
+        return progress;
+    }
+
+    /**
+     * Returns the progress of the {@link Question}s at the positions from {@code from}
+     * (inclusive) to {@code to} (exclusive) of this copy, as a copy of its own (see
+     * {@link QuestionBankFiles}).
+     */
+    QuestionProgress range(int from, int to) {
+        return new QuestionProgress(Arrays.copyOfRange(QUESTIONS, from, to),
+                Arrays.copyOfRange(ATTEMPTED, from, to), Arrays.copyOfRange(CORRECT, from, to),
+                Arrays.copyOfRange(EXPECTED_TIMES_ASKED, from, to));
+    }
+
+    /**
+     * Returns {@code true} if the {@link Question}s of this copy starting at the provided
+     * {@code from} position are the {@code Question}s of the provided {@code other} copy, in the
+     * same order, with exactly the same progress.
+     */
+    boolean hasSameProgress(int from, QuestionProgress other) {
+        int to = from + other.QUESTIONS.length;
+        if (to > QUESTIONS.length) {
+            return false;
+        }
+
+        for (int position = from; position < to; position++) {
+            if (QUESTIONS[position] != other.QUESTIONS[position - from]) {
+                return false;
+            }
+        }
+        return Arrays.equals(ATTEMPTED, from, to, other.ATTEMPTED, 0, other.ATTEMPTED.length) &&
+                Arrays.equals(CORRECT, from, to, other.CORRECT, 0, other.CORRECT.length) &&
+                Arrays.equals(EXPECTED_TIMES_ASKED, from, to, other.EXPECTED_TIMES_ASKED, 0,
+                        other.EXPECTED_TIMES_ASKED.length);
+    }
+
+    /**
+     * Copies the current progress of the {@link Question} at the provided {@code position}.
+     */
+    private void copy(int position) {
+        Question question = QUESTIONS[position];
+
+        ATTEMPTED[position] = question.getAttempted();
+        CORRECT[position] = question.getCorrect();
+        EXPECTED_TIMES_ASKED[position] = question.getExpectedTimesAsked();
+    }
+
+    int getNumQuestions() {
+        return QUESTIONS.length;
+    }
+
+    /**
+     * Returns the {@link Question} at the provided {@code position}, from which its index and
+     * attribute values can be read. Its progress should be read from this copy instead.
+     */
+    Question getQuestion(int position) {
+        return QUESTIONS[position];
+    }
+
+    int getAttempted(int position) {
+        return ATTEMPTED[position];
+    }
+
+    int getCorrect(int position) {
+        return CORRECT[position];
+    }
+
+    double getPercentage(int position) {
+        return Question.calculatePercentage(ATTEMPTED[position], CORRECT[position]);
+    }
+
+    double getExpectedTimesAsked(int position) {
+        return EXPECTED_TIMES_ASKED[position];
+    }
+
+    double getLikelihood(int position) {
+        return Question.calculateLikelihood(ATTEMPTED[position], getPercentage(position),
+                EXPECTED_TIMES_ASKED[position]);
+    }
+}
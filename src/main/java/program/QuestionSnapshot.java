@@ -0,0 +1,361 @@
+package program;
+
+import program.attributes.fields.QuestionAttribute;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class containing the methods used to save and load a compact binary snapshot of a
+ * {@link QuestionList}, stored alongside the .csv file containing the {@link Question} data.
+ *
+ * <p>The .csv file remains the format in which {@code Question}s are exchanged and edited, but a
+ * snapshot can be written and read far more quickly, as no text needs to be formatted or parsed.
+ * {@link FileQuestionsInterface#createQuestionList(String, LoadMode)} prefers the snapshot whenever
+ * it was written from the current version of the .csv file (see {@link #isUpToDate(String)}).
+ *
+ * <p>A snapshot (version 2) consists of, in order:
+ * <ul>
+ *     <li>the {@link #MAGIC} number and the {@link #VERSION};</li>
+ *     <li>the size and modification time (in nanoseconds since the epoch) of the .csv file when the
+ *     snapshot was written, as longs;</li>
+ *     <li>the number of {@code Question}s;</li>
+ *     <li>for each {@link QuestionAttribute} (in the order given by
+ *     {@link QuestionAttribute#values()}), a dictionary of its distinct values (a count, then each
+ *     value as a length-prefixed UTF-8 string);</li>
+ *     <li>for each {@code QuestionAttribute}, a column holding the position in its dictionary of
+ *     each {@code Question}'s value;</li>
+ *     <li>the {@code INDEX}, {@code ATTEMPTED} and {@code CORRECT} columns as ints, and the
+ *     {@code EXPECTED_TIMES_ASKED} column as doubles.</li>
+ * </ul>
+ * The percentage and likelihood of each {@code Question} are not stored, as they are calculated
+ * from the other values. All values are big-endian.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionSnapshot {
+
+    /**
+     * The first four bytes of every snapshot ("QSNP").
+     */
+    private final static int MAGIC = 0x51534E50;
+
+    /**
+     * The version of the snapshot format written by this class. Snapshots of any other version are
+     * ignored.
+     */
+    private final static int VERSION = 2;
+
+    /**
+     * The length, in bytes, of the header at the start of every snapshot, up to and including the
+     * modification time of the .csv file.
+     */
+    private final static int HEADER_LENGTH = 2 * Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * The extension added to the location of a .csv file to give the location of its snapshot.
+     */
+    private final static String EXTENSION = ".snapshot";
+
+    /**
+     * The size of the buffer used when writing a snapshot.
+     */
+    private final static int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Returns the location of the snapshot for the .csv file at the provided
+     * {@code fileLocation}.
+     *
+     * @param fileLocation
+     *         the location of the .csv file containing the {@link Question} data.
+     *
+     * @return the location of the snapshot for the .csv file at the provided {@code fileLocation}.
+     */
+    static String getSnapshotLocation(String fileLocation) {
+        return fileLocation + EXTENSION;
+    }
+
+    /**
+     * Returns {@code true} if a snapshot exists for the .csv file at the provided
+     * {@code fileLocation}, and the size and modification time of the .csv file are exactly those
+     * recorded in the snapshot when it was written (meaning it should be loaded instead of the .csv
+     * file).
+     *
+     * <p>The snapshot's own modification time is not compared with the .csv file's, as a .csv file
+     * edited by another program can be older than the snapshot (for instance, if its modification
+     * time was kept when it was copied or extracted), or have the same modification time, if
+     * modification times are only recorded to the second. The edit would then be replaced by the
+     * snapshot's {@code Question}s, and lost when the file is next saved.
+     *
+     * @param fileLocation
+     *         the location of the .csv file containing the {@link Question} data.
+     *
+     * @return {@code true} if an up-to-date snapshot exists for the .csv file at the provided
+     *         {@code fileLocation}, {@code false} otherwise.
+     */
+    static boolean isUpToDate(String fileLocation) {
+        Path snapshotPath = Path.of(getSnapshotLocation(fileLocation));
+
+        try {
+            BasicFileAttributes csvAttributes = Files.readAttributes(Path.of(fileLocation),
+                    BasicFileAttributes.class);
+            if (!csvAttributes.isRegularFile() || !Files.isRegularFile(snapshotPath)) {
+                return false;
+            }
+
+            try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                while (header.hasRemaining() && channel.read(header) >= 0) {
+                    // Keep reading until the header is complete, or the snapshot ends
+                }
+                if (header.hasRemaining()) {
+                    return false;
+                }
+
+                header.flip();
+                return header.getInt() == MAGIC && header.getInt() == VERSION &&
+                        header.getLong() == csvAttributes.size() &&
+                        header.getLong() == getModifiedTime(csvAttributes);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the modification time recorded in the provided {@code attributes} of a .csv file,
+     * in nanoseconds since the epoch.
+     */
+    private static long getModifiedTime(BasicFileAttributes attributes) {
+        return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Writes a snapshot of the {@link Question}s in the provided {@code progress} to the snapshot
+     * location for the provided {@code fileLocation}. The snapshot is written to a temporary file
+     * first, which then replaces any existing snapshot, so an interrupted write never leaves a
+     * partial snapshot behind.
+     *
+     * <p>The provided size and modification time of the .csv file are recorded in the snapshot.
+     * They must be those of the .csv file as written with the same {@code Question}s, read before
+     * it replaced the previous file (see {@link QuestionFileWriter#write(String,
+     * QuestionProgress)}), rather than read from the file again now, as the file may already have
+     * been changed by another program. The snapshot would then be loaded in place of that change.
+     *
+     * @param fileLocation
+     *         the location of the .csv file containing the {@code Question} data.
+     * @param progress
+     *         the {@code Question}s to write a snapshot of, and their progress (see
+     *         {@link QuestionProgress}).
+     * @param csvAttributes
+     *         the attributes of the .csv file as written with the same {@code Question}s.
+     *
+     * @throws IOException
+     *         if the snapshot could not be written for any reason.
+     */
+    static void save(String fileLocation, QuestionProgress progress,
+            BasicFileAttributes csvAttributes) throws IOException {
+        Path snapshotPath = Path.of(getSnapshotLocation(fileLocation));
+        Path tempPath = Path.of(snapshotPath + ".tmp");
+        QuestionAttribute[] attributes = QuestionAttribute.values();
+        int numQuestions = progress.getNumQuestions();
+
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(csvAttributes.size());
+            buffer.putLong(getModifiedTime(csvAttributes));
+            buffer.putInt(numQuestions);
+
+            // Dictionary-encode each attribute, writing the dictionaries before the columns
+            DictionaryColumn[] columns = new DictionaryColumn[attributes.length];
+            for (QuestionAttribute attribute : attributes) {
+                DictionaryColumn column = DictionaryColumn.encode(attribute, numQuestions,
+                        progress::getQuestion);
+                columns[attribute.ordinal()] = column;
+
+                buffer = ensureSpace(channel, buffer, Integer.BYTES);
+                buffer.putInt(column.getValues().length);
+                for (String value : column.getValues()) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    buffer = ensureSpace(channel, buffer, Integer.BYTES + bytes.length);
+                    buffer.putInt(bytes.length);
+                    buffer.put(bytes);
+                }
+            }
+
+            for (DictionaryColumn column : columns) {
+                for (int code : column.getCodes()) {
+                    buffer = ensureSpace(channel, buffer, Integer.BYTES);
+                    buffer.putInt(code);
+                }
+            }
+
+            for (int i = 0; i < numQuestions; i++) {
+                buffer = ensureSpace(channel, buffer, Integer.BYTES);
+                buffer.putInt(progress.getQuestion(i).getIndex());
+            }
+            for (int i = 0; i < numQuestions; i++) {
+                buffer = ensureSpace(channel, buffer, Integer.BYTES);
+                buffer.putInt(progress.getAttempted(i));
+            }
+            for (int i = 0; i < numQuestions; i++) {
+                buffer = ensureSpace(channel, buffer, Integer.BYTES);
+                buffer.putInt(progress.getCorrect(i));
+            }
+            for (int i = 0; i < numQuestions; i++) {
+                buffer = ensureSpace(channel, buffer, Double.BYTES);
+                buffer.putDouble(progress.getExpectedTimesAsked(i));
+            }
+
+            flush(channel, buffer);
+        }
+
+        Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns a new ArrayList of {@link Question}s read from the snapshot for the .csv file at the
+     * provided {@code fileLocation}.
+     *
+     * @param fileLocation
+     *         the location of the .csv file containing the {@code Question} data.
+     *
+     * @return a new ArrayList of {@code Question}s read from the snapshot.
+     *
+     * @throws IOException
+     *         if the snapshot could not be read for any reason, is of a different version, or is
+     *         not a valid snapshot.
+     */
+    static ArrayList<Question> load(String fileLocation) throws IOException {
+        Path snapshotPath = Path.of(getSnapshotLocation(fileLocation));
+
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to be read!");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("File is not a snapshot!");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Snapshot version " + version + " is not supported " +
+                        "(expected " + VERSION + ")!");
+            }
+            // The size and modification time of the .csv file are checked by isUpToDate
+            buffer.position(HEADER_LENGTH);
+            int numQuestions = buffer.getInt();
+            if (numQuestions < 0) {
+                throw new IOException("Snapshot has a negative number of questions!");
+            }
+
+            QuestionAttribute[] attributes = QuestionAttribute.values();
+            String[][] dictionaries = new String[attributes.length][];
+            for (int i = 0; i < attributes.length; i++) {
+                String[] values = new String[buffer.getInt()];
+                for (int j = 0; j < values.length; j++) {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    values[j] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                dictionaries[i] = values;
+            }
+
+            String[][] attributeValues = new String[numQuestions][attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                for (int j = 0; j < numQuestions; j++) {
+                    attributeValues[j][i] = dictionaries[i][buffer.getInt()];
+                }
+            }
+
+            int[] indexes = new int[numQuestions];
+            int[] attempted = new int[numQuestions];
+            int[] correct = new int[numQuestions];
+            buffer.asIntBuffer().get(indexes);
+            buffer.position(buffer.position() + numQuestions * Integer.BYTES);
+            buffer.asIntBuffer().get(attempted);
+            buffer.position(buffer.position() + numQuestions * Integer.BYTES);
+            buffer.asIntBuffer().get(correct);
+            buffer.position(buffer.position() + numQuestions * Integer.BYTES);
+
+            ArrayList<Question> questions = new ArrayList<>(numQuestions);
+            for (int i = 0; i < numQuestions; i++) {
+                questions.add(new Question(indexes[i], attributeValues[i], attempted[i],
+                        correct[i], buffer.getDouble()));
+            }
+
+            return questions;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException |
+                 NegativeArraySizeException | IllegalArgumentException e) {
+            throw new IOException("Snapshot is truncated or corrupt!", e);
+        }
+    }
+
+    /**
+     * Returns a buffer with at least {@code bytes} bytes remaining, writing the contents of the
+     * provided {@code buffer} to the {@code channel} first if necessary. If the provided buffer is
+     * too small to ever hold {@code bytes} bytes, a new, larger buffer is returned.
+     *
+     * @param channel
+     *         the channel to which the snapshot is being written.
+     * @param buffer
+     *         the buffer currently being filled.
+     * @param bytes
+     *         the number of bytes about to be put in the buffer.
+     *
+     * @return a buffer with at least {@code bytes} bytes remaining.
+     *
+     * @throws IOException
+     *         if an I/O error occurs while writing to the {@code channel}.
+     */
+    private static ByteBuffer ensureSpace(FileChannel channel, ByteBuffer buffer, int bytes)
+            throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes);
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Writes the contents of the provided {@code buffer} to the {@code channel}, and clears the
+     * buffer.
+     *
+     * @param channel
+     *         the channel to which the snapshot is being written.
+     * @param buffer
+     *         the buffer to write.
+     *
+     * @throws IOException
+     *         if an I/O error occurs while writing to the {@code channel}.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
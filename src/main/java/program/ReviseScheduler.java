@@ -0,0 +1,247 @@
+package program;
+
+import program.attributes.fields.QuestionNumericalAttribute;
+import program.helpers.SortingKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Schedules the {@link Question}s of a {@link QuestionList} to be asked one at a time, in the
+ * order given by a {@link SortingKey} with a {@link QuestionNumericalAttribute} key, asking the
+ * {@code Question} which would be first if the list were sorted (stably) before every question
+ * (see {@link Main#runRevise}).
+ *
+ * <p>When ordering by any value other than the expected times asked or the likelihood (and no
+ * {@code Question} appears in the list more than once), an answer can only change the value of
+ * the {@code Question} answered. The positions of the {@code Question}s in the list are then held
+ * in a binary heap, with the {@code Question} that would be first in the sorted list at the top.
+ * The {@code Question} answered is always the one at the top, so when its value changes it is
+ * moved down to its new place in O(log n) time, rather than re-sorting the whole list in
+ * O(n log n) time.
+ *
+ * <p>Sorting the list before every question is stable, so two {@code Question}s with the same
+ * value are asked in the order they were in after the previous sort. The {@code Question} answered
+ * is always the first in the list, so sorting puts it before every {@code Question} with the same
+ * new value, and no other {@code Question}'s value changes. The heap therefore gives two
+ * {@code Question}s with the same value in the same order as sorting by putting the one answered
+ * most recently first, or, if neither has been answered, the one earlier in the list.
+ *
+ * <p>Every answer changes the expected times asked (and so the likelihood) of every
+ * {@code Question} in the list, so when ordering by either of these, every {@code Question} would
+ * have to be moved after each answer, which takes longer than sorting. The positions are instead
+ * sorted (stably) after each answer, starting from their previous order, which is already almost
+ * sorted.
+ *
+ * <p>A {@code ReviseScheduler} keeps the list it was created for in its original order. Changes
+ * to the values of its {@code Question}s made other than through
+ * {@link #answeredNextQuestion(boolean)} are not seen until {@link #refresh()} is called.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+public class ReviseScheduler {
+
+    /**
+     * The list whose {@link Question}s are being scheduled.
+     */
+    private final QuestionList QUESTIONS;
+
+    /**
+     * The {@link QuestionNumericalAttribute} by which the {@link Question}s are ordered.
+     */
+    private final QuestionNumericalAttribute KEY;
+
+    /**
+     * Whether the {@link Question}s are ordered from the greatest value to the smallest
+     * ({@code true}), or from the smallest to the greatest ({@code false}).
+     */
+    private final boolean IS_REVERSE;
+
+    /**
+     * The positions in the list of the {@link Question}s, arranged as a binary heap if
+     * {@code isOnlyAnsweredChanged}, or in the order in which they should be asked otherwise.
+     */
+    private final Integer[] order;
+
+    /**
+     * The value of the {@code KEY} for the {@link Question} at each position in the list, as of
+     * the last time it was placed in the {@code order}.
+     */
+    private final double[] values;
+
+    /**
+     * The number of answers recorded when the {@link Question} at each position in the list was
+     * last answered, or -1 if it has not been answered, used to break ties between equal
+     * {@code values} in the heap.
+     */
+    private final int[] answeredAt;
+
+    /**
+     * The number of answers recorded by this {@code ReviseScheduler}.
+     */
+    private int answers;
+
+    /**
+     * Whether an answer can only change the value of the {@link Question} answered, which is the
+     * case if the {@code KEY} does not depend on the expected times asked, and no
+     * {@code Question} appears in the list more than once. If so, the {@code order} is a heap.
+     */
+    private boolean isOnlyAnsweredChanged;
+
+    /**
+     * Creates a new {@code ReviseScheduler} for the provided {@code questions}, ordered by the
+     * provided {@code sortingKey}.
+     *
+     * @param questions
+     *         the {@link QuestionList} whose {@link Question}s should be scheduled.
+     * @param sortingKey
+     *         the {@link SortingKey} giving the order in which to ask the {@code Question}s.
+     *
+     * @throws IllegalArgumentException
+     *         if the {@code sortingKey} does not have a {@link QuestionNumericalAttribute} key.
+     */
+    ReviseScheduler(QuestionList questions, SortingKey sortingKey)
+            throws IllegalArgumentException {
+        if (!sortingKey.hasQuestionNumericalAttributeKey()) {
+            throw new IllegalArgumentException("Provided SortingKey \"" + sortingKey + "\" does " +
+                    "not have a QuestionNumericalAttributeKey!");
+        }
+
+        int numQuestions = questions.getNumQuestions();
+
+        this.QUESTIONS = questions;
+        this.KEY = sortingKey.getQuestionNumericalAttributeKey();
+        this.IS_REVERSE = sortingKey.isReverse();
+        this.order = new Integer[numQuestions];
+        this.values = new double[numQuestions];
+        this.answeredAt = new int[numQuestions];
+
+        refresh();
+    }
+
+    /**
+     * Re-reads the value of every {@link Question} in the list and puts them back in order,
+     * forgetting any earlier answers (so ties are broken by position in the list). The heap is
+     * rebuilt in O(n) time.
+     */
+    public void refresh() {
+        ArrayList<Question> questionsList = QUESTIONS.getQuestions();
+        answers = 0;
+
+        Set<Question> distinctQuestions = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinctQuestions.addAll(questionsList);
+        isOnlyAnsweredChanged = KEY != QuestionNumericalAttribute.EXPECTED_TIMES_ASKED &&
+                KEY != QuestionNumericalAttribute.LIKELIHOOD &&
+                distinctQuestions.size() == questionsList.size();
+
+        for (int position = 0; position < order.length; position++) {
+            values[position] = questionsList.get(position).getNumericalAttributeValue(KEY);
+            answeredAt[position] = -1;
+            order[position] = position;
+        }
+
+        if (isOnlyAnsweredChanged) {
+            for (int slot = order.length / 2 - 1; slot >= 0; slot--) {
+                siftDown(slot);
+            }
+        } else {
+            Arrays.sort(order, (positionOne, positionTwo) ->
+                    compare(values[positionOne], values[positionTwo]));
+        }
+    }
+
+    /**
+     * Returns the {@link Question} which should be asked next.
+     *
+     * @return the {@code Question} which should be asked next.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the list is empty.
+     */
+    public Question getNextQuestion() throws IndexOutOfBoundsException {
+        return QUESTIONS.getQuestions().get(order[0]);
+    }
+
+    /**
+     * Records an answer to the {@link Question} returned by {@link #getNextQuestion()} in the list
+     * (see {@link QuestionList#answeredQuestion(int, boolean)}), and moves the {@code Question}
+     * answered to its new place in the heap, or re-sorts every {@code Question} if the answer may
+     * have changed the value of more than the {@code Question} answered.
+     *
+     * @param isCorrect
+     *         whether the question was answered correctly.
+     */
+    public void answeredNextQuestion(boolean isCorrect) {
+        ArrayList<Question> questionsList = QUESTIONS.getQuestions();
+        int answeredPosition = order[0];
+
+        QUESTIONS.answeredQuestion(answeredPosition, isCorrect);
+        answers++;
+        answeredAt[answeredPosition] = answers;
+
+        if (isOnlyAnsweredChanged) {
+            values[answeredPosition] =
+                    questionsList.get(answeredPosition).getNumericalAttributeValue(KEY);
+            siftDown(0);
+        } else {
+            for (int position = 0; position < order.length; position++) {
+                values[position] = questionsList.get(position).getNumericalAttributeValue(KEY);
+            }
+            Arrays.sort(order, (positionOne, positionTwo) ->
+                    compare(values[positionOne], values[positionTwo]));
+        }
+    }
+
+    /**
+     * Returns {@code true} if the {@link Question} at position {@code positionOne} in the list
+     * should be asked before the one at position {@code positionTwo}, when the {@code order} is a
+     * heap.
+     */
+    private boolean isBefore(int positionOne, int positionTwo) {
+        int comparison = compare(values[positionOne], values[positionTwo]);
+        if (comparison != 0) {
+            return comparison < 0;
+        }
+
+        if (answeredAt[positionOne] != answeredAt[positionTwo]) {
+            return answeredAt[positionOne] > answeredAt[positionTwo];
+        }
+        return positionOne < positionTwo;
+    }
+
+    /**
+     * Compares two values in the order in which their {@link Question}s should be asked.
+     */
+    private int compare(double valueOne, double valueTwo) {
+        if (IS_REVERSE) {
+            return Double.compare(valueTwo, valueOne);
+        } else {
+            return Double.compare(valueOne, valueTwo);
+        }
+    }
+
+    private void siftDown(int slot) {
+        int position = order[slot];
+
+        while (true) {
+            int childSlot = 2 * slot + 1;
+            if (childSlot >= order.length) {
+                break;
+            }
+            if (childSlot + 1 < order.length && isBefore(order[childSlot + 1], order[childSlot])) {
+                childSlot++;
+            }
+            if (!isBefore(order[childSlot], position)) {
+                break;
+            }
+
+            order[slot] = order[childSlot];
+            slot = childSlot;
+        }
+
+        order[slot] = position;
+    }
+}
@@ -7,5 +7,6 @@ package program;
 public enum RunType {
     REVISE,
     TEST,
-    CUSTOM;
+    CUSTOM,
+    WEIGHTED_REVISE;
 }
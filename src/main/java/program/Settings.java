@@ -24,6 +24,40 @@ public class Settings {
     // + absolute
     private static double timesAskedPercentageOffset = 25;
     private static double timesAskedAbsoluteOffset = 2;
+    // files are read line by line unless MEMORY_MAPPED or PARALLEL is chosen here (every mode
+    // loads exactly the same questions)
+    private static LoadMode loadMode = LoadMode.STANDARD;
+    private static int loadThreads = Runtime.getRuntime().availableProcessors();
+    // files smaller than this many bytes are not worth splitting between threads
+    private static int parallelLoadMinimumBytes = 1 << 20;
+    // invalid lines are skipped (and incorrect percentages and likelihoods recalculated) and
+    // summarised once loading finishes, listing at most this many problems, rather than the
+    // first invalid line stopping the load
+    private static boolean lenientLoad = false;
+    private static int loadReportMaximumProblems = 20;
+    // when enabled, a binary snapshot of the questions ("<file>.snapshot") is written alongside the
+    // file each time it is saved, and loaded instead of the file while the file is unchanged
+    private static boolean useSnapshots = false;
+    // when enabled, each answer is recorded in a journal ("<file>.journal") alongside the file, so
+    // that answers given since the file was last saved are restored if the program stops early
+    private static boolean useJournal = false;
+    // when enabled, progress is written to the file (and its snapshot) in the background while
+    // questions are answered, through a temporary "<file>.tmp" file; saved progress cannot be
+    // discarded, so the user is no longer asked whether to save their changes on exit
+    private static boolean useAutosave = false;
+    // progress is saved in the background once this many answers have been given since it was last
+    // saved, or once this many seconds have passed since it was last saved (and a question has
+    // been answered)
+    private static int autosaveAnswers = 50;
+    private static int autosaveIntervalSeconds = 60;
+    // when enabled, changes made to the file by another program are parsed in the background (on
+    // a thread watching the file's directory) once the file has stopped changing for this many
+    // milliseconds, and applied when the home page is next shown
+    private static boolean watchFile = false;
+    private static int watchSettleMillis = 500;
+    // when a directory is loaded, every file in it whose name matches this glob pattern is loaded
+    // (and a directory is never watched)
+    private static String bankFilePattern = "*.{csv,csv.gz}";
 
     //FILE-READ SETTINGS END
 
@@ -74,7 +108,11 @@ public class Settings {
             " in which to sort and display the " +
             "questions, for " +
             "instance by title, or by number of " +
-            "times answered correctly";
+            "times answered correctly\n" +
+            "4. Type \"W\" to revise questions in a" +
+            " random order, where the questions the" +
+            " program determines are most important" +
+            " are the most likely to be asked";
     private final static String uponRun =
             "For each question, type \"Y\" if you were able to answer " +
                     "the question correctly, or \"N\" to indicate you were not";
@@ -125,6 +163,10 @@ public class Settings {
             "If you don't keep going, you will be looked at as a failed individual"};
     private static int motivationalMessagesFrequency = 4;
 
+    // how much the expected times asked of every question may grow before the weights used to
+    // draw questions when revising in a random order are recalculated
+    private static double weightedReviseMaximumDrift = 0.1;
+
     public static String getExitCommand() {
         return exitCommand;
     }
@@ -182,6 +224,10 @@ public class Settings {
         return motivationalMessagesFrequency;
     }
 
+    public static double getWeightedReviseMaximumDrift() {
+        return weightedReviseMaximumDrift;
+    }
+
     public static double getPercentageWeighting() {
         return percentageWeighting;
     }
@@ -194,6 +240,67 @@ public class Settings {
         return timesAskedAbsoluteOffset;
     }
 
+    public static LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    public static int getLoadThreads() {
+        return loadThreads;
+    }
+
+    public static int getParallelLoadMinimumBytes() {
+        return parallelLoadMinimumBytes;
+    }
+
+    // only changed by tests, so that small files are split between several threads
+    static void setLoadThreads(int threads) {
+        loadThreads = threads;
+    }
+
+    static void setParallelLoadMinimumBytes(int bytes) {
+        parallelLoadMinimumBytes = bytes;
+    }
+
+    public static boolean isLenientLoad() {
+        return lenientLoad;
+    }
+
+    public static int getLoadReportMaximumProblems() {
+        return loadReportMaximumProblems;
+    }
+
+    public static boolean isUseSnapshots() {
+        return useSnapshots;
+    }
+
+    public static boolean isUseJournal() {
+        return useJournal;
+    }
+
+    public static boolean isUseAutosave() {
+        return useAutosave;
+    }
+
+    public static int getAutosaveAnswers() {
+        return autosaveAnswers;
+    }
+
+    public static int getAutosaveIntervalSeconds() {
+        return autosaveIntervalSeconds;
+    }
+
+    public static boolean isWatchFile() {
+        return watchFile;
+    }
+
+    public static int getWatchSettleMillis() {
+        return watchSettleMillis;
+    }
+
+    public static String getBankFilePattern() {
+        return bankFilePattern;
+    }
+
     public static void loadFromFile() {
         Scanner file = null;
         String settingsDirectory = Settings.class.getProtectionDomain().getCodeSource()
@@ -0,0 +1,243 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Draws the {@link Question}s of a {@link QuestionList} to be asked one at a time at random, with
+ * each {@code Question} drawn with probability proportional to its likelihood (see
+ * {@link Main#runWeightedRevise}). The {@code Question} asked most recently is never drawn again
+ * immediately, unless it is the only one in the list.
+ *
+ * <p>The weights are held in a Fenwick (binary indexed) tree over the positions in the list, so
+ * drawing a {@code Question} and changing the weight of one {@code Question} both take O(log n)
+ * time, however large the list.
+ *
+ * <p>Every answer changes the likelihood of every {@code Question} in the list, but only slightly:
+ * the expected times asked of each grows by {@code 1 / (size of list)}. Rather than re-weighting
+ * every {@code Question} after every answer, only the {@code Question} answered is re-weighted
+ * straight away, and the whole tree is rebuilt from the current likelihoods in O(n) time once
+ * every {@code Question}'s expected times asked has grown by
+ * {@link Settings#getWeightedReviseMaximumDrift()} since the last rebuild.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+public class WeightedSampler {
+
+    /**
+     * The list whose {@link Question}s are being drawn.
+     */
+    private final QuestionList QUESTIONS;
+
+    /**
+     * The source of randomness used to draw {@link Question}s.
+     */
+    private final Random RANDOM;
+
+    /**
+     * The weight of the {@link Question} at each position in the list.
+     */
+    private final double[] weights;
+
+    /**
+     * The Fenwick tree of the {@code weights}. The element at index {@code i} (starting from 1)
+     * holds the sum of the weights of the {@code i & -i} positions ending at position
+     * {@code i - 1}.
+     */
+    private final double[] tree;
+
+    /**
+     * The number of answers after which the tree is rebuilt.
+     */
+    private final int REBUILD_ANSWERS;
+
+    /**
+     * The number of answers recorded since the tree was last rebuilt.
+     */
+    private int answersSinceRebuild;
+
+    /**
+     * The position in the list of the {@link Question} asked most recently, which is given a
+     * weight of zero, or -1 if no {@code Question} has been asked.
+     */
+    private int lastPosition;
+
+    /**
+     * The position in the list of the {@link Question} drawn to be asked next, or -1 if it has not
+     * been drawn yet.
+     */
+    private int nextPosition;
+
+    /**
+     * Creates a new {@code WeightedSampler} for the provided {@code questions}.
+     *
+     * @param questions
+     *         the {@link QuestionList} whose {@link Question}s should be drawn.
+     * @param random
+     *         the source of randomness used to draw {@code Question}s.
+     */
+    WeightedSampler(QuestionList questions, Random random) {
+        int numQuestions = questions.getNumQuestions();
+
+        this.QUESTIONS = questions;
+        this.RANDOM = random;
+        this.weights = new double[numQuestions];
+        this.tree = new double[numQuestions + 1];
+        this.REBUILD_ANSWERS = (int) Math.max(1,
+                Math.ceil(Settings.getWeightedReviseMaximumDrift() * numQuestions));
+        this.lastPosition = -1;
+        this.nextPosition = -1;
+
+        rebuild();
+    }
+
+    /**
+     * Returns the {@link Question} which should be asked next, drawing it at random if it has not
+     * been drawn already.
+     *
+     * @return the {@code Question} which should be asked next.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the list is empty.
+     */
+    public Question getNextQuestion() throws IndexOutOfBoundsException {
+        if (nextPosition == -1) {
+            nextPosition = draw();
+        }
+
+        return QUESTIONS.getQuestions().get(nextPosition);
+    }
+
+    /**
+     * Records an answer to the {@link Question} returned by {@link #getNextQuestion()} in the list
+     * (see {@link QuestionList#answeredQuestion(int, boolean)}), and updates the weights.
+     *
+     * @param isCorrect
+     *         whether the question was answered correctly.
+     */
+    public void answeredNextQuestion(boolean isCorrect) {
+        int answeredPosition = nextPosition;
+        if (answeredPosition == -1) {
+            answeredPosition = draw();
+        }
+
+        QUESTIONS.answeredQuestion(answeredPosition, isCorrect);
+        nextPosition = -1;
+
+        int previousPosition = lastPosition;
+        lastPosition = answeredPosition;
+        answersSinceRebuild++;
+
+        if (answersSinceRebuild >= REBUILD_ANSWERS) {
+            rebuild();
+        } else {
+            setWeight(answeredPosition, 0);
+            if (previousPosition != -1 && previousPosition != answeredPosition) {
+                setWeight(previousPosition, getLikelihood(previousPosition));
+            }
+        }
+    }
+
+    /**
+     * Recalculates the weight of every position in the list from the current likelihoods, and
+     * rebuilds the tree from them in O(n) time.
+     */
+    private void rebuild() {
+        for (int position = 0; position < weights.length; position++) {
+            weights[position] = getLikelihood(position);
+        }
+        if (lastPosition != -1) {
+            weights[lastPosition] = 0;
+        }
+
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] = weights[i - 1];
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+
+        answersSinceRebuild = 0;
+    }
+
+    /**
+     * Returns the likelihood of the {@link Question} at the provided {@code position} in the list,
+     * treating any negative value as zero.
+     */
+    private double getLikelihood(int position) {
+        return Math.max(QUESTIONS.getQuestions().get(position).getLikelihood(), 0);
+    }
+
+    /**
+     * Sets the weight of the provided {@code position} in the list, updating the tree in
+     * O(log n) time.
+     */
+    private void setWeight(int position, double weight) {
+        double change = weight - weights[position];
+        weights[position] = weight;
+
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i] += change;
+        }
+    }
+
+    /**
+     * Returns the sum of the weights of every position in the list.
+     */
+    private double getTotalWeight() {
+        double total = 0;
+        for (int i = weights.length; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    /**
+     * Draws a position in the list at random, with probability proportional to its weight. If
+     * every weight is zero (or the tree has drifted so far from the weights that it gives a
+     * position with no weight), a position other than the one asked most recently is drawn
+     * uniformly instead.
+     *
+     * @return the position drawn.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the list is empty.
+     */
+    private int draw() throws IndexOutOfBoundsException {
+        if (weights.length == 0) {
+            throw new IndexOutOfBoundsException("Cannot draw a question from an empty list!");
+        }
+
+        double totalWeight = getTotalWeight();
+        if (totalWeight > 0) {
+            double remaining = RANDOM.nextDouble() * totalWeight;
+            int position = 0;
+
+            // Find the first position at which the running total of weights exceeds the target
+            for (int step = Integer.highestOneBit(weights.length); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next < tree.length && tree[next] <= remaining) {
+                    position = next;
+                    remaining -= tree[next];
+                }
+            }
+
+            if (position < weights.length && weights[position] > 0) {
+                return position;
+            }
+        }
+
+        if (weights.length == 1) {
+            return 0;
+        }
+
+        int position = RANDOM.nextInt(weights.length - (lastPosition == -1 ? 0 : 1));
+        if (lastPosition != -1 && position >= lastPosition) {
+            position++;
+        }
+        return position;
+    }
+}
@@ -7,6 +7,8 @@ import program.attributes.values.Subject;
 import program.exceptions.InvalidQuestionAttributeException;
 import program.helpers.ReformatString;
 
+import java.util.HashMap;
+
 /**
  * An enum containing a list of alphanumeric attributes for a {@link program.Question Question} (eg
  * {@code TITLE}, {@code TOPIC}) and their respective lists of valid values, along with a number of
@@ -27,6 +29,13 @@ public enum QuestionAttribute {
      */
     private final String[] VALID_VALUES;
 
+    /**
+     * A lookup table from each valid value, and the case-folded form of each valid value (see
+     * {@link ReformatString#foldCase(String)}), to the first valid value equal to it ignoring
+     * case, or {@code null} if the {@code QuestionAttribute} has no list of valid values.
+     */
+    private final HashMap<String, String> VALID_VALUE_LOOKUP;
+
     /**
      * Creates a new {@code QuestionAttribute} with the provided array as its array of valid
      * values.
@@ -36,6 +45,22 @@ public enum QuestionAttribute {
      */
     QuestionAttribute(String[] validValues) {
         this.VALID_VALUES = validValues;
+
+        if (validValues == null) {
+            this.VALID_VALUE_LOOKUP = null;
+        } else {
+            HashMap<String, String> foldedValues = new HashMap<>();
+            for (String validValue : validValues) {
+                foldedValues.putIfAbsent(ReformatString.foldCase(validValue), validValue);
+            }
+
+            // Valid values are looked up as they are first, so they are found without folding
+            this.VALID_VALUE_LOOKUP = new HashMap<>(foldedValues);
+            for (String validValue : validValues) {
+                VALID_VALUE_LOOKUP.put(validValue,
+                        foldedValues.get(ReformatString.foldCase(validValue)));
+            }
+        }
     }
 
     /**
@@ -65,6 +90,10 @@ public enum QuestionAttribute {
      * capitalisation of the value as specified in the list of valid values. If the attribute does
      * not have a list of valid values, the parameter is simply returned as is.
      *
+     * <p>The value is found in a lookup table built once for each {@code QuestionAttribute}, so
+     * this takes the same time however many valid values there are, and a value which already has
+     * the correct capitalisation is found without creating any new string.
+     *
      * @param value
      *         the valid value for the {@code QuestionAttribute} provided.
      * @param attribute
@@ -80,26 +109,43 @@ public enum QuestionAttribute {
      */
     public static String formatAttributeName(String value, QuestionAttribute attribute)
             throws InvalidQuestionAttributeException {
+        String returnString = findAttributeName(value, attribute);
+
+        if (returnString == null) {
+            throw new InvalidQuestionAttributeException(attribute, value);
+        }
+
+        return returnString;
+    }
+
+    /**
+     * Returns the provided {@code value} with the exact capitalisation of the matching valid value
+     * of the provided {@code QuestionAttribute}, as
+     * {@link #formatAttributeName(String, QuestionAttribute)} does, but returns {@code null}
+     * rather than throwing an exception if the value is invalid, so that many values can be
+     * checked cheaply (see {@link program.LoadReport LoadReport}).
+     *
+     * @param value
+     *         the value for the {@code QuestionAttribute} provided.
+     * @param attribute
+     *         the {@code QuestionAttribute} for which the value should be valid.
+     *
+     * @return the formatted value, or {@code null} if {@code value} is not a valid value for the
+     *         {@code QuestionAttribute} provided, or is blank (using isBlank).
+     */
+    public static String findAttributeName(String value, QuestionAttribute attribute) {
         if (attribute.VALID_VALUES == null) {
-            if (!value.isBlank()) {
-                return value;
-            } else {
-                throw new InvalidQuestionAttributeException(attribute, value);
-            }
+            return value.isBlank() ? null : value;
         }
 
         String returnString = null;
-        for (String elem : attribute.VALID_VALUES) {
-            if (elem.equalsIgnoreCase(value)) {
-                returnString = elem;
-                break;
+        if (value != null) {
+            returnString = attribute.VALID_VALUE_LOOKUP.get(value);
+            if (returnString == null) {
+                returnString = attribute.VALID_VALUE_LOOKUP.get(ReformatString.foldCase(value));
             }
         }
 
-        if (returnString == null) {
-            throw new InvalidQuestionAttributeException(attribute, value);
-        }
-
         return returnString;
     }
 
@@ -2,6 +2,7 @@ package program.attributes.fields;
 
 import program.Question;
 import program.exceptions.InvalidQuestionNumericalAttributeException;
+import program.helpers.DecimalRounding;
 import program.helpers.ReformatString;
 
 /**
@@ -93,6 +94,12 @@ public enum QuestionNumericalAttribute {
             double percentage,
             double expectedTimesAsked, double likelihood) throws
             InvalidQuestionNumericalAttributeException {
+        if (getInvalidAttribute(index, attempted, correct, percentage, expectedTimesAsked,
+                likelihood) == null) {
+            return;
+        }
+
+        // Find the problem again, to describe it
         assertAttributeNotLessThanZero(index, INDEX);
         assertAttributeNotLessThanZero(attempted, ATTEMPTED);
         assertAttributeNotLessThanZero(correct, CORRECT);
@@ -107,40 +114,103 @@ public enum QuestionNumericalAttribute {
             throw new InvalidQuestionNumericalAttributeException(CORRECT, correct, errorMessage);
         }
 
-        double roundedFilePercentage = Double.parseDouble(String.format("%.2f", percentage));
-
         double calcPercentage;
         if (attempted == 0) {
             calcPercentage = 0;
         } else {
             calcPercentage = 100 * ((double) correct / attempted);
-            //TODO this is a janky way of doing this but it works
-            calcPercentage = Double.parseDouble(String.format("%.2f", calcPercentage));
         }
 
-        if (roundedFilePercentage != calcPercentage) {
+        if (!isEqualToTwoDecimalPlaces(percentage, calcPercentage)) {
             String errorMessage = "\"Percentage\" value for \"Correct\" = " + correct +
                     " and \"Attempted\" = " + attempted + " should be " +
-                    calcPercentage + ", got " +
+                    roundToTwoDecimalPlaces(calcPercentage) + ", got " +
                     percentage + "!";
             throw new InvalidQuestionNumericalAttributeException(PERCENTAGE, percentage,
                     errorMessage);
         }
 
-        double roundedFileLikelihood = Double.parseDouble(String.format("%.2f", likelihood));
-
         double calcLikelihood = Question.calculateLikelihood(attempted, percentage,
                 expectedTimesAsked);
-        calcLikelihood = Double.parseDouble(String.format("%.2f", calcLikelihood));
 
-        if (roundedFileLikelihood != calcLikelihood) {
+        if (!isEqualToTwoDecimalPlaces(likelihood, calcLikelihood)) {
             String errorMessage = "\"Likelihood\" value for \"Attempted\" = " + attempted +
                     ", \"Percentage\" = " + percentage +
                     " and \"Expected times asked\" = " +
-                    expectedTimesAsked + " should be " + calcLikelihood +
-                    ", got " + likelihood + "!";
+                    expectedTimesAsked + " should be " +
+                    roundToTwoDecimalPlaces(calcLikelihood) + ", got " + likelihood + "!";
             throw new InvalidQuestionNumericalAttributeException(LIKELIHOOD, likelihood,
                     errorMessage);
         }
     }
+
+    /**
+     * Returns the first of the {@code QuestionNumericalAttribute}s for which the provided value is
+     * invalid, checking them in the same order as
+     * {@link #assertAttributesValid(int, int, int, double, double, double)}, without creating an
+     * exception or any other object.
+     *
+     * @return the {@code QuestionNumericalAttribute} for which
+     *         {@code assertAttributesValid} would throw an exception, or {@code null} if every
+     *         value is valid.
+     */
+    public static QuestionNumericalAttribute getInvalidAttribute(int index, int attempted,
+            int correct, double percentage, double expectedTimesAsked, double likelihood) {
+        if (index < 0) {
+            return INDEX;
+        } else if (attempted < 0) {
+            return ATTEMPTED;
+        } else if (correct < 0) {
+            return CORRECT;
+        } else if (percentage < 0) {
+            return PERCENTAGE;
+        } else if (expectedTimesAsked < 0) {
+            return EXPECTED_TIMES_ASKED;
+        } else if (likelihood < 0) {
+            return LIKELIHOOD;
+        } else if (correct > attempted) {
+            return CORRECT;
+        }
+
+        double calcPercentage = attempted == 0 ? 0 : 100 * ((double) correct / attempted);
+        if (!isEqualToTwoDecimalPlaces(percentage, calcPercentage)) {
+            return PERCENTAGE;
+        }
+
+        double calcLikelihood = Question.calculateLikelihood(attempted, percentage,
+                expectedTimesAsked);
+        if (!isEqualToTwoDecimalPlaces(likelihood, calcLikelihood)) {
+            return LIKELIHOOD;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns true if the provided values are equal when each is rounded to two decimal places,
+     * as by {@link #roundToTwoDecimalPlaces(double)}. Most values are rounded arithmetically (see
+     * {@link DecimalRounding}), so no strings are created, and only values which cannot be are
+     * rounded with {@code String.format}.
+     */
+    private static boolean isEqualToTwoDecimalPlaces(double value1, double value2) {
+        long hundredths1 = DecimalRounding.roundToHundredths(value1);
+        long hundredths2 = DecimalRounding.roundToHundredths(value2);
+
+        if (hundredths1 != DecimalRounding.NOT_ROUNDED &&
+                hundredths2 != DecimalRounding.NOT_ROUNDED) {
+            // Each number of hundredths is parsed to a different double
+            return hundredths1 == hundredths2;
+        }
+
+        return roundToTwoDecimalPlaces(value1) == roundToTwoDecimalPlaces(value2);
+    }
+
+    /**
+     * Returns the provided value rounded to two decimal places, as it is displayed and written to
+     * a file.
+     */
+    private static double roundToTwoDecimalPlaces(double value) {
+        //TODO this is a janky way of doing this but it works
+        return Double.parseDouble(String.format("%.2f", value));
+    }
 }
@@ -51,12 +51,18 @@ public class QuestionAttributeComparator implements Comparator<Question> {
      *         the second Question to be compared.
      *
      * @return {@code qOne}'s value for the comparator's attribute compared to {@code qTwo}'s value
-     *         for the same attribute, using {@link String#compareTo(String)}.
+     *         for the same attribute, using {@link String#compareTo(String)}. Questions loaded
+     *         from the same file share their values, so if both hold the same {@code String},
+     *         they are equal without comparing any characters.
      */
     public int compare(Question qOne, Question qTwo) {
         String qOneValue = qOne.getQuestionAttribute(ATT_TO_COMPARE);
         String qTwoValue = qTwo.getQuestionAttribute(ATT_TO_COMPARE);
 
+        if (qOneValue == qTwoValue) {
+            return 0;
+        }
+
         if (IS_REVERSE) {
             return qTwoValue.compareTo(qOneValue);
         } else {
@@ -56,8 +56,8 @@ public class QuestionNumericalAttributeComparator implements Comparator<Question
      *         for the same attribute, using {@link Double#compare(double, double)}.
      */
     public int compare(Question qOne, Question qTwo) {
-        double qOneValue = qOne.getQuestionNumericalAttribute(ATT_TO_COMPARE).doubleValue();
-        double qTwoValue = qTwo.getQuestionNumericalAttribute(ATT_TO_COMPARE).doubleValue();
+        double qOneValue = qOne.getNumericalAttributeValue(ATT_TO_COMPARE);
+        double qTwoValue = qTwo.getNumericalAttributeValue(ATT_TO_COMPARE);
 
         if (IS_REVERSE) {
             return Double.compare(qTwoValue, qOneValue);
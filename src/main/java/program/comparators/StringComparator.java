@@ -38,10 +38,13 @@ public class StringComparator implements Comparator<String> {
      *
      * @return the result of either {@code sOne.compareToIgnoreCase(sTwo)} or
      *         {@code sOne.compareTo(sTwo)}, depending on this comparator's value of
-     *         {@code ignoreCase}.
+     *         {@code ignoreCase}. If both are the same {@code String}, they are equal without
+     *         comparing any characters.
      */
     public int compare(String sOne, String sTwo) {
-        if (IS_IGNORE_CASE) {
+        if (sOne == sTwo) {
+            return 0;
+        } else if (IS_IGNORE_CASE) {
             return sOne.compareToIgnoreCase(sTwo);
         } else {
             return sOne.compareTo(sTwo);
@@ -0,0 +1,602 @@
+package program.helpers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helper class which splits a single line of a .csv file into its fields in one pass, recording
+ * the start and end offset of each field in a reusable buffer instead of creating a new string for
+ * every intermediate piece of the line.
+ *
+ * <p>A comma is treated as a field-separating comma only if it is not enclosed by quotes. Each
+ * double quote character (") toggles whether the tokenizer is inside a quoted section, so an
+ * escaped quote (a pair of double quotes "") inside a quoted field leaves the quoted section open.
+ * This gives exactly the same field boundaries as counting the number of quotes before each comma,
+ * and treating the comma as separating only if that number is even.
+ *
+ * <p>Field values are returned exactly as they appear in the line (including any surrounding
+ * quotes), so that they can be reformatted in the same way as before - see
+ * {@link ReformatString#removeWhitespaceAndQuotes(String)}.
+ *
+ * <p>A line can be provided either as a string, or as a range of UTF-8 encoded bytes (see
+ * {@link #tokenize(ByteBuffer, int, int)}). As the comma and double quote characters are both
+ * single bytes in UTF-8, and no byte of a multi-byte character can be mistaken for either, byte
+ * lines are split without being decoded - only the fields which are actually requested as strings
+ * are decoded.
+ *
+ * <p>Numeric fields can be read without creating a string at all (see {@link #getIntField(int)}
+ * and {@link #getDoubleField(int)}), directly from the characters or bytes of the line.
+ *
+ * <p>A {@code CSVLineTokenizer} is not thread-safe; each thread should use its own instance.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+public class CSVLineTokenizer {
+
+    /**
+     * The greatest number of digits in a number read directly by {@link #getIntField(int)}. Any
+     * number of at most this many digits fits in an {@code int}.
+     */
+    private static final int MAX_INT_DIGITS = 9;
+
+    /**
+     * The greatest number of digits in a number read directly by {@link #getDoubleField(int)}.
+     * Any integer of at most this many digits is exactly representable as a {@code double}.
+     */
+    private static final int MAX_DOUBLE_DIGITS = 15;
+
+    /**
+     * Each power of ten from 10^0 up to 10^{@value #MAX_DOUBLE_DIGITS}, all of which are exactly
+     * representable as a {@code double}.
+     */
+    private static final double[] POWERS_OF_TEN = new double[MAX_DOUBLE_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * The characters of the line most recently passed to {@link #tokenize(String)}. Only the first
+     * {@code length} characters are valid; the array is reused (and grown if necessary) between
+     * lines.
+     */
+    private char[] buffer;
+
+    /**
+     * The UTF-8 encoded bytes of the line most recently passed to
+     * {@link #tokenize(ByteBuffer, int, int)}. Only the first {@code length} bytes are valid; the
+     * array is reused (and grown if necessary) between lines.
+     */
+    private byte[] byteBuffer;
+
+    /**
+     * Whether the line most recently tokenized is held in the {@code byteBuffer} ({@code true}) or
+     * the {@code buffer} ({@code false}).
+     */
+    private boolean isBytes;
+
+    /**
+     * The number of valid characters (or bytes) in the {@code buffer} (or {@code byteBuffer}).
+     */
+    private int length;
+
+    /**
+     * The offset in the {@code buffer} of the first character of each field.
+     */
+    private int[] fieldStarts;
+
+    /**
+     * The offset in the {@code buffer} one past the last character of each field.
+     */
+    private int[] fieldEnds;
+
+    /**
+     * The number of fields found in the line most recently tokenized.
+     */
+    private int fieldCount;
+
+    /**
+     * Creates a new {@code CSVLineTokenizer}, with space for the provided number of fields. Lines
+     * with more fields than this are still tokenized correctly, the offset arrays are simply grown
+     * to fit.
+     *
+     * @param expectedFields
+     *         the number of fields each line is expected to have.
+     */
+    public CSVLineTokenizer(int expectedFields) {
+        buffer = new char[256];
+        byteBuffer = new byte[256];
+        fieldStarts = new int[Math.max(expectedFields, 1)];
+        fieldEnds = new int[Math.max(expectedFields, 1)];
+    }
+
+    /**
+     * Splits the provided {@code line} into its fields, replacing the result of any previous call.
+     *
+     * @param line
+     *         the line to split into fields.
+     *
+     * @return the number of fields in the provided {@code line}.
+     */
+    public int tokenize(String line) {
+        length = line.length();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+        }
+        line.getChars(0, length, buffer, 0);
+        isBytes = false;
+
+        return scan();
+    }
+
+    /**
+     * Splits the UTF-8 encoded line held in the provided {@code source} between the offsets
+     * {@code start} (inclusive) and {@code end} (exclusive) into its fields, replacing the result
+     * of any previous call. The position of the {@code source} is not changed.
+     *
+     * @param source
+     *         the buffer containing the line to split into fields.
+     * @param start
+     *         the offset in the {@code source} of the first byte of the line.
+     * @param end
+     *         the offset in the {@code source} one past the last byte of the line (not including
+     *         any line terminator).
+     *
+     * @return the number of fields in the line.
+     */
+    public int tokenize(ByteBuffer source, int start, int end) {
+        length = end - start;
+        if (byteBuffer.length < length) {
+            byteBuffer = new byte[Math.max(length, byteBuffer.length * 2)];
+        }
+        source.get(start, byteBuffer, 0, length);
+        isBytes = true;
+
+        return scanBytes();
+    }
+
+    /**
+     * Scans the first {@code length} characters of the {@code buffer}, recording the start and end
+     * offset of each field.
+     *
+     * @return the number of fields found.
+     */
+    private int scan() {
+        char[] chars = buffer;
+        boolean inQuotes = false;
+        int fieldStart = 0;
+        fieldCount = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, length);
+
+        return fieldCount;
+    }
+
+    /**
+     * Scans the first {@code length} bytes of the {@code byteBuffer}, recording the start and end
+     * offset of each field (see {@link #scan()}).
+     *
+     * @return the number of fields found.
+     */
+    private int scanBytes() {
+        byte[] bytes = byteBuffer;
+        boolean inQuotes = false;
+        int fieldStart = 0;
+        fieldCount = 0;
+
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == ',' && !inQuotes) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, length);
+
+        return fieldCount;
+    }
+
+    /**
+     * Records a new field with the provided offsets, growing the offset arrays if necessary.
+     *
+     * @param start
+     *         the offset of the first character of the field.
+     * @param end
+     *         the offset one past the last character of the field.
+     */
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            int[] newStarts = new int[fieldCount * 2];
+            int[] newEnds = new int[fieldCount * 2];
+            System.arraycopy(fieldStarts, 0, newStarts, 0, fieldCount);
+            System.arraycopy(fieldEnds, 0, newEnds, 0, fieldCount);
+            fieldStarts = newStarts;
+            fieldEnds = newEnds;
+        }
+
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Returns the number of fields found in the line most recently tokenized.
+     *
+     * @return the number of fields found in the line most recently tokenized.
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns the value of the field at the provided position in the line most recently tokenized,
+     * exactly as it appears in the line.
+     *
+     * @param field
+     *         the position of the field in the line (starting from 0).
+     *
+     * @return the value of the field at the provided position.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the line did not have a field at the provided position.
+     */
+    public String getField(int field) throws IndexOutOfBoundsException {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " requested, but line only " +
+                    "has " + fieldCount + " fields!");
+        }
+
+        int start = fieldStarts[field];
+        int fieldLength = fieldEnds[field] - start;
+
+        if (isBytes) {
+            return new String(byteBuffer, start, fieldLength, StandardCharsets.UTF_8);
+        } else {
+            return new String(buffer, start, fieldLength);
+        }
+    }
+
+    /**
+     * Returns the value of the field at the provided position in the line most recently tokenized,
+     * parsed as an integer, as by {@link Integer#parseInt(String)}.
+     *
+     * <p>A field consisting of an optional sign followed by at most {@value #MAX_INT_DIGITS} ASCII
+     * digits, as written by this program, is read directly from the line without creating a
+     * string. Any other field is parsed by {@code Integer.parseInt}.
+     *
+     * @param field
+     *         the position of the field in the line (starting from 0).
+     *
+     * @return the value of the field at the provided position, as an integer.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the line did not have a field at the provided position.
+     * @throws NumberFormatException
+     *         if the field is not an integer.
+     */
+    public int getIntField(int field) throws IndexOutOfBoundsException, NumberFormatException {
+        if (field < 0 || field >= fieldCount) {
+            return Integer.parseInt(getField(field));
+        }
+
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean isNegative = start < end && charAt(start) == '-';
+        if (start < end && (isNegative || charAt(start) == '+')) {
+            start++;
+        }
+
+        int value = 0;
+        boolean isSimple = start < end && end - start <= MAX_INT_DIGITS;
+        for (int i = start; i < end && isSimple; i++) {
+            int digit = charAt(i) - '0';
+            isSimple = digit >= 0 && digit <= 9;
+            value = value * 10 + digit;
+        }
+
+        if (!isSimple) {
+            return Integer.parseInt(getField(field));
+        }
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Returns the value of the field at the provided position in the line most recently tokenized,
+     * parsed as a number, as by {@link Double#parseDouble(String)}.
+     *
+     * <p>A field consisting of an optional sign followed by at most {@value #MAX_DOUBLE_DIGITS}
+     * ASCII digits with at most one decimal point among them, such as the two decimal place values
+     * written by this program, is read directly from the line without creating a string. Its
+     * digits, without the decimal point, form an integer which is exactly representable as a
+     * {@code double}, as is the power of ten by which it is divided, so the division gives exactly
+     * the same (correctly rounded) result as {@code Double.parseDouble}. Any other field is parsed
+     * by {@code Double.parseDouble}.
+     *
+     * @param field
+     *         the position of the field in the line (starting from 0).
+     *
+     * @return the value of the field at the provided position, as a {@code double}.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the line did not have a field at the provided position.
+     * @throws NumberFormatException
+     *         if the field is not a number.
+     */
+    public double getDoubleField(int field) throws IndexOutOfBoundsException,
+            NumberFormatException {
+        if (field < 0 || field >= fieldCount) {
+            return Double.parseDouble(getField(field));
+        }
+
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean isNegative = start < end && charAt(start) == '-';
+        if (start < end && (isNegative || charAt(start) == '+')) {
+            start++;
+        }
+
+        long digits = 0;
+        int numDigits = 0;
+        int decimalPoint = -1;
+        boolean isSimple = true;
+        for (int i = start; i < end && isSimple; i++) {
+            int c = charAt(i);
+
+            if (c == '.' && decimalPoint == -1) {
+                decimalPoint = i;
+            } else if (c >= '0' && c <= '9' && numDigits < MAX_DOUBLE_DIGITS) {
+                digits = digits * 10 + (c - '0');
+                numDigits++;
+            } else {
+                isSimple = false;
+            }
+        }
+
+        if (!isSimple || numDigits == 0) {
+            return Double.parseDouble(getField(field));
+        }
+
+        double value = digits;
+        if (decimalPoint != -1) {
+            value /= POWERS_OF_TEN[end - decimalPoint - 1];
+        }
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Returns {@code true} if {@link #getIntField(int)} would return a value for the field at the
+     * provided position in the line most recently tokenized, rather than throwing an exception, so
+     * that invalid fields can be found without the cost of creating one (see
+     * {@link program.LoadReport LoadReport}).
+     *
+     * <p>The field is checked exactly as {@link Integer#parseInt(String)} parses it: an optional
+     * sign, followed by at least one digit, with a value in the range of an {@code int}.
+     *
+     * @param field
+     *         the position of the field in the line (starting from 0).
+     *
+     * @return {@code true} if the field is an integer, {@code false} otherwise (including if the
+     *         line has no field at the provided position).
+     */
+    public boolean isIntField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            return false;
+        }
+
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        for (int i = start; i < end; i++) {
+            if (charAt(i) >= 0x80) {
+                // Integer.parseInt accepts digits other than ASCII ones, so decode the field
+                return isInteger(getField(field));
+            }
+        }
+
+        boolean isNegative = start < end && charAt(start) == '-';
+        if (start < end && (isNegative || charAt(start) == '+')) {
+            start++;
+        }
+        if (start == end) {
+            return false;
+        }
+
+        long limit = isNegative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(charAt(i), 10);
+            value = value * 10 + digit;
+            if (digit < 0 || value > limit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the provided string is an integer, as by {@link #isIntField(int)}.
+     */
+    private static boolean isInteger(String s) {
+        int start = s.startsWith("-") || s.startsWith("+") ? 1 : 0;
+        if (start == s.length()) {
+            return false;
+        }
+
+        long limit = s.startsWith("-") ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (int i = start; i < s.length(); i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            value = value * 10 + digit;
+            if (digit < 0 || value > limit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if {@link #getDoubleField(int)} would return a value for the field at
+     * the provided position in the line most recently tokenized, rather than throwing an
+     * exception, so that invalid fields can be found without the cost of creating one (see
+     * {@link program.LoadReport LoadReport}).
+     *
+     * <p>The field is checked against the same grammar as {@link Double#parseDouble(String)}
+     * uses: surrounding whitespace, an optional sign, and then either "NaN", "Infinity", or ASCII
+     * digits with at most one decimal point and an optional exponent, followed by an optional
+     * type suffix ("f", "F", "d" or "D"). A hexadecimal field (starting "0x" or "0X") is rare
+     * enough that it is simply parsed by {@code Double.parseDouble} instead.
+     *
+     * @param field
+     *         the position of the field in the line (starting from 0).
+     *
+     * @return {@code true} if the field is a number, {@code false} otherwise (including if the
+     *         line has no field at the provided position).
+     */
+    public boolean isDoubleField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            return false;
+        }
+
+        // Whitespace is trimmed as by String.trim
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int i = start;
+        if (i < end && (charAt(i) == '-' || charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        } else if (charAt(i) == 'N' || charAt(i) == 'I') {
+            return matches(i, end, charAt(i) == 'N' ? "NaN" : "Infinity");
+        } else if (end - i > 1 && charAt(i) == '0' && (charAt(i + 1) == 'x' ||
+                charAt(i + 1) == 'X')) {
+            try {
+                Double.parseDouble(getField(field));
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        int numDigits = 0;
+        boolean hasDecimalPoint = false;
+        for (; i < end; i++) {
+            int c = charAt(i);
+            if (c >= '0' && c <= '9') {
+                numDigits++;
+            } else if (c == '.' && !hasDecimalPoint) {
+                hasDecimalPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (numDigits == 0) {
+            return false;
+        }
+
+        if (i < end && (charAt(i) == 'e' || charAt(i) == 'E')) {
+            i++;
+            if (i < end && (charAt(i) == '-' || charAt(i) == '+')) {
+                i++;
+            }
+
+            int numExponentDigits = 0;
+            while (i < end && charAt(i) >= '0' && charAt(i) <= '9') {
+                numExponentDigits++;
+                i++;
+            }
+            if (numExponentDigits == 0) {
+                return false;
+            }
+        }
+
+        if (i == end - 1 && (charAt(i) == 'f' || charAt(i) == 'F' || charAt(i) == 'd' ||
+                charAt(i) == 'D')) {
+            i++;
+        }
+
+        return i == end;
+    }
+
+    /**
+     * Returns {@code true} if the characters of the line most recently tokenized between the
+     * offsets {@code start} and {@code end} are exactly the provided ASCII {@code word}.
+     */
+    private boolean matches(int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < word.length(); i++) {
+            if (charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the character (or byte, as an unsigned value) at the provided offset in the line
+     * most recently tokenized.
+     */
+    private int charAt(int offset) {
+        return isBytes ? byteBuffer[offset] & 0xFF : buffer[offset];
+    }
+
+    /**
+     * Returns {@code true} if the line most recently tokenized is empty or contains only whitespace
+     * (see {@link String#isBlank()}).
+     *
+     * @return {@code true} if the line most recently tokenized is blank, {@code false} otherwise.
+     */
+    public boolean isBlank() {
+        for (int i = 0; i < length; i++) {
+            int c = isBytes ? (byteBuffer[i] & 0xFF) : buffer[i];
+
+            if (c >= 0x80) {
+                return getLine().isBlank();
+            } else if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the whole of the line most recently tokenized, for use in error messages.
+     *
+     * @return the whole of the line most recently tokenized.
+     */
+    public String getLine() {
+        if (isBytes) {
+            return new String(byteBuffer, 0, length, StandardCharsets.UTF_8);
+        } else {
+            return new String(buffer, 0, length);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package program.helpers;
+
+/**
+ * Helper class which rounds values to two decimal places arithmetically, in exactly the same way
+ * as {@code String.format("%.2f", value)}, so that values can be rounded and compared (as when a
+ * file is validated, see {@link program.attributes.fields.QuestionNumericalAttribute
+ * QuestionNumericalAttribute}) or written (see {@code program.QuestionFileWriter}) without
+ * creating any strings.
+ *
+ * <p>{@code String.format} rounds half up from the shortest decimal representation of a value,
+ * rather than from its exact binary value, so a value such as {@code 1.005} (which is slightly
+ * less than 1.005) is rounded up. This only makes a difference to values within a tiny distance
+ * of halfway between two hundredths, so those values are left to {@code String.format} instead
+ * (see {@link #NOT_ROUNDED}), as are values too large or not finite.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+public class DecimalRounding {
+
+    /**
+     * Returned by {@link #roundToHundredths(double)} for a value which is not rounded
+     * arithmetically, and should be formatted with {@code String.format} instead.
+     */
+    public static final long NOT_ROUNDED = Long.MIN_VALUE;
+
+    /**
+     * The greatest magnitude of a value rounded arithmetically. Below this, the value multiplied
+     * by one hundred, and its shortest decimal representation, are both accurate to well within
+     * {@link #ROUNDING_TOLERANCE}.
+     */
+    private static final double MAX_ROUNDED_VALUE = 1e7;
+
+    /**
+     * How close to halfway between two hundredths a value can be before it is left to
+     * {@code String.format} instead, so that it is rounded in exactly the same way.
+     */
+    private static final double ROUNDING_TOLERANCE = 1e-6;
+
+    /**
+     * Returns the provided {@code value} rounded to two decimal places, as a whole number of
+     * hundredths, exactly as {@code String.format("%.2f", value)} would round it (ignoring the
+     * sign of a value rounded to zero, which is formatted as "-0.00").
+     *
+     * @param value
+     *         the value to round.
+     *
+     * @return the number of hundredths the value rounds to, or {@link #NOT_ROUNDED} if the value
+     *         is not finite, has a magnitude of at least 10<sup>7</sup>, or is too close to halfway
+     *         between two hundredths to be sure which way {@code String.format} rounds it.
+     */
+    public static long roundToHundredths(double value) {
+        double magnitude = Math.abs(value);
+        if (!(magnitude < MAX_ROUNDED_VALUE)) {
+            return NOT_ROUNDED;
+        }
+
+        double hundredths = magnitude * 100;
+        double wholeHundredths = Math.floor(hundredths);
+        double fraction = hundredths - wholeHundredths;
+
+        if (Math.abs(fraction - 0.5) <= ROUNDING_TOLERANCE) {
+            return NOT_ROUNDED;
+        }
+
+        long rounded = (long) wholeHundredths + (fraction > 0.5 ? 1 : 0);
+        return value < 0 ? -rounded : rounded;
+    }
+}
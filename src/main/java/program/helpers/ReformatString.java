@@ -108,7 +108,7 @@ public class ReformatString {
 
         // TODO should check if num of quotes is odd, not if it isn't two
 
-        if (s.startsWith("\"") && !s.startsWith("\"\"")) {
+        if (s.length() > 1 && s.startsWith("\"") && !s.startsWith("\"\"")) {
             s = s.substring(1, s.length() - 1);
         }
 
@@ -133,6 +133,35 @@ public class ReformatString {
         return s;
     }
 
+    /**
+     * Returns the provided string with each character folded to a single case, in the same way as
+     * {@link String#compareToIgnoreCase(String)} folds each character before comparing it, so that
+     * two strings are equal ignoring case exactly when their folded forms are equal.
+     *
+     * <p>A string containing only ASCII characters, none of which are upper case, is already folded,
+     * and is returned as is without creating a new string.
+     *
+     * @param s
+     *         the string to fold.
+     *
+     * @return the provided string with each character folded to a single case.
+     */
+    public static String foldCase(String s) {
+        boolean isFolded = true;
+        for (int i = 0; i < s.length() && isFolded; i++) {
+            char character = s.charAt(i);
+            isFolded = character < 128 && (character < 'A' || character > 'Z');
+        }
+        if (isFolded) {
+            return s;
+        }
+
+        StringBuilder folded = new StringBuilder(s.length());
+        s.codePoints().forEach(codePoint ->
+                folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint))));
+        return folded.toString();
+    }
+
     /**
      * {@return the provided array of strings, with any duplicate strings removed} That is to say,
      * removes any strings which are equal (using {@link String#equals(Object)}) to any previous
@@ -0,0 +1,130 @@
+package program;
+
+import org.junit.jupiter.api.Test;
+import program.attributes.fields.QuestionAttribute;
+import program.attributes.fields.QuestionNumericalAttribute;
+import program.helpers.SortingKey;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that every operation on a {@link ColumnarQuestionList} gives exactly the same result as
+ * the same operation on the {@link QuestionList} it was made from, by making the same random
+ * selections, sorts and answers on both and comparing every list after each one, value by value.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class ColumnarQuestionListTest {
+
+    private static final int NUM_QUESTIONS = 500;
+
+    private static final int NUM_OPERATIONS = 1000;
+
+    private static final String[][] SELECTED_SUBJECTS = {{"Physics"}, {"Chemistry", "Biology"},
+            {"Mathematics", "Mathematics"}, {"Psychology", "Computer Science", "Physics"}};
+
+    private static final String[][] SELECTED_TOPICS = {{"physics topic 1"},
+            {"Chemistry topic 2", "CHEMISTRY TOPIC 2", "Biology topic 3"}};
+
+    @Test
+    void givesSameResultsAsQuestionList() throws IOException {
+        Path bank = Files.createTempFile("columnar", ".csv");
+
+        try {
+            new QuestionBankGenerator(NUM_QUESTIONS, 12).write(bank.toString());
+            QuestionList questions = FileQuestionsInterface.createQuestionList(bank.toString(),
+                    LoadMode.STANDARD);
+
+            assertSameResults(questions, new ColumnarQuestionList(questions));
+        } finally {
+            Files.delete(bank);
+        }
+    }
+
+    private static void assertSameResults(QuestionList questions,
+            ColumnarQuestionList columnarQuestions) {
+        ArrayList<QuestionList> lists = new ArrayList<>();
+        ArrayList<ColumnarQuestionList> columnarLists = new ArrayList<>();
+        lists.add(questions);
+        columnarLists.add(columnarQuestions);
+        Random random = new Random(NUM_OPERATIONS);
+
+        for (int operation = 0; operation < NUM_OPERATIONS; operation++) {
+            int chosen = random.nextInt(lists.size());
+            QuestionList list = lists.get(chosen);
+            ColumnarQuestionList columnarList = columnarLists.get(chosen);
+            int type = random.nextInt(10);
+
+            if (type == 0) {
+                String[] values = SELECTED_SUBJECTS[random.nextInt(SELECTED_SUBJECTS.length)];
+                lists.add(list.selectByAttributeArray(values, QuestionAttribute.SUBJECT));
+                columnarLists.add(columnarList.selectByAttributeArray(values,
+                        QuestionAttribute.SUBJECT));
+            } else if (type == 1) {
+                String[] values = SELECTED_TOPICS[random.nextInt(SELECTED_TOPICS.length)];
+                lists.add(list.selectByAttributeArray(values, QuestionAttribute.TOPIC));
+                columnarLists.add(columnarList.selectByAttributeArray(values,
+                        QuestionAttribute.TOPIC));
+            } else if (type == 2 && chosen > 0) {
+                lists.add(questions.removeSelection(list));
+                columnarLists.add(columnarQuestions.removeSelection(columnarList));
+            } else if (type <= 4) {
+                SortingKey key = randomKey(random);
+                list.sort(key);
+                columnarList.sort(key);
+            } else if (list.getNumQuestions() > 0) {
+                int position = random.nextInt(list.getNumQuestions());
+                boolean isCorrect = random.nextBoolean();
+                list.answeredQuestion(position, isCorrect);
+                columnarList.answeredQuestion(position, isCorrect);
+            }
+
+            int last = lists.size() - 1;
+            assertSameValues(lists.get(chosen), columnarLists.get(chosen), operation);
+            assertSameValues(lists.get(last), columnarLists.get(last), operation);
+        }
+
+        for (int i = 0; i < lists.size(); i++) {
+            assertSameValues(lists.get(i), columnarLists.get(i), NUM_OPERATIONS);
+        }
+    }
+
+    private static SortingKey randomKey(Random random) {
+        boolean reverse = random.nextBoolean();
+
+        if (random.nextBoolean()) {
+            QuestionAttribute[] attributes = QuestionAttribute.values();
+            return new SortingKey(attributes[random.nextInt(attributes.length)], reverse);
+        }
+
+        QuestionNumericalAttribute[] attributes = QuestionNumericalAttribute.values();
+        return new SortingKey(attributes[random.nextInt(attributes.length)], reverse);
+    }
+
+    private static void assertSameValues(QuestionList list, ColumnarQuestionList columnarList,
+            int operation) {
+        assertEquals(list.getNumQuestions(), columnarList.getNumQuestions(),
+                "Number of questions after operation " + operation);
+        assertEquals(list.listQuestions(null), columnarList.listQuestions(null),
+                "Listing after operation " + operation);
+
+        ArrayList<Question> questions = list.getQuestions();
+        for (int position = 0; position < questions.size(); position++) {
+            for (QuestionNumericalAttribute attribute : QuestionNumericalAttribute.values()) {
+                // Compared as bits, so that the values must be exactly the same
+                assertEquals(Double.doubleToLongBits(
+                                questions.get(position).getNumericalAttributeValue(attribute)),
+                        Double.doubleToLongBits(
+                                columnarList.getNumericalAttributeValue(position, attribute)),
+                        attribute + " at position " + position + " after operation " +
+                                operation);
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package program;
+
+import org.junit.jupiter.api.Test;
+import program.attributes.fields.QuestionAttribute;
+import program.attributes.fields.QuestionNumericalAttribute;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that every {@link LoadMode} loads exactly the same {@link Question}s from the same file,
+ * including titles containing quoted commas, files with "\r\n" line endings, and text containing
+ * multi-byte UTF-8 characters, and that an invalid line is reported with the same line number
+ * whichever mode is used. The memory-mapped modes are also tested with windows of only a few
+ * hundred bytes, and {@link LoadMode#PARALLEL} with every file split between several threads, so
+ * that many lines (and characters) cross the end of a window and lines are split into chunks.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class LoadModeTest {
+
+    private static final int NUM_QUESTIONS = 1000;
+
+    private static final int PARALLEL_THREADS = 4;
+
+    /**
+     * The size of the window in which files are memory-mapped when not changed by a test.
+     */
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * The smallest of the window sizes tested, each one byte larger than the last, so that the ends
+     * of the windows fall at many different positions within lines (and within characters).
+     */
+    private static final int MIN_WINDOW_SIZE = 400;
+
+    private static final int NUM_WINDOW_SIZES = 8;
+
+    /**
+     * Replaces the word "question" in each title, with two- and three-byte UTF-8 characters.
+     */
+    private static final String MULTI_BYTE_TITLE = "qu\u00e9stion \u2013 \u95ee\u9898";
+
+    /**
+     * Replaces the word "topic" in each title and topic, with two- and four-byte UTF-8 characters.
+     */
+    private static final String MULTI_BYTE_TOPIC = "t\u014dpic \ud83d\udcda";
+
+    @Test
+    void loadsSameQuestionsInEveryMode() throws IOException {
+        Path bank = writeBank(false, false);
+
+        try {
+            ArrayList<Question> questions = assertLoadsSameQuestions(bank);
+            assertTrue(questions.stream().anyMatch(question ->
+                            question.getQuestionAttribute(QuestionAttribute.TITLE).contains(",")),
+                    "Some titles contain commas");
+        } finally {
+            Files.delete(bank);
+        }
+    }
+
+    @Test
+    void loadsSameQuestionsWithCarriageReturns() throws IOException {
+        Path bank = writeBank(true, false);
+
+        try {
+            assertLoadsSameQuestions(bank);
+        } finally {
+            Files.delete(bank);
+        }
+    }
+
+    @Test
+    void loadsSameQuestionsWithMultiByteCharacters() throws IOException {
+        Path withNewlines = writeBank(false, true);
+        Path withCarriageReturns = writeBank(true, true);
+
+        try {
+            ArrayList<Question> questions = assertLoadsSameQuestions(withNewlines);
+            assertTrue(questions.get(0).getQuestionAttribute(QuestionAttribute.TITLE)
+                    .contains(MULTI_BYTE_TITLE), "Titles are decoded as UTF-8");
+            assertTrue(questions.get(0).getQuestionAttribute(QuestionAttribute.TOPIC)
+                    .contains(MULTI_BYTE_TOPIC), "Topics are decoded as UTF-8");
+            assertLoadsSameQuestions(withCarriageReturns);
+        } finally {
+            Files.delete(withNewlines);
+            Files.delete(withCarriageReturns);
+        }
+    }
+
+    @Test
+    void reportsSameLineNumberInEveryMode() throws IOException {
+        Path bank = writeBank(true, true);
+
+        try {
+            List<String> lines = Files.readAllLines(bank, StandardCharsets.UTF_8);
+
+            // The first and last questions, and one which is far into the file, so is in a later
+            // window or chunk
+            for (int lineNumber : new int[]{2, NUM_QUESTIONS * 3 / 4, NUM_QUESTIONS + 1}) {
+                ArrayList<String> invalidLines = new ArrayList<>(lines);
+                // An extra (empty) field
+                String invalidLine = lines.get(lineNumber - 1).replaceFirst(",", ",,");
+                invalidLines.set(lineNumber - 1, invalidLine);
+                Files.write(bank, (String.join("\r\n", invalidLines) + "\r\n")
+                        .getBytes(StandardCharsets.UTF_8));
+
+                assertReportsInvalidLine(bank, lineNumber, invalidLine);
+            }
+        } finally {
+            Files.delete(bank);
+        }
+    }
+
+    /**
+     * Writes a new question bank to a temporary file, and returns its location.
+     *
+     * @param isCarriageReturned
+     *         whether each line should end with "\r\n", rather than "\n".
+     * @param isMultiByte
+     *         whether the titles and topics should contain multi-byte UTF-8 characters.
+     */
+    private static Path writeBank(boolean isCarriageReturned, boolean isMultiByte)
+            throws IOException {
+        Path bank = Files.createTempFile("load", ".csv");
+        new QuestionBankGenerator(NUM_QUESTIONS, 14).write(bank.toString());
+
+        String text = Files.readString(bank, StandardCharsets.UTF_8);
+        if (isMultiByte) {
+            text = text.replace(" question ", " " + MULTI_BYTE_TITLE + " ")
+                    .replace(" topic ", " " + MULTI_BYTE_TOPIC + " ");
+        }
+        if (isCarriageReturned) {
+            text = text.replace("\n", "\r\n");
+        }
+        Files.writeString(bank, text, StandardCharsets.UTF_8);
+
+        return bank;
+    }
+
+    /**
+     * Loads the provided {@code bank} using every {@link LoadMode}, with the default window size
+     * and with many small ones, and asserts that the same {@link Question}s are loaded each time.
+     *
+     * @return the {@code Question}s loaded.
+     */
+    private static ArrayList<Question> assertLoadsSameQuestions(Path bank) throws IOException {
+        ArrayList<Question> expected = FileQuestionsInterface.getQuestionsFromFile(bank.toString(),
+                LoadMode.STANDARD, null);
+        assertEquals(NUM_QUESTIONS, expected.size(), "Number of questions");
+
+        int threads = Settings.getLoadThreads();
+        int minimumBytes = Settings.getParallelLoadMinimumBytes();
+        try {
+            Settings.setLoadThreads(PARALLEL_THREADS);
+            Settings.setParallelLoadMinimumBytes(1);
+
+            assertSameQuestions(expected, bank, LoadMode.MEMORY_MAPPED, "default window");
+            assertSameQuestions(expected, bank, LoadMode.PARALLEL, "default window");
+
+            for (int i = 0; i < NUM_WINDOW_SIZES; i++) {
+                int windowSize = MIN_WINDOW_SIZE + i;
+                FileQuestionsInterface.setMappedWindowSize(windowSize);
+
+                assertSameQuestions(expected, bank, LoadMode.MEMORY_MAPPED,
+                        windowSize + "-byte windows");
+                assertSameQuestions(expected, bank, LoadMode.PARALLEL,
+                        windowSize + "-byte windows");
+            }
+        } finally {
+            FileQuestionsInterface.setMappedWindowSize(DEFAULT_WINDOW_SIZE);
+            Settings.setLoadThreads(threads);
+            Settings.setParallelLoadMinimumBytes(minimumBytes);
+        }
+
+        return expected;
+    }
+
+    private static void assertSameQuestions(ArrayList<Question> expected, Path bank,
+            LoadMode loadMode, String description) throws IOException {
+        String message = loadMode + " with " + description;
+        ArrayList<Question> actual = FileQuestionsInterface.getQuestionsFromFile(bank.toString(),
+                loadMode, null);
+        assertEquals(expected.size(), actual.size(), "Number of questions, " + message);
+
+        for (int i = 0; i < expected.size(); i++) {
+            Question expectedQuestion = expected.get(i);
+            Question actualQuestion = actual.get(i);
+
+            assertEquals(expectedQuestion.getIndex(), actualQuestion.getIndex(),
+                    "Index of question " + i + ", " + message);
+            for (QuestionAttribute attribute : QuestionAttribute.values()) {
+                assertEquals(expectedQuestion.getQuestionAttribute(attribute),
+                        actualQuestion.getQuestionAttribute(attribute),
+                        attribute + " of question " + i + ", " + message);
+            }
+            for (QuestionNumericalAttribute attribute : QuestionNumericalAttribute.values()) {
+                // Compared as bits, so that the values must be exactly the same
+                assertEquals(Double.doubleToLongBits(
+                                expectedQuestion.getNumericalAttributeValue(attribute)),
+                        Double.doubleToLongBits(
+                                actualQuestion.getNumericalAttributeValue(attribute)),
+                        attribute + " of question " + i + ", " + message);
+            }
+        }
+    }
+
+    /**
+     * Asserts that loading the provided {@code bank} using every {@link LoadMode}, with the default
+     * window size and with small windows, stops at the provided invalid line, giving its number.
+     */
+    private static void assertReportsInvalidLine(Path bank, int lineNumber, String invalidLine) {
+        String expectedStart = "Line #" + lineNumber + " - \"" + invalidLine + "\" - is invalid!";
+
+        int threads = Settings.getLoadThreads();
+        int minimumBytes = Settings.getParallelLoadMinimumBytes();
+        try {
+            Settings.setLoadThreads(PARALLEL_THREADS);
+            Settings.setParallelLoadMinimumBytes(1);
+
+            for (int windowSize : new int[]{DEFAULT_WINDOW_SIZE, MIN_WINDOW_SIZE}) {
+                FileQuestionsInterface.setMappedWindowSize(windowSize);
+
+                for (LoadMode loadMode : LoadMode.values()) {
+                    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                            () -> FileQuestionsInterface.getQuestionsFromFile(bank.toString(),
+                                    loadMode, null));
+                    assertTrue(e.getMessage().startsWith(expectedStart),
+                            loadMode + " with " + windowSize + "-byte windows reported \"" +
+                                    e.getMessage() + "\", expected line #" + lineNumber);
+                }
+            }
+        } finally {
+            FileQuestionsInterface.setMappedWindowSize(DEFAULT_WINDOW_SIZE);
+            Settings.setLoadThreads(threads);
+            Settings.setParallelLoadMinimumBytes(minimumBytes);
+        }
+    }
+}
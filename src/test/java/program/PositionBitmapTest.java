@@ -0,0 +1,206 @@
+package program;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that a {@link PositionBitmap} holds exactly the positions of a {@link BitSet} built in the
+ * same way, including chunks with either side of 4096 positions (where a chunk changes between an
+ * array and a bitmap), empty and full chunks, and intersections, unions and differences of every
+ * kind of chunk whose results change form.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class PositionBitmapTest {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The greatest number of positions in a chunk held as an array.
+     */
+    private static final int MAX_ARRAY_CARDINALITY = 4096;
+
+    /**
+     * Numbers of positions in a chunk, from empty to full, including either side of
+     * {@link #MAX_ARRAY_CARDINALITY}.
+     */
+    private static final int[] CHUNK_CARDINALITIES = {0, 1, 64, MAX_ARRAY_CARDINALITY - 1,
+            MAX_ARRAY_CARDINALITY, MAX_ARRAY_CARDINALITY + 1, CHUNK_SIZE / 2, CHUNK_SIZE - 1,
+            CHUNK_SIZE};
+
+    private static final int NUM_CHUNKS = 4;
+
+    private static final int NUM_RANDOM_SETS = 40;
+
+    @Test
+    void holdsProvidedPositions() {
+        Random random = new Random(CHUNK_SIZE);
+
+        for (int cardinality : CHUNK_CARDINALITIES) {
+            for (int key = 0; key < NUM_CHUNKS; key++) {
+                BitSet expected = new BitSet();
+                addChunk(expected, key, cardinality, random);
+                assertSamePositions(expected, PositionBitmap.of(expected.stream().toArray()),
+                        cardinality + " positions in chunk " + key);
+            }
+        }
+    }
+
+    @Test
+    void rangeHoldsEveryPosition() {
+        for (int size : new int[]{0, 1, 63, 64, 65, MAX_ARRAY_CARDINALITY,
+                MAX_ARRAY_CARDINALITY + 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1,
+                CHUNK_SIZE * 3 + 100}) {
+            BitSet expected = new BitSet();
+            expected.set(0, size);
+            assertSamePositions(expected, PositionBitmap.range(size), "Range of " + size);
+        }
+    }
+
+    @Test
+    void changesChunkFormAtThreshold() {
+        // Two arrays of 4096 positions, which together fill a bitmap of 8192
+        BitSet even = new BitSet();
+        BitSet odd = new BitSet();
+        for (int i = 0; i < MAX_ARRAY_CARDINALITY * 2; i++) {
+            (i % 2 == 0 ? even : odd).set(i);
+        }
+        PositionBitmap evenBitmap = PositionBitmap.of(even.stream().toArray());
+        PositionBitmap oddBitmap = PositionBitmap.of(odd.stream().toArray());
+
+        BitSet all = or(even, odd);
+        PositionBitmap allBitmap = evenBitmap.or(oddBitmap);
+        assertSamePositions(all, allBitmap, "Union of arrays into a bitmap");
+        assertSamePositions(new BitSet(), evenBitmap.and(oddBitmap), "Disjoint intersection");
+
+        // Back to an array of exactly 4096, then one more position back to a bitmap
+        assertSamePositions(even, allBitmap.andNot(oddBitmap), "Bitmap minus an array");
+        assertSamePositions(even, allBitmap.and(evenBitmap), "Bitmap and an array");
+        BitSet oneMore = (BitSet) even.clone();
+        oneMore.set(1);
+        PositionBitmap oneMoreBitmap = evenBitmap.or(PositionBitmap.of(new int[]{1}));
+        assertSamePositions(oneMore, oneMoreBitmap, "Array of 4096 plus one position");
+        assertSamePositions(even, oneMoreBitmap.andNot(PositionBitmap.of(new int[]{1})),
+                "Bitmap of 4097 minus one position");
+
+        // Two bitmaps whose intersection is small enough to be an array
+        BitSet low = new BitSet();
+        low.set(0, MAX_ARRAY_CARDINALITY + 100);
+        BitSet high = new BitSet();
+        high.set(MAX_ARRAY_CARDINALITY, MAX_ARRAY_CARDINALITY * 3);
+        PositionBitmap lowBitmap = PositionBitmap.of(low.stream().toArray());
+        PositionBitmap highBitmap = PositionBitmap.of(high.stream().toArray());
+        assertSamePositions(and(low, high), lowBitmap.and(highBitmap), "Bitmaps into an array");
+        assertSamePositions(andNot(low, high), lowBitmap.andNot(highBitmap),
+                "Bitmap minus a bitmap into an array");
+
+        // Every position of a full chunk removed, leaving no chunk
+        PositionBitmap full = PositionBitmap.range(CHUNK_SIZE);
+        assertSamePositions(new BitSet(), full.andNot(full), "Full chunk minus itself");
+        assertSamePositions(new BitSet(), PositionBitmap.EMPTY.or(PositionBitmap.EMPTY),
+                "Union of empty sets");
+    }
+
+    @Test
+    void combinesEveryKindOfChunk() {
+        Random random = new Random(NUM_RANDOM_SETS);
+        ArrayList<BitSet> sets = new ArrayList<>();
+        ArrayList<PositionBitmap> bitmaps = new ArrayList<>();
+
+        for (int i = 0; i < NUM_RANDOM_SETS; i++) {
+            BitSet set = randomSet(random);
+            sets.add(set);
+            bitmaps.add(PositionBitmap.of(set.stream().toArray()));
+        }
+
+        for (int i = 0; i < NUM_RANDOM_SETS; i++) {
+            for (int j = 0; j < NUM_RANDOM_SETS; j += 7) {
+                BitSet a = sets.get(i);
+                BitSet b = sets.get(j);
+                PositionBitmap aBitmap = bitmaps.get(i);
+                PositionBitmap bBitmap = bitmaps.get(j);
+                String message = " of sets " + i + " and " + j;
+
+                PositionBitmap and = aBitmap.and(bBitmap);
+                PositionBitmap or = aBitmap.or(bBitmap);
+                PositionBitmap andNot = aBitmap.andNot(bBitmap);
+                assertSamePositions(and(a, b), and, "Intersection" + message);
+                assertSamePositions(or(a, b), or, "Union" + message);
+                assertSamePositions(andNot(a, b), andNot, "Difference" + message);
+
+                // Combining the results again, whichever form their chunks have changed to
+                assertSamePositions(a, andNot.or(and), "Difference and intersection" + message);
+                assertSamePositions(andNot(b, a), or.andNot(aBitmap),
+                        "Union minus the first" + message);
+            }
+        }
+    }
+
+    /**
+     * Returns a set with a random number of positions (from {@link #CHUNK_CARDINALITIES}) in each
+     * of {@link #NUM_CHUNKS} chunks, some of which are left out.
+     */
+    private static BitSet randomSet(Random random) {
+        BitSet set = new BitSet();
+        for (int key = 0; key < NUM_CHUNKS; key++) {
+            addChunk(set, key, CHUNK_CARDINALITIES[random.nextInt(CHUNK_CARDINALITIES.length)],
+                    random);
+        }
+        return set;
+    }
+
+    /**
+     * Adds the provided number of random positions to the provided {@code set} in the chunk with
+     * the provided {@code key}, either spread through the chunk or (half of the time) consecutive.
+     */
+    private static void addChunk(BitSet set, int key, int cardinality, Random random) {
+        int chunkStart = key * CHUNK_SIZE;
+
+        if (random.nextBoolean()) {
+            int start = chunkStart + random.nextInt(CHUNK_SIZE - cardinality + 1);
+            set.set(start, start + cardinality);
+            return;
+        }
+
+        // Positions are added to an empty chunk, or removed from a full one if that is quicker
+        BitSet chunk = new BitSet();
+        boolean isRemoving = cardinality > CHUNK_SIZE / 2;
+        if (isRemoving) {
+            chunk.set(0, CHUNK_SIZE);
+        }
+        while (chunk.cardinality() != cardinality) {
+            chunk.set(random.nextInt(CHUNK_SIZE), !isRemoving);
+        }
+        chunk.stream().forEach(position -> set.set(chunkStart + position));
+    }
+
+    private static BitSet and(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+
+    private static BitSet or(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.or(b);
+        return result;
+    }
+
+    private static BitSet andNot(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.andNot(b);
+        return result;
+    }
+
+    private static void assertSamePositions(BitSet expected, PositionBitmap actual,
+            String message) {
+        assertEquals(expected.cardinality(), actual.getCardinality(), message + " (cardinality)");
+        assertArrayEquals(expected.stream().toArray(), actual.toArray(), message);
+    }
+}
@@ -0,0 +1,106 @@
+package program;
+
+import org.junit.jupiter.api.Test;
+import program.attributes.fields.QuestionAttribute;
+import program.attributes.fields.QuestionNumericalAttribute;
+import program.helpers.SortingKey;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests that {@link QuestionList#selectByAttributeArray(String[], QuestionAttribute)} selects each
+ * matching {@link Question} exactly once, in the order of the list, however many of the values
+ * it matches (so the values are treated as a set), and that a selection made using the
+ * {@link AttributeIndex} is the same as one made by comparing every {@code Question}.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionListTest {
+
+    private static final int NUM_QUESTIONS = 1000;
+
+    /**
+     * Repeated values, and values differing only in case, which match a {@code TITLE} or
+     * {@code TOPIC} more than once but only match a {@code SUBJECT} exactly.
+     */
+    private static final String[][] SELECTED_SUBJECTS = {{"Physics", "Physics"},
+            {"Chemistry", "chemistry", "Biology", "Chemistry"}, {"Mathematics", "Unknown"}};
+
+    private static final String[][] SELECTED_TOPICS = {{"Physics topic 1", "physics topic 1"},
+            {"Biology topic 2", "BIOLOGY TOPIC 2", "Biology topic 3", "Biology topic 2"}};
+
+    @Test
+    void selectsEachMatchingQuestionOnce() throws IOException {
+        Path bank = Files.createTempFile("select", ".csv");
+
+        try {
+            new QuestionBankGenerator(NUM_QUESTIONS, 15).write(bank.toString());
+
+            for (String[] values : SELECTED_SUBJECTS) {
+                assertSelectsEachOnce(bank, values, QuestionAttribute.SUBJECT, false);
+            }
+            for (String[] values : SELECTED_TOPICS) {
+                assertSelectsEachOnce(bank, values, QuestionAttribute.TOPIC, true);
+            }
+        } finally {
+            Files.delete(bank);
+        }
+    }
+
+    /**
+     * Asserts that selecting the provided {@code values} from the {@code bank}, both using its
+     * {@link AttributeIndex} and after sorting it (so that every {@link Question} is compared),
+     * gives each matching {@code Question} exactly once, in the order of the list.
+     */
+    private static void assertSelectsEachOnce(Path bank, String[] values,
+            QuestionAttribute attribute, boolean isIgnoringCase) throws IOException {
+        String message = attribute + " " + String.join(", ", values);
+
+        QuestionList indexed = FileQuestionsInterface.createQuestionList(bank.toString(),
+                LoadMode.STANDARD);
+        // Sorted into the same order, but no longer able to use the index
+        QuestionList compared = FileQuestionsInterface.createQuestionList(bank.toString(),
+                LoadMode.STANDARD).sort(new SortingKey(QuestionNumericalAttribute.INDEX));
+
+        ArrayList<Integer> expected = new ArrayList<>();
+        for (Question question : indexed.getQuestions()) {
+            String value = question.getQuestionAttribute(attribute);
+            for (String selected : values) {
+                if (isIgnoringCase ? value.equalsIgnoreCase(selected) : value.equals(selected)) {
+                    expected.add(question.getIndex());
+                    break;
+                }
+            }
+        }
+
+        assertFalse(expected.isEmpty(), "Some questions match " + message);
+
+        assertEquals(expected, getIndices(indexed.selectByAttributeArray(values, attribute)),
+                "Selection using the index, " + message);
+        assertEquals(expected, getIndices(compared.selectByAttributeArray(values, attribute)),
+                "Selection comparing every question, " + message);
+
+        // Selecting again from a selection, using the same values twice over
+        String[] repeated = new String[values.length * 2];
+        for (int i = 0; i < repeated.length; i++) {
+            repeated[i] = values[i % values.length];
+        }
+        assertEquals(expected, getIndices(indexed.selectByAttributeArray(values, attribute)
+                        .selectByAttributeArray(repeated, attribute)),
+                "Selection from a selection, " + message);
+    }
+
+    private static ArrayList<Integer> getIndices(QuestionList list) {
+        ArrayList<Integer> indices = new ArrayList<>();
+        for (Question question : list.getQuestions()) {
+            indices.add(question.getIndex());
+        }
+        return indices;
+    }
+}
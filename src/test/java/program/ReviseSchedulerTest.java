@@ -0,0 +1,126 @@
+package program;
+
+import org.junit.jupiter.api.Test;
+import program.attributes.fields.QuestionNumericalAttribute;
+import program.helpers.SortingKey;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that a {@link ReviseScheduler} asks the {@link Question}s of a list in exactly the order
+ * given by sorting the list (stably) before every question and asking the first, as
+ * {@link Main#runRevise} did before it, including which of several {@code Question}s with the
+ * same value is asked first.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class ReviseSchedulerTest {
+
+    private static final int NUM_QUESTIONS = 300;
+
+    private static final int NUM_ANSWERS = 2000;
+
+    @Test
+    void asksInSortedOrderByEveryKey() throws IOException {
+        // A third of the questions have never been attempted, so many have the same value
+        Path bank = writeBank(new QuestionBankGenerator(NUM_QUESTIONS, 8));
+
+        try {
+            for (QuestionNumericalAttribute attribute : QuestionNumericalAttribute.values()) {
+                assertAsksInSortedOrder(bank, new SortingKey(attribute, false));
+                assertAsksInSortedOrder(bank, new SortingKey(attribute, true));
+            }
+        } finally {
+            Files.delete(bank);
+        }
+    }
+
+    @Test
+    void asksTiedQuestionsInSortedOrder() throws IOException {
+        // No question has been attempted, so every question starts with the same attempted,
+        // correct and percentage, and many with the same expected times asked and likelihood
+        Path bank = writeBank(new QuestionBankGenerator(NUM_QUESTIONS, 9,
+                new String[]{"Biology", "Physics"}, null, 5, 1, 0, 1, 6));
+
+        try {
+            for (QuestionNumericalAttribute attribute : QuestionNumericalAttribute.values()) {
+                assertAsksInSortedOrder(bank, new SortingKey(attribute, false));
+                assertAsksInSortedOrder(bank, new SortingKey(attribute, true));
+            }
+        } finally {
+            Files.delete(bank);
+        }
+    }
+
+    @Test
+    void asksInSortedOrderWhenAQuestionIsInTheListTwice() throws IOException {
+        Path bank = writeBank(new QuestionBankGenerator(NUM_QUESTIONS, 10,
+                new String[]{"Chemistry"}, null, 5, 1, 0, 1, 6));
+
+        try {
+            assertAsksInSortedOrder(bank, new SortingKey(QuestionNumericalAttribute.ATTEMPTED),
+                    true);
+            assertAsksInSortedOrder(bank, new SortingKey(QuestionNumericalAttribute.LIKELIHOOD,
+                    true), true);
+        } finally {
+            Files.delete(bank);
+        }
+    }
+
+    private static Path writeBank(QuestionBankGenerator generator) throws IOException {
+        Path bank = Files.createTempFile("revise", ".csv");
+        generator.write(bank.toString());
+        return bank;
+    }
+
+    private static void assertAsksInSortedOrder(Path bank, SortingKey key) throws IOException {
+        assertAsksInSortedOrder(bank, key, false);
+    }
+
+    /**
+     * Loads the provided {@code bank} twice, and answers the questions of one copy using a
+     * {@link ReviseScheduler} and the other by sorting it before every question, with the same
+     * answers, asserting that the same {@link Question} is asked each time.
+     *
+     * @param isDuplicated
+     *         whether the first {@code Question} should be added to the end of each list again.
+     */
+    private static void assertAsksInSortedOrder(Path bank, SortingKey key, boolean isDuplicated)
+            throws IOException {
+        QuestionList scheduled = load(bank, isDuplicated);
+        QuestionList sorted = load(bank, isDuplicated);
+        ReviseScheduler scheduler = scheduled.createReviseScheduler(key);
+        Random random = new Random(NUM_ANSWERS);
+
+        for (int answer = 0; answer < NUM_ANSWERS; answer++) {
+            boolean isCorrect = random.nextBoolean();
+
+            sorted = sorted.sort(key);
+            Question expected = sorted.getFirstQuestion();
+            sorted.answeredFirstQuestion(isCorrect);
+
+            Question actual = scheduler.getNextQuestion();
+            scheduler.answeredNextQuestion(isCorrect);
+
+            assertEquals(expected.getIndex(), actual.getIndex(),
+                    "Answer " + answer + " sorted by " + key);
+        }
+    }
+
+    private static QuestionList load(Path bank, boolean isDuplicated) throws IOException {
+        QuestionList loaded = FileQuestionsInterface.createQuestionList(bank.toString(),
+                LoadMode.STANDARD);
+        ArrayList<Question> questions = new ArrayList<>(loaded.getQuestions());
+
+        if (isDuplicated) {
+            questions.add(questions.get(0));
+        }
+        return new QuestionList(questions, loaded);
+    }
+}
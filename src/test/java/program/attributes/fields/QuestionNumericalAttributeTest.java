@@ -0,0 +1,252 @@
+package program.attributes.fields;
+
+import org.junit.jupiter.api.Test;
+import program.Question;
+import program.exceptions.InvalidQuestionNumericalAttributeException;
+import program.helpers.ReformatString;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that {@link QuestionNumericalAttribute#assertAttributesValid(int, int, int, double,
+ * double, double)} and {@link QuestionNumericalAttribute#getInvalidAttribute(int, int, int,
+ * double, double, double)} accept and reject exactly the same values as the original validation,
+ * which rounded every percentage and likelihood with {@code String.format("%.2f")} and
+ * {@link Double#parseDouble(String)} (see {@link #assertValidByFormatting(int, int, int, double,
+ * double, double)}), and describe each problem with exactly the same message.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class QuestionNumericalAttributeTest {
+
+    /**
+     * The greatest attempted value for which every correct value is tested.
+     */
+    private static final int MAX_EXHAUSTIVE_ATTEMPTED = 100;
+
+    private static final int RANDOM_CASES = 200_000;
+
+    @Test
+    void matchesFormattingForEveryAttemptedAndCorrectValue() {
+        for (int attempted = 0; attempted <= MAX_EXHAUSTIVE_ATTEMPTED; attempted++) {
+            for (int correct = 0; correct <= attempted + 1; correct++) {
+                double calcPercentage = attempted == 0 ? 0 : 100 * ((double) correct / attempted);
+
+                for (double percentage : nearbyValues(calcPercentage)) {
+                    for (double expectedTimesAsked : new double[]{0, 0.5, attempted,
+                            attempted + 3.7}) {
+                        double calcLikelihood = Question.calculateLikelihood(attempted,
+                                percentage, expectedTimesAsked);
+
+                        // The likelihood is only checked once the percentage is valid
+                        if (percentage != roundToTwoDecimalPlaces(calcPercentage)) {
+                            assertSameResult(correct, attempted, correct, percentage,
+                                    expectedTimesAsked, calcLikelihood);
+                            continue;
+                        }
+
+                        for (double likelihood : nearbyValues(calcLikelihood)) {
+                            assertSameResult(correct, attempted, correct, percentage,
+                                    expectedTimesAsked, likelihood);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesFormattingForRandomValues() {
+        Random random = new Random(21);
+
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            int attempted = random.nextInt(10) == 0 ? random.nextInt() : random.nextInt(1000);
+            int correct = random.nextInt(10) == 0 ? random.nextInt() :
+                    random.nextInt(Math.max(attempted, 0) + 2);
+            double percentage = random.nextBoolean() ? randomValue(random) :
+                    roundToTwoDecimalPlaces(attempted <= 0 ? 0 :
+                            100 * ((double) correct / attempted));
+            double expectedTimesAsked = randomValue(random);
+            double likelihood = random.nextBoolean() ? randomValue(random) :
+                    roundToTwoDecimalPlaces(Question.calculateLikelihood(attempted, percentage,
+                            expectedTimesAsked));
+
+            assertSameResult(random.nextInt(10) == 0 ? -1 : i, attempted, correct, percentage,
+                    expectedTimesAsked, likelihood);
+        }
+    }
+
+    @Test
+    void matchesFormattingForValuesWhichAreNotFiniteOrTooLarge() {
+        double[] values = {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0,
+                1e7, Math.nextDown(1e7), Math.nextUp(1e7), 1e12, Double.MAX_VALUE};
+
+        for (double percentage : values) {
+            for (double expectedTimesAsked : values) {
+                for (double likelihood : values) {
+                    assertSameResult(1, 10, 5, percentage, expectedTimesAsked, likelihood);
+                    assertSameResult(1, 0, 0, percentage, expectedTimesAsked, likelihood);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns values around the provided {@code value} as a percentage or likelihood might be
+     * written in a file: the value itself, the value rounded to two decimal places and the
+     * hundredths either side, and each rounding boundary either side of the value, with the
+     * values one ulp either side of it.
+     */
+    private static double[] nearbyValues(double value) {
+        double rounded = roundToTwoDecimalPlaces(value);
+        double lowerBoundary = rounded - 0.005;
+        double upperBoundary = rounded + 0.005;
+
+        return new double[]{value, rounded, rounded - 0.01, rounded + 0.01, lowerBoundary,
+                Math.nextDown(lowerBoundary), Math.nextUp(lowerBoundary), upperBoundary,
+                Math.nextDown(upperBoundary), Math.nextUp(upperBoundary)};
+    }
+
+    /**
+     * Returns a random value, which is sometimes not finite, negative zero, negative, or at least
+     * 10<sup>7</sup>, and is otherwise spread over many orders of magnitude.
+     */
+    private static double randomValue(Random random) {
+        switch (random.nextInt(20)) {
+            case 0:
+                return Double.NaN;
+            case 1:
+                return random.nextBoolean() ? Double.POSITIVE_INFINITY :
+                        Double.NEGATIVE_INFINITY;
+            case 2:
+                return -0.0;
+            case 3:
+                return 1e7 + random.nextDouble() * 1e12;
+            case 4:
+                return -random.nextDouble() * 100;
+            case 5:
+                // Two decimal places, as read from a file
+                return random.nextInt(10_000_000) / 100.0;
+            default:
+                return random.nextDouble() * Math.pow(10, random.nextInt(6));
+        }
+    }
+
+    /**
+     * Asserts that the provided values are accepted or rejected in the same way, and with the
+     * same message, by {@link QuestionNumericalAttribute#assertAttributesValid(int, int, int,
+     * double, double, double)} and by the original validation, and that
+     * {@link QuestionNumericalAttribute#getInvalidAttribute(int, int, int, double, double, double)}
+     * names the same attribute.
+     */
+    private static void assertSameResult(int index, int attempted, int correct, double percentage,
+            double expectedTimesAsked, double likelihood) {
+        InvalidQuestionNumericalAttributeException expected = getException(() ->
+                assertValidByFormatting(index, attempted, correct, percentage,
+                        expectedTimesAsked, likelihood));
+        InvalidQuestionNumericalAttributeException actual = getException(() ->
+                QuestionNumericalAttribute.assertAttributesValid(index, attempted, correct,
+                        percentage, expectedTimesAsked, likelihood));
+        String values = "index = " + index + ", attempted = " + attempted + ", correct = " +
+                correct + ", percentage = " + percentage + ", expected times asked = " +
+                expectedTimesAsked + ", likelihood = " + likelihood;
+
+        assertEquals(describe(expected), describe(actual), values);
+        assertEquals(expected == null ? null : expected.getAttribute(),
+                QuestionNumericalAttribute.getInvalidAttribute(index, attempted, correct,
+                        percentage, expectedTimesAsked, likelihood), values);
+    }
+
+    /**
+     * Returns the exception thrown by the provided {@code validation}, or {@code null} if it
+     * accepts its values.
+     */
+    private static InvalidQuestionNumericalAttributeException getException(
+            Validation validation) {
+        try {
+            validation.validate();
+            return null;
+        } catch (InvalidQuestionNumericalAttributeException e) {
+            return e;
+        }
+    }
+
+    private static String describe(InvalidQuestionNumericalAttributeException e) {
+        return e == null ? "valid" : e.getAttribute() + ": " + e.getMessage();
+    }
+
+    private interface Validation {
+        void validate() throws InvalidQuestionNumericalAttributeException;
+    }
+
+    /**
+     * The validation made by {@code assertAttributesValid} before values were rounded
+     * arithmetically, kept unchanged for comparison.
+     */
+    private static void assertValidByFormatting(int index, int attempted, int correct,
+            double percentage, double expectedTimesAsked, double likelihood)
+            throws InvalidQuestionNumericalAttributeException {
+        assertNotLessThanZero(index, QuestionNumericalAttribute.INDEX);
+        assertNotLessThanZero(attempted, QuestionNumericalAttribute.ATTEMPTED);
+        assertNotLessThanZero(correct, QuestionNumericalAttribute.CORRECT);
+        assertNotLessThanZero(percentage, QuestionNumericalAttribute.PERCENTAGE);
+        assertNotLessThanZero(expectedTimesAsked, QuestionNumericalAttribute.EXPECTED_TIMES_ASKED);
+        assertNotLessThanZero(likelihood, QuestionNumericalAttribute.LIKELIHOOD);
+
+        if (correct > attempted) {
+            String errorMessage =
+                    "\"Correct\" value " + correct + "is greater than \"Attempted\" value " +
+                            attempted + "!";
+            throw new InvalidQuestionNumericalAttributeException(
+                    QuestionNumericalAttribute.CORRECT, correct, errorMessage);
+        }
+
+        double roundedFilePercentage = roundToTwoDecimalPlaces(percentage);
+
+        double calcPercentage;
+        if (attempted == 0) {
+            calcPercentage = 0;
+        } else {
+            calcPercentage = roundToTwoDecimalPlaces(100 * ((double) correct / attempted));
+        }
+
+        if (roundedFilePercentage != calcPercentage) {
+            String errorMessage = "\"Percentage\" value for \"Correct\" = " + correct +
+                    " and \"Attempted\" = " + attempted + " should be " +
+                    calcPercentage + ", got " +
+                    percentage + "!";
+            throw new InvalidQuestionNumericalAttributeException(
+                    QuestionNumericalAttribute.PERCENTAGE, percentage, errorMessage);
+        }
+
+        double roundedFileLikelihood = roundToTwoDecimalPlaces(likelihood);
+
+        double calcLikelihood = roundToTwoDecimalPlaces(Question.calculateLikelihood(attempted,
+                percentage, expectedTimesAsked));
+
+        if (roundedFileLikelihood != calcLikelihood) {
+            String errorMessage = "\"Likelihood\" value for \"Attempted\" = " + attempted +
+                    ", \"Percentage\" = " + percentage +
+                    " and \"Expected times asked\" = " +
+                    expectedTimesAsked + " should be " + calcLikelihood +
+                    ", got " + likelihood + "!";
+            throw new InvalidQuestionNumericalAttributeException(
+                    QuestionNumericalAttribute.LIKELIHOOD, likelihood, errorMessage);
+        }
+    }
+
+    private static void assertNotLessThanZero(double value, QuestionNumericalAttribute attribute)
+            throws InvalidQuestionNumericalAttributeException {
+        if (value < 0) {
+            String errorMessage = "\"" + ReformatString.toPlainText(attribute.toString(), false) +
+                    "\" value is less than 0!";
+            throw new InvalidQuestionNumericalAttributeException(attribute, value, errorMessage);
+        }
+    }
+
+    private static double roundToTwoDecimalPlaces(double value) {
+        return Double.parseDouble(String.format("%.2f", value));
+    }
+}
@@ -0,0 +1,122 @@
+package program.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests that {@link DecimalRounding#roundToHundredths(double)} rounds every value it rounds
+ * exactly as {@code String.format("%.2f", value)} does, and leaves every value it cannot be sure
+ * of to {@code String.format}.
+ * <p>
+ * Copyright (c) Owen Parfitt-Ford 2024. All rights reserved.
+ */
+class DecimalRoundingTest {
+
+    /**
+     * The number of hundredths above which rounding boundaries are no longer tested
+     * exhaustively (giving values up to 2000).
+     */
+    private static final int MAX_BOUNDARY_HUNDREDTHS = 200_000;
+
+    private static final int RANDOM_VALUES = 1_000_000;
+
+    /**
+     * A distance from a rounding boundary just greater than the distance within which values are
+     * left to {@code String.format}.
+     */
+    private static final double BESIDE_BOUNDARY = 2e-8;
+
+    @Test
+    void roundsEveryHundredthAndThousandthAsFormatted() {
+        for (int thousandths = 0; thousandths <= MAX_BOUNDARY_HUNDREDTHS * 10; thousandths++) {
+            assertRoundsAsFormatted(thousandths / 1000.0);
+        }
+    }
+
+    @Test
+    void roundsValuesBesideEveryRoundingBoundaryAsFormatted() {
+        for (int hundredths = 0; hundredths < MAX_BOUNDARY_HUNDREDTHS; hundredths++) {
+            double boundary = (hundredths + 0.5) / 100;
+
+            // Values just far enough from the boundary to be rounded arithmetically, too
+            for (double value : new double[]{boundary, Math.nextUp(boundary),
+                    Math.nextDown(boundary), boundary - BESIDE_BOUNDARY,
+                    boundary + BESIDE_BOUNDARY}) {
+                assertRoundsAsFormatted(value);
+                assertRoundsAsFormatted(-value);
+            }
+        }
+    }
+
+    @Test
+    void roundsRandomValuesAsFormatted() {
+        Random random = new Random(21);
+
+        for (int i = 0; i < RANDOM_VALUES; i++) {
+            assertRoundsAsFormatted(randomValue(random));
+        }
+    }
+
+    @Test
+    void doesNotRoundValuesWhichAreNotFiniteOrTooLarge() {
+        for (double value : new double[]{Double.NaN, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, 1e7, -1e7, Math.nextUp(1e7), 1e300, Double.MAX_VALUE}) {
+            assertEquals(DecimalRounding.NOT_ROUNDED, DecimalRounding.roundToHundredths(value),
+                    "Value " + value + " should not be rounded");
+        }
+
+        assertEquals(0, DecimalRounding.roundToHundredths(-0.0));
+        assertEquals(1_000_000_000L, DecimalRounding.roundToHundredths(Math.nextDown(1e7)));
+    }
+
+    /**
+     * Returns a random value, which is sometimes not finite, negative zero, or at least
+     * 10<sup>7</sup>, and is otherwise spread over many orders of magnitude.
+     */
+    private static double randomValue(Random random) {
+        switch (random.nextInt(20)) {
+            case 0:
+                return Double.NaN;
+            case 1:
+                return random.nextBoolean() ? Double.POSITIVE_INFINITY :
+                        Double.NEGATIVE_INFINITY;
+            case 2:
+                return -0.0;
+            case 3:
+                return 1e7 + random.nextDouble() * 1e12;
+            case 4:
+                return Double.longBitsToDouble(random.nextLong());
+            case 5:
+                // Two decimal places, as read from a file
+                return random.nextInt(10_000_000) / 100.0;
+            default:
+                return (random.nextDouble() - 0.1) * Math.pow(10, random.nextInt(9) - 1);
+        }
+    }
+
+    /**
+     * Asserts that the provided {@code value} is either not rounded, or rounded to the value
+     * {@code String.format("%.2f", value)} gives.
+     */
+    private static void assertRoundsAsFormatted(double value) {
+        long hundredths = DecimalRounding.roundToHundredths(value);
+
+        if (hundredths == DecimalRounding.NOT_ROUNDED) {
+            if (Double.isFinite(value) && Math.abs(value) < 1e7 &&
+                    Math.abs(Math.abs(value) * 100 % 1 - 0.5) > 1e-6) {
+                fail("Value " + value + " should have been rounded");
+            }
+            return;
+        }
+
+        double formatted = Double.parseDouble(String.format("%.2f", value));
+        if (formatted != hundredths / 100.0) {
+            fail("Value " + value + " was rounded to " + hundredths + " hundredths, but is " +
+                    "formatted as " + String.format("%.2f", value));
+        }
+    }
+}